@@ -121,7 +121,7 @@ public class JOGLGraphics extends NullGraphics {
 		
 		// bind to the appropriate texture for this sprite
 		Texture texture = this.textureLoader.getTexture((BufferedImage) img);
-		texture.bind(this.GL11);
+		this.bindTexture(texture);
 		
 		// translate to the right location and prepare to draw
 		this.GL11.glTranslatef(x, y, 0);
@@ -155,7 +155,7 @@ public class JOGLGraphics extends NullGraphics {
 		this.GL11.glPushMatrix();
 		
 		Texture texture = this.textureLoader.getTexture((BufferedImage) img);
-		texture.bind(this.GL11);
+		this.bindTexture(texture);
 		
 		this.GL11.glTranslatef(x, y, 0);
 		
@@ -184,7 +184,7 @@ public class JOGLGraphics extends NullGraphics {
 		this.startPainting();
 		
 		Texture texture = this.textureLoader.getTexture((BufferedImage) img);
-		texture.bind(this.GL11);
+		this.bindTexture(texture);
 		
 		float tx0 = ((float) sx1 / texture.getTextureWidth());
 		float tx1 = ((float) sx2 / texture.getTextureWidth());
@@ -384,6 +384,10 @@ public class JOGLGraphics extends NullGraphics {
 	/** ************************** PRIVATE METHODS ****************************** */
 	/** ************************************************************************* */
 	
+	private void bindTexture(Texture texture) {
+		this.textureLoader.bind(texture);
+	}
+	
 	private void startPainting() {
 		if (this.composite != null) {
 			try {
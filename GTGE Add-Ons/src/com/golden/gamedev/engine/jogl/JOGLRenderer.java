@@ -137,6 +137,9 @@ public class JOGLRenderer implements GLEventListener {
 	 * Called by JOGL rendering process to initiate OpenGL rendering.
 	 */
 	public void display(GLDrawable drawable) {
+		// the texture bound by other OpenGL code is not known
+		this.currentGraphics.getTextureLoader().resetBinding();
+		
 		// flush the graphics commands to the card
 		this.gl.glFlush();
 	}
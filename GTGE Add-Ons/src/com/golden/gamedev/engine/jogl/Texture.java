@@ -35,6 +35,8 @@ public class Texture {
 	private int target; // the GL target type
 	private int textureID; // the GL texture ID
 	
+	TextureLoader loader; // the loader that created this texture, or null
+	
 	private int width; // the width of the image
 	private int height; // the height of the image
 	
@@ -65,6 +67,10 @@ public class Texture {
 	 */
 	public void bind(GL gl) {
 		gl.glBindTexture(this.target, this.textureID);
+		
+		if (this.loader != null) {
+			this.loader.boundTexture = this;
+		}
 	}
 	
 	/** ************************************************************************* */
@@ -110,7 +110,7 @@ public class LWJGLGraphics extends NullGraphics {
 		
 		// bind to the appropriate texture for this sprite
 		Texture texture = this.textureLoader.getTexture((BufferedImage) img);
-		texture.bind();
+		this.bindTexture(texture);
 		
 		// translate to the right location and prepare to draw
 		GL11.glTranslatef(x, y, 0);
@@ -144,7 +144,7 @@ public class LWJGLGraphics extends NullGraphics {
 		GL11.glPushMatrix();
 		
 		Texture texture = this.textureLoader.getTexture((BufferedImage) img);
-		texture.bind();
+		this.bindTexture(texture);
 		
 		GL11.glTranslatef(x, y, 0);
 		
@@ -173,7 +173,7 @@ public class LWJGLGraphics extends NullGraphics {
 		this.startPainting();
 		
 		Texture texture = this.textureLoader.getTexture((BufferedImage) img);
-		texture.bind();
+		this.bindTexture(texture);
 		
 		float tx0 = ((float) sx1 / texture.getTextureWidth());
 		float tx1 = ((float) sx2 / texture.getTextureWidth());
@@ -371,6 +371,10 @@ public class LWJGLGraphics extends NullGraphics {
 	/** ************************** PRIVATE METHODS ****************************** */
 	/** ************************************************************************* */
 	
+	private void bindTexture(Texture texture) {
+		this.textureLoader.bind(texture);
+	}
+	
 	private void startPainting() {
 		if (this.composite != null) {
 			try {
@@ -194,6 +194,10 @@ public class LWJGLMode implements BaseGraphics, Comparator {
 	 * <i>Please refer to super class method documentation.</i>
 	 */
 	public boolean flip() {
+		// the texture bound by other OpenGL code is not known
+		((LWJGLGraphics) this.currentGraphics).getTextureLoader()
+		        .resetBinding();
+		
 		if (Display.isCloseRequested()) {
 			this.windowListener.windowClosing(null);
 			
@@ -37,6 +37,8 @@ public class Texture {
 	private int target; // the GL target type
 	private int textureID; // the GL texture ID
 	
+	TextureLoader loader; // the loader that created this texture, or null
+	
 	private int width; // the width of the image
 	private int height; // the height of the image
 	
@@ -75,6 +77,10 @@ public class Texture {
 	 */
 	public void bind() {
 		GL11.glBindTexture(this.target, this.textureID);
+		
+		if (this.loader != null) {
+			this.loader.boundTexture = this;
+		}
 	}
 	
 	/** ************************************************************************* */
@@ -59,6 +59,9 @@ public class TextureLoader {
 	// the table of textures that have been loaded in this loader
 	private WeakHashMap table = new WeakHashMap();
 	
+	// the last texture bound, null if unknown
+	Texture boundTexture;
+	
 	// the color model including alpha for the GL image
 	private ColorModel glAlphaColorModel;
 	
@@ -95,6 +98,25 @@ public class TextureLoader {
 		return this.textureIDBuffer.get(0);
 	}
 	
+	/**
+	 * Binds specified texture, unless it is the last texture bound by this
+	 * loader. Consecutive images drawn with the same texture (for example
+	 * sorted by a render queue) need only one bind.
+	 */
+	public void bind(Texture texture) {
+		if (texture != this.boundTexture) {
+			texture.bind();
+		}
+	}
+	
+	/**
+	 * Forgets the last bound texture, the next {@link #bind(Texture)} always
+	 * binds. Must be called after a texture is bound directly by OpenGL.
+	 */
+	public void resetBinding() {
+		this.boundTexture = null;
+	}
+	
 	/**
 	 * Load a texture.
 	 * 
@@ -134,9 +156,11 @@ public class TextureLoader {
 		// create the texture ID for this texture
 		int textureID = this.createTextureID();
 		Texture texture = new Texture(target, textureID);
+		texture.loader = this;
 		
 		// bind this texture
 		GL11.glBindTexture(target, textureID);
+		this.boundTexture = texture;
 		
 		texture.setWidth(image.getWidth());
 		texture.setHeight(image.getHeight());
@@ -82,13 +82,7 @@ public class PacketManager {
 			}
 		}
 		
-		this.registeredID = (short[]) NetworkUtil.expand(this.registeredID, 1);
-		this.registeredObject = (Object[]) NetworkUtil.expand(
-		        this.registeredObject, 1);
-		
-		int len = this.registeredID.length - 1;
-		this.registeredID[len] = id;
-		this.registeredObject[len] = packet;
+		this.addRegistered(id, packet);
 	}
 	
 	public void registerPacket(short id, Class packetClass) {
@@ -116,13 +110,22 @@ public class PacketManager {
 			}
 		}
 		
-		this.registeredID = (short[]) NetworkUtil.expand(this.registeredID, 1);
-		this.registeredObject = (Object[]) NetworkUtil.expand(
-		        this.registeredObject, 1);
+		this.addRegistered(id, packetClass);
+	}
+	
+	private void addRegistered(short id, Object packet) {
+		int len = this.registeredID.length;
+		
+		short[] destID = new short[len + 1];
+		System.arraycopy(this.registeredID, 0, destID, 0, len);
+		this.registeredID = destID;
+		
+		Object[] destObject = new Object[len + 1];
+		System.arraycopy(this.registeredObject, 0, destObject, 0, len);
+		this.registeredObject = destObject;
 		
-		int len = this.registeredID.length - 1;
 		this.registeredID[len] = id;
-		this.registeredObject[len] = packetClass;
+		this.registeredObject[len] = packet;
 	}
 	
 	public synchronized byte[] pack(NetworkPacket packet) throws IOException {
@@ -31,12 +31,16 @@ import java.awt.Shape;
 import java.awt.Transparency;
 import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.net.URL;
 
+import javax.swing.event.MouseInputAdapter;
+
 import com.golden.gamedev.engine.BaseAudio;
 import com.golden.gamedev.engine.BaseGraphics;
 import com.golden.gamedev.engine.BaseIO;
@@ -46,8 +50,11 @@ import com.golden.gamedev.engine.BaseTimer;
 import com.golden.gamedev.engine.audio.MidiRenderer;
 import com.golden.gamedev.engine.audio.WaveRenderer;
 import com.golden.gamedev.engine.input.AWTInput;
+import com.golden.gamedev.engine.timer.FrameStatistics;
+import com.golden.gamedev.engine.timer.Profiler;
 import com.golden.gamedev.engine.timer.SystemTimer;
 import com.golden.gamedev.funbox.ErrorNotificationDialog;
+import com.golden.gamedev.object.AnimationClock;
 import com.golden.gamedev.object.Background;
 import com.golden.gamedev.object.GameFont;
 import com.golden.gamedev.object.GameFontManager;
@@ -218,6 +225,49 @@ public abstract class Game {
 	private boolean inFocusBlink;
 	private boolean pauseOnLostFocus = false;
 	
+	/** ************************* FIXED TIMESTEP ******************************** */
+	
+	private long fixedTimestep; // 0, variable timestep
+	private int maxSubsteps = 5;
+	private long accumulator; // elapsed time not yet simulated
+	private double interpolation = 1;
+	
+	// interpolation of the rendered frame in pipelined game loop, only
+	// written by the game loop thread while no update is running
+	private double renderInterpolation = 1;
+	private boolean pipelining;
+	
+	/** ************************ DETERMINISTIC MODE ***************************** */
+	
+	private boolean deterministic;
+	private long randomSeed;
+	long tick; // updates since the game loop started
+	
+	/** ***************************** FRAME SKIP ******************************** */
+	
+	private int maxFrameSkip; // 0, no frame skip
+	private int lastSkippedFrames;
+	private long skippedFrames;
+	
+	/** ************************** FAST FORWARD ********************************* */
+	
+	private boolean fastForward;
+	
+	/** ************************* PIPELINED LOOP ******************************** */
+	
+	private boolean pipelined;
+	
+	/** ************************* FRAME STATISTICS ****************************** */
+	
+	private FrameStatistics frameStats;
+	
+	/** ************************* RENDER ON DEMAND ****************************** */
+	
+	private boolean renderOnDemand;
+	private boolean idle;
+	private boolean renderRequested = true;
+	private final Object renderLock = new Object();
+	
 	/** ************************************************************************* */
 	/** ***************************** CONSTRUCTOR ******************************* */
 	/** ************************************************************************* */
@@ -258,6 +308,11 @@ public abstract class Game {
 	 */
 	public void stop() {
 		this.running = false;
+		
+		synchronized (this.renderLock) {
+			// wakes up idle game loop
+			this.renderLock.notifyAll();
+		}
 	}
 	
 	/**
@@ -363,14 +418,49 @@ public abstract class Game {
 				        
 				        public void focusGained(FocusEvent e) {
 					        Game.this.inFocus = true;
+					        Game.this.requestRender();
 				        }
 				        
 				        public void focusLost(FocusEvent e) {
 					        if (Game.this.pauseOnLostFocus) {
 						        Game.this.inFocus = false;
 					        }
+					        Game.this.requestRender();
 				        }
 			        });
+			
+			// any input wakes up render on demand game loop
+			this.bsGraphics.getComponent().addKeyListener(new KeyAdapter() {
+				
+				public void keyPressed(KeyEvent e) {
+					Game.this.requestRender();
+				}
+				
+				public void keyReleased(KeyEvent e) {
+					Game.this.requestRender();
+				}
+			});
+			MouseInputAdapter mouseListener = new MouseInputAdapter() {
+				
+				public void mousePressed(MouseEvent e) {
+					Game.this.requestRender();
+				}
+				
+				public void mouseReleased(MouseEvent e) {
+					Game.this.requestRender();
+				}
+				
+				public void mouseMoved(MouseEvent e) {
+					Game.this.requestRender();
+				}
+				
+				public void mouseDragged(MouseEvent e) {
+					Game.this.requestRender();
+				}
+			};
+			this.bsGraphics.getComponent().addMouseListener(mouseListener);
+			this.bsGraphics.getComponent().addMouseMotionListener(
+			        mouseListener);
 		}
 		catch (Exception e) {
 		}
@@ -425,15 +515,110 @@ public abstract class Game {
 		this.bsTimer.startTimer();
 		this.bsTimer.refresh();
 		
+		this.startSteps();
+		
+		UpdateThread updater = null;
+		if (this.pipelined) {
+			this.renderInterpolation = 1;
+			this.pipelining = true;
+			
+			updater = new UpdateThread(this);
+			updater.start();
+		}
+		
+		try {
+			this.runGameLoop(updater);
+			
+			if (updater != null) {
+				// the last update must be finished before the game exit
+				updater.waitUpdate();
+			}
+		}
+		finally {
+			if (updater != null) {
+				updater.stopUpdate();
+				this.pipelining = false;
+			}
+		}
+		
+		// stop the timer
+		this.bsTimer.stopTimer();
+		this.bsSound.stopAll();
+		this.bsMusic.stopAll();
+		
+		if (this.finish) {
+			this.dumpStatistics();
+			
+			this.bsGraphics.cleanup();
+			this.notifyExit();
+		}
+	}
+	
+	/**
+	 * Dumps the {@linkplain #setFrameStatistics(FrameStatistics) frame
+	 * statistics} and the {@linkplain #setProfiler(Profiler) profiler} summary
+	 * to the standard output when the game is finished, used by the game loop
+	 * of <code>Game</code> and {@link GameEngine}.
+	 */
+	void dumpStatistics() {
+		if (this.frameStats != null) {
+			this.frameStats.dump(System.out);
+		}
+		if (Profiler.getActive() != null) {
+			Profiler.getActive().dump(System.out);
+		}
+	}
+	
+	private void runGameLoop(UpdateThread updater) {
 		long elapsedTime = 0;
 		out: while (true) {
+			if (this.fastForward) {
+				if (!this.running) {
+					break out;
+				}
+				
+				if (updater != null) {
+					// no update must be running in the other thread
+					updater.waitUpdate();
+				}
+				
+				// updates as fast as possible, without rendering nor sleeping
+				long step = this.getFixedTimestep();
+				this.updateFrame((step > 0) ? step : this.getFrameBudget(), true);
+				
+				// back to real time when the fast forward ends
+				this.bsTimer.refresh();
+				elapsedTime = 0;
+				continue;
+			}
+			
+			if (this.renderOnDemand && (this.idle || !this.inFocus)) {
+				// nothing to update nor render until an input event
+				if (this.waitRenderRequest()) {
+					// don't count the idle time as elapsed time
+					this.bsTimer.refresh();
+					elapsedTime = 0;
+				}
+			}
+			
 			if (this.inFocus) {
-				// update game
-				this.update(elapsedTime);
-				this.bsInput.update(elapsedTime); // update input
+				if (updater != null) {
+					// waits the update of the previous frame, captures its
+					// render state, and updates the next frame while
+					// rendering
+					long updated = updater.waitUpdate();
+					this.bsInput.update(updated); // update input
+					this.renderInterpolation = this.interpolation;
+					this.captureRenderState();
+					updater.startUpdate(elapsedTime);
+				}
+				else {
+					// update game
+					this.updateFrame(elapsedTime, true);
+				}
 				
 			}
-			else {
+			else if (!this.renderOnDemand) {
 				// the game is not in focus!
 				try {
 					Thread.sleep(300);
@@ -442,51 +627,193 @@ public abstract class Game {
 				}
 			}
 			
-			do {
+			if (this.renderOnDemand && !this.consumeRenderRequest()) {
+				// nothing changed, skips the rendering
 				if (!this.running) {
-					// if not running, quit this game
 					break out;
 				}
-				
-				// graphics operation
-				Graphics2D g = this.bsGraphics.getBackBuffer();
-				
-				this.render(g); // render game
-				
-				// if (development) {
-				// // if the game is still under development
-				// // draw game FPS and other stuff
-				//
-				// fpsFont.drawString(g,
-				// "FPS = " + getCurrentFPS() + "/" + getFPS(),
-				// 9, getHeight()-21);
-				//
-				// fpsFont.drawString(g, "GTGE", getWidth()-65, 9);
-				// }
-				
-				if (!this.inFocus) {
-					this.renderLostFocus(g);
-				}
-				
-			} while (this.bsGraphics.flip() == false);
+			}
+			else {
+				do {
+					if (!this.running) {
+						// if not running, quit this game
+						break out;
+					}
+					
+					// graphics operation
+					Graphics2D g = this.bsGraphics.getBackBuffer();
+					
+					FrameStatistics stats = this.frameStats;
+					if (stats != null) {
+						stats.begin(FrameStatistics.RENDER);
+					}
+					Profiler.begin(Profiler.RENDER);
+					try {
+						this.render(g); // render game
+					}
+					finally {
+						Profiler.end(Profiler.RENDER);
+						if (stats != null) {
+							stats.end(FrameStatistics.RENDER);
+						}
+					}
+					
+					this.renderProfiler(g);
+					
+					// if (development) {
+					// // if the game is still under development
+					// // draw game FPS and other stuff
+					//
+					// fpsFont.drawString(g,
+					// "FPS = " + getCurrentFPS() + "/" + getFPS(),
+					// 9, getHeight()-21);
+					//
+					// fpsFont.drawString(g, "GTGE", getWidth()-65, 9);
+					// }
+					
+					if (!this.inFocus) {
+						this.renderLostFocus(g);
+					}
+					
+				} while (this.flipFrame() == false);
+			}
 			
 			elapsedTime = this.bsTimer.sleep();
 			
+			if (this.frameStats != null) {
+				this.frameStats.endFrame();
+			}
+			if (Profiler.getActive() != null) {
+				Profiler.getActive().endFrame();
+			}
+			
+			if (updater == null && this.inFocus) {
+				// the frame budget is blown,
+				// updates the missed frames without rendering them
+				int skip = this.countSkippedFrames(elapsedTime);
+				long budget = this.getFrameBudget();
+				for (int i = 0; i < skip; i++) {
+					this.updateFrame(budget, true);
+					elapsedTime -= budget;
+				}
+			}
+			
 			if (elapsedTime > 100) {
 				// the elapsedTime can't be lower than 100 (10 fps)
 				// it's a workaround so the movement is not too jumpy
 				elapsedTime = 100;
 			}
 		}
+	}
+	
+	/**
+	 * Waits until rendering is requested or the game is stopped, returns true
+	 * if the game loop has been waiting.
+	 */
+	private boolean waitRenderRequest() {
+		synchronized (this.renderLock) {
+			if (this.renderRequested || !this.running) {
+				return false;
+			}
+			
+			while (!this.renderRequested && this.running) {
+				try {
+					this.renderLock.wait();
+				}
+				catch (InterruptedException e) {
+				}
+			}
+			
+			return true;
+		}
+	}
+	
+	// returns whether rendering has been requested, and clears the request
+	private boolean consumeRenderRequest() {
+		synchronized (this.renderLock) {
+			boolean requested = this.renderRequested;
+			this.renderRequested = false;
+			
+			return requested;
+		}
+	}
+	
+	/**
+	 * Updates the game, the animation clock, and if specified the input with
+	 * specified elapsed time, in fixed steps if the game has
+	 * {@linkplain #setFixedTimestep(long) fixed timestep}.
+	 */
+	void updateFrame(long elapsedTime, boolean updateInput) {
+		FrameStatistics stats = this.frameStats;
+		if (stats != null) {
+			stats.begin(FrameStatistics.UPDATE);
+		}
+		Profiler.begin(Profiler.UPDATE);
+		try {
+			long step = this.getFixedTimestep();
+			if (step > 0) {
+				// update game in fixed steps
+				int steps = this.consumeSteps(elapsedTime);
+				for (int i = 0; i < steps; i++) {
+					this.update(step);
+					this.tick++;
+					AnimationClock.getDefaultClock().update(step);
+					if (updateInput) {
+						this.bsInput.update(step);
+					}
+				}
+			}
+			else {
+				this.update(elapsedTime);
+				this.tick++;
+				AnimationClock.getDefaultClock().update(elapsedTime);
+				if (updateInput) {
+					this.bsInput.update(elapsedTime); // update input
+				}
+			}
+		}
+		finally {
+			Profiler.end(Profiler.UPDATE);
+			if (stats != null) {
+				stats.end(FrameStatistics.UPDATE);
+			}
+		}
+	}
+	
+	/**
+	 * Flips the graphics engine backbuffer, measured by the frame statistics.
+	 */
+	boolean flipFrame() {
+		FrameStatistics stats = this.frameStats;
+		if (stats == null && Profiler.getActive() == null) {
+			return this.bsGraphics.flip();
+		}
 		
-		// stop the timer
-		this.bsTimer.stopTimer();
-		this.bsSound.stopAll();
-		this.bsMusic.stopAll();
-		
-		if (this.finish) {
-			this.bsGraphics.cleanup();
-			this.notifyExit();
+		if (stats != null) {
+			stats.begin(FrameStatistics.FLIP);
+		}
+		Profiler.begin(Profiler.FLIP);
+		try {
+			return this.bsGraphics.flip();
+		}
+		finally {
+			Profiler.end(Profiler.FLIP);
+			if (stats != null) {
+				stats.end(FrameStatistics.FLIP);
+			}
+		}
+	}
+	
+	/**
+	 * Renders the profiler overlay over the game, if the game is profiled and
+	 * the overlay is visible.
+	 * 
+	 * @see #setProfiler(Profiler)
+	 */
+	void renderProfiler(Graphics2D g) {
+		Profiler profiler = Profiler.getActive();
+		if (profiler != null && profiler.isOverlayVisible()) {
+			profiler.render(g, 8, 8);
 		}
 	}
 	
@@ -559,6 +886,488 @@ public abstract class Game {
 		return this.pauseOnLostFocus;
 	}
 	
+	/**
+	 * Prepares the game to be updated, called when a game loop starts. Clears
+	 * the fixed timestep accumulator and the tick counter, and in
+	 * deterministic mode seeds the random object.
+	 */
+	void startSteps() {
+		this.resetSteps();
+		this.tick = 0;
+		
+		if (this.deterministic) {
+			Utility.setRandomSeed(this.randomSeed);
+		}
+	}
+	
+	/**
+	 * Clears the fixed timestep accumulator.
+	 */
+	void resetSteps() {
+		this.accumulator = 0;
+		this.interpolation = 1;
+	}
+	
+	/**
+	 * Adds specified elapsed time to the fixed timestep accumulator, and
+	 * returns how many fixed steps should be updated.
+	 */
+	int consumeSteps(long elapsedTime) {
+		long step = this.getFixedTimestep();
+		this.accumulator += elapsedTime;
+		
+		int steps = (int) (this.accumulator / step);
+		if (steps > this.maxSubsteps) {
+			// can't keep up, drops the time that can't be simulated
+			// rather than spiralling down updating more and more steps
+			steps = this.maxSubsteps;
+			this.accumulator %= step;
+		}
+		else {
+			this.accumulator -= steps * step;
+		}
+		
+		this.interpolation = (double) this.accumulator / step;
+		
+		return steps;
+	}
+	
+	/**
+	 * Returns the time of one frame at the timer requested FPS, in
+	 * milliseconds.
+	 */
+	long getFrameBudget() {
+		return Math.max(1000 / Math.max(this.bsTimer.getFPS(), 1), 1);
+	}
+	
+	/**
+	 * Returns how many frames of specified elapsed time should be updated
+	 * without rendering, and counts them as skipped.
+	 */
+	int countSkippedFrames(long elapsedTime) {
+		int skip = 0;
+		if (this.maxFrameSkip > 0 && this.getFixedTimestep() <= 0) {
+			// the last frame is updated and rendered as usual
+			long missed = (elapsedTime / this.getFrameBudget()) - 1;
+			skip = (int) Math.max(Math.min(missed, this.maxFrameSkip), 0);
+		}
+		
+		this.lastSkippedFrames = skip;
+		this.skippedFrames += skip;
+		
+		return skip;
+	}
+	
+	/**
+	 * Sets the maximum frames updated without rendering in one frame, or 0 to
+	 * never skip rendering (the default).
+	 * <p>
+	 * 
+	 * When a frame takes at least twice the {@linkplain #getFPS() requested
+	 * frame time}, the game loop updates each missed frame with the requested
+	 * frame time without rendering it, up to this maximum, then updates and
+	 * renders the rest as usual. Therefore on a slow machine the game keeps
+	 * its logic speed with lower frame rate, instead of slowing down.
+	 * <p>
+	 * 
+	 * Frame skip is not used in {@linkplain #setFixedTimestep(long) fixed
+	 * timestep} (see {@link #setMaxSubsteps(int)} instead), nor in
+	 * {@linkplain #setPipelined(boolean) pipelined game loop}.
+	 * 
+	 * @see #getSkippedFrames()
+	 */
+	public void setMaxFrameSkip(int max) {
+		this.maxFrameSkip = Math.max(max, 0);
+	}
+	
+	/**
+	 * Returns the maximum frames updated without rendering in one frame.
+	 * 
+	 * @see #setMaxFrameSkip(int)
+	 */
+	public int getMaxFrameSkip() {
+		return this.maxFrameSkip;
+	}
+	
+	/**
+	 * Returns total frames updated without rendering since the game started.
+	 * 
+	 * @see #setMaxFrameSkip(int)
+	 */
+	public long getSkippedFrames() {
+		return this.skippedFrames;
+	}
+	
+	/**
+	 * Returns the frames updated without rendering on the last frame.
+	 * 
+	 * @see #setMaxFrameSkip(int)
+	 */
+	public int getLastSkippedFrames() {
+		return this.lastSkippedFrames;
+	}
+	
+	/**
+	 * Sets the game to be updated in fixed timestep, in milliseconds, or 0 to
+	 * update the game once every frame with the frame elapsed time (the
+	 * default).
+	 * <p>
+	 * 
+	 * In fixed timestep the game {@link #update(long)} is always called with
+	 * this timestep, zero or several times in a frame depending on the frame
+	 * elapsed time, therefore the game simulation is independent of the frame
+	 * rate. The time left that is not enough for one step is carried to the
+	 * next frame and available as the {@linkplain #getInterpolation() render
+	 * interpolation}, use it to render the game between its previous and
+	 * current state :
+	 * 
+	 * <pre>
+	 * public void render(Graphics2D g) {
+	 * 	playfield.render(g, getInterpolation());
+	 * }
+	 * </pre>
+	 * 
+	 * @see #setMaxSubsteps(int)
+	 * @see com.golden.gamedev.object.PlayField#setInterpolated(boolean)
+	 */
+	public void setFixedTimestep(long timestep) {
+		this.fixedTimestep = Math.max(timestep, 0);
+		this.resetSteps();
+	}
+	
+	/**
+	 * Returns the fixed timestep the game is updated with, in milliseconds,
+	 * or 0 if the game is updated with the frame elapsed time. In
+	 * {@linkplain #setDeterministic(boolean) deterministic mode} without fixed
+	 * timestep, returns the {@linkplain #getFPS() requested frame time}.
+	 * 
+	 * @see #setFixedTimestep(long)
+	 */
+	public long getFixedTimestep() {
+		if (this.fixedTimestep <= 0 && this.deterministic) {
+			return this.getFrameBudget();
+		}
+		
+		return this.fixedTimestep;
+	}
+	
+	/**
+	 * Sets the maximum fixed steps updated in one frame, the elapsed time
+	 * exceeding it is dropped and the game slows down instead of trying to
+	 * catch up. Default value is 5.
+	 * 
+	 * @see #setFixedTimestep(long)
+	 */
+	public void setMaxSubsteps(int max) {
+		this.maxSubsteps = Math.max(max, 1);
+	}
+	
+	/**
+	 * Returns the maximum fixed steps updated in one frame.
+	 * 
+	 * @see #setMaxSubsteps(int)
+	 */
+	public int getMaxSubsteps() {
+		return this.maxSubsteps;
+	}
+	
+	/**
+	 * Returns how far the game is between its last fixed step and the next
+	 * one, range from [0 - 1), or always 1 if the game is not updated in
+	 * {@linkplain #setFixedTimestep(long) fixed timestep}.
+	 * <p>
+	 * 
+	 * In {@linkplain #setPipelined(boolean) pipelined game loop}, returns the
+	 * interpolation of the frame being rendered, taken before
+	 * {@link #captureRenderState()} is called, not the one of the running
+	 * update.
+	 * 
+	 * @see com.golden.gamedev.object.PlayField#render(Graphics2D, double)
+	 * @see com.golden.gamedev.object.RenderSnapshot#capture(
+	 *      com.golden.gamedev.object.PlayField, double)
+	 */
+	public double getInterpolation() {
+		if (this.getFixedTimestep() <= 0) {
+			return 1;
+		}
+		
+		return (this.pipelining) ? this.renderInterpolation
+		        : this.interpolation;
+	}
+	
+	/**
+	 * Sets whether the game is updated deterministically, default is false.
+	 * Takes effect the next time the game is started.
+	 * <p>
+	 * 
+	 * In deterministic mode the game is always updated in
+	 * {@linkplain #setFixedTimestep(long) fixed timestep} (the
+	 * {@linkplain #getFPS() requested frame time} if no timestep is set),
+	 * never with the measured frame time, and the
+	 * {@linkplain Utility#getRandomObject() random object} is seeded with the
+	 * {@linkplain #setRandomSeed(long) random seed} when the game starts.
+	 * Therefore given the same input every update, the game goes through the
+	 * same states on every run and on every machine, as long as the game only
+	 * uses the elapsed time and the random object to change its state, for
+	 * example to replay recorded input or to run in lockstep with a peer.
+	 * <p>
+	 * 
+	 * Use {@link #getTick()} to identify an update, and
+	 * {@link PlayField#getStateHash()} to verify the state is the same.
+	 */
+	public void setDeterministic(boolean b) {
+		this.deterministic = b;
+		this.resetSteps();
+	}
+	
+	/**
+	 * Returns true, if the game is updated deterministically.
+	 * 
+	 * @see #setDeterministic(boolean)
+	 */
+	public boolean isDeterministic() {
+		return this.deterministic;
+	}
+	
+	/**
+	 * Sets the seed of the random object in
+	 * {@linkplain #setDeterministic(boolean) deterministic mode}, default is
+	 * 0.
+	 */
+	public void setRandomSeed(long seed) {
+		this.randomSeed = seed;
+	}
+	
+	/**
+	 * Returns the seed of the random object in
+	 * {@linkplain #setDeterministic(boolean) deterministic mode}.
+	 */
+	public long getRandomSeed() {
+		return this.randomSeed;
+	}
+	
+	/**
+	 * Returns total updates since the game loop started, during an update it
+	 * is the number of the update being run, starting from 0.
+	 */
+	public long getTick() {
+		return this.tick;
+	}
+	
+	/**
+	 * Sets whether the game loop runs as fast as possible, default is false.
+	 * <p>
+	 * 
+	 * In fast forward the game is updated one frame after another without
+	 * rendering nor sleeping, each update with the
+	 * {@linkplain #setFixedTimestep(long) fixed timestep}, or with the
+	 * {@linkplain #getFPS() requested frame time} if the game has no fixed
+	 * timestep, regardless of the game focus. Used along with
+	 * {@link com.golden.gamedev.engine.input.ReplayInput} and
+	 * {@linkplain #setDeterministic(boolean) deterministic mode} to replay,
+	 * test, or benchmark a whole game session in seconds.
+	 * 
+	 * @see com.golden.gamedev.engine.input.RecordingInput
+	 */
+	public void setFastForward(boolean b) {
+		this.fastForward = b;
+	}
+	
+	/**
+	 * Returns true, if the game loop runs as fast as possible.
+	 * 
+	 * @see #setFastForward(boolean)
+	 */
+	public boolean isFastForward() {
+		return this.fastForward;
+	}
+	
+	/**
+	 * Sets whether the game is updated and rendered at the same time by two
+	 * threads, default is false. Takes effect the next time the game is
+	 * started.
+	 * <p>
+	 * 
+	 * In pipelined game loop the game {@link #update(long)} of the next frame
+	 * runs in a separate thread while the game loop thread renders the
+	 * current frame, therefore <b>{@link #render(Graphics2D)} must not read
+	 * anything changed by the update</b>. The render state is copied in
+	 * {@link #captureRenderState()} between the two, for example :
+	 * 
+	 * <pre>
+	 * RenderSnapshot snapshot = new RenderSnapshot();
+	 * 
+	 * protected void captureRenderState() {
+	 * 	snapshot.capture(playfield, getInterpolation());
+	 * }
+	 * 
+	 * public void render(Graphics2D g) {
+	 * 	snapshot.render(g);
+	 * }
+	 * </pre>
+	 * 
+	 * The rendered frame is one frame behind the updated game. The input is
+	 * refreshed once per frame by the game loop thread while no update is
+	 * running. Game objects of {@link GameEngine} are not pipelined.
+	 * 
+	 * @see com.golden.gamedev.object.RenderSnapshot
+	 */
+	public void setPipelined(boolean b) {
+		this.pipelined = b;
+	}
+	
+	/**
+	 * Returns true, if the game is updated and rendered by two threads.
+	 * 
+	 * @see #setPipelined(boolean)
+	 */
+	public boolean isPipelined() {
+		return this.pipelined;
+	}
+	
+	/**
+	 * Copies the game render state, called by the
+	 * {@linkplain #setPipelined(boolean) pipelined game loop} after an update
+	 * is finished and before the next update is started, the game is not
+	 * updated nor rendered while this method runs. Does nothing by default.
+	 * 
+	 * @see #setPipelined(boolean)
+	 */
+	protected void captureRenderState() {
+	}
+	
+	/**
+	 * Requests the game to be rendered on the next frame, used by
+	 * {@linkplain #setRenderOnDemand(boolean) render on demand game loop} to
+	 * know that something has changed. Can be called from any thread, and
+	 * wakes up an {@linkplain #setIdle(boolean) idle} game loop.
+	 * <p>
+	 * 
+	 * Input events and focus changes of the graphics engine component request
+	 * rendering automatically.
+	 * 
+	 * @see com.golden.gamedev.object.PlayField#isChanged()
+	 */
+	public void requestRender() {
+		synchronized (this.renderLock) {
+			this.renderRequested = true;
+			this.renderLock.notifyAll();
+		}
+	}
+	
+	/**
+	 * Sets whether the game is only rendered when
+	 * {@linkplain #requestRender() rendering is requested}, default is false
+	 * (the game is rendered every frame).
+	 * <p>
+	 * 
+	 * The game is still updated every frame, and should request rendering
+	 * whenever something visible has changed, for example :
+	 * 
+	 * <pre>
+	 * public void update(long elapsedTime) {
+	 * 	playfield.update(elapsedTime);
+	 * 	if (playfield.isChanged()) {
+	 * 		requestRender();
+	 * 	}
+	 * }
+	 * </pre>
+	 * 
+	 * When the game is {@linkplain #setIdle(boolean) idle} or has lost the
+	 * focus (see {@link #setPauseOnLostFocus(boolean)}), the game loop is
+	 * neither updating nor rendering, it blocks until an input event or a
+	 * render request, therefore the game uses almost no processor time.
+	 */
+	public void setRenderOnDemand(boolean b) {
+		this.renderOnDemand = b;
+		this.requestRender();
+	}
+	
+	/**
+	 * Returns true, if the game is only rendered when rendering is requested.
+	 * 
+	 * @see #setRenderOnDemand(boolean)
+	 */
+	public boolean isRenderOnDemand() {
+		return this.renderOnDemand;
+	}
+	
+	/**
+	 * Sets whether the game is idle (for example paused), an idle
+	 * {@linkplain #setRenderOnDemand(boolean) render on demand} game is not
+	 * updated until an input event or a {@linkplain #requestRender() render
+	 * request}, and then it is updated and rendered once, with no elapsed
+	 * time, to handle the event. Has no effect on game that is rendered every
+	 * frame.
+	 * 
+	 * @see #setRenderOnDemand(boolean)
+	 */
+	public void setIdle(boolean b) {
+		this.idle = b;
+	}
+	
+	/**
+	 * Returns true, if the game is idle.
+	 * 
+	 * @see #setIdle(boolean)
+	 */
+	public boolean isIdle() {
+		return this.idle;
+	}
+	
+	/**
+	 * Sets the frame statistics that measures the game loop frame time, and
+	 * the update, render and flip time of each frame, or null to stop
+	 * measuring (the default). The statistics are
+	 * {@linkplain FrameStatistics#dump(java.io.PrintStream) dumped} to the
+	 * standard output when the game is finished.
+	 * <p>
+	 * 
+	 * The statistics require Java 5 or later.
+	 * 
+	 * @see #getFrameStatistics()
+	 */
+	public void setFrameStatistics(FrameStatistics stats) {
+		this.frameStats = stats;
+	}
+	
+	/**
+	 * Returns the frame statistics of the game loop, or null if the game loop
+	 * is not measured.
+	 * 
+	 * @see #setFrameStatistics(FrameStatistics)
+	 */
+	public FrameStatistics getFrameStatistics() {
+		return this.frameStats;
+	}
+	
+	/**
+	 * Sets the profiler that measures the game loop, the playfield update,
+	 * rendering and collision check, and the game own sections, or null to
+	 * stop profiling (the default). The profiler is
+	 * {@linkplain Profiler#setActive(Profiler) active} for every game, and
+	 * its summary is {@linkplain Profiler#dump(java.io.PrintStream) dumped}
+	 * to the standard output when the game is finished.
+	 * <p>
+	 * 
+	 * The profiler requires Java 5 or later.
+	 * 
+	 * @see #getProfiler()
+	 */
+	public void setProfiler(Profiler profiler) {
+		Profiler.setActive(profiler);
+	}
+	
+	/**
+	 * Returns the profiler of the game loop, or null if the game is not
+	 * profiled.
+	 * 
+	 * @see #setProfiler(Profiler)
+	 */
+	public Profiler getProfiler() {
+		return Profiler.getActive();
+	}
+	
 	/** ************************************************************************* */
 	/** ********************* GAME ENGINE INITIALIZATION ************************ */
 	/** ************************************************************************* */
@@ -1328,8 +2137,17 @@ public abstract class Game {
 	 * @param pixelCheck true, checking the sprite image with pixel precision
 	 */
 	public Sprite checkPosMouse(SpriteGroup group, boolean pixelCheck) {
-		Sprite[] sprites = group.getSprites();
-		int size = group.getSize();
+		Sprite[] sprites;
+		int size;
+		if (group.isCulled()) {
+			// mouse pointer is always on screen
+			sprites = group.getVisibleSprites();
+			size = group.getVisibleSize();
+		}
+		else {
+			sprites = group.getSprites();
+			size = group.getSize();
+		}
 		
 		for (int i = 0; i < size; i++) {
 			if (sprites[i].isActive()
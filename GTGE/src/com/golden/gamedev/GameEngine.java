@@ -177,6 +177,8 @@ public abstract class GameEngine extends Game {
 		this.bsMusic.stopAll();
 		
 		if (this.isFinish()) {
+			this.dumpStatistics();
+			
 			this.bsGraphics.cleanup();
 			this.notifyExit();
 		}
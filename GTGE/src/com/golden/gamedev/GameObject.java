@@ -31,6 +31,9 @@ import com.golden.gamedev.engine.BaseIO;
 import com.golden.gamedev.engine.BaseInput;
 import com.golden.gamedev.engine.BaseLoader;
 import com.golden.gamedev.engine.BaseTimer;
+import com.golden.gamedev.engine.timer.FrameStatistics;
+import com.golden.gamedev.engine.timer.Profiler;
+import com.golden.gamedev.object.AnimationClock;
 import com.golden.gamedev.object.Background;
 import com.golden.gamedev.object.GameFont;
 import com.golden.gamedev.object.GameFontManager;
@@ -145,13 +148,28 @@ public abstract class GameObject {
 		this.bsTimer.refresh();
 		
 		long elapsedTime = 0;
+		this.parent.startSteps();
 		out: while (true) {
+			if (this.parent.isFastForward()) {
+				if (this.finish || !this.parent.isRunning()) {
+					break out;
+				}
+				
+				// updates as fast as possible, without rendering nor sleeping
+				long step = this.parent.getFixedTimestep();
+				this.updateFrame((step > 0) ? step : this.parent.getFrameBudget());
+				
+				// back to real time when the fast forward ends
+				this.bsTimer.refresh();
+				elapsedTime = 0;
+				continue;
+			}
+			
+			FrameStatistics stats = this.parent.getFrameStatistics();
+			
 			if (this.parent.inFocus) {
 				// update game
-				this.update(elapsedTime);
-				this.parent.update(elapsedTime); // update common variables
-				this.bsInput.update(elapsedTime);
-				
+				this.updateFrame(elapsedTime);
 			}
 			else {
 				// the game is not in focus!
@@ -171,8 +189,22 @@ public abstract class GameObject {
 				// graphics operation
 				Graphics2D g = this.bsGraphics.getBackBuffer();
 				
-				this.render(g); // render game
-				this.parent.render(g); // render global game
+				if (stats != null) {
+					stats.begin(FrameStatistics.RENDER);
+				}
+				Profiler.begin(Profiler.RENDER);
+				try {
+					this.render(g); // render game
+					this.parent.render(g); // render global game
+				}
+				finally {
+					Profiler.end(Profiler.RENDER);
+					if (stats != null) {
+						stats.end(FrameStatistics.RENDER);
+					}
+				}
+				
+				this.parent.renderProfiler(g);
 				
 				if (!this.parent.isDistribute()) {
 					// if the game is still under development
@@ -199,10 +231,28 @@ public abstract class GameObject {
 					this.parent.renderLostFocus(g);
 				}
 				
-			} while (this.bsGraphics.flip() == false);
+			} while (this.parent.flipFrame() == false);
 			
 			elapsedTime = this.bsTimer.sleep();
 			
+			if (stats != null) {
+				stats.endFrame();
+			}
+			if (Profiler.getActive() != null) {
+				Profiler.getActive().endFrame();
+			}
+			
+			if (this.parent.inFocus) {
+				// the frame budget is blown,
+				// updates the missed frames without rendering them
+				int skip = this.parent.countSkippedFrames(elapsedTime);
+				long budget = this.parent.getFrameBudget();
+				for (int i = 0; i < skip && !this.finish; i++) {
+					this.updateFrame(budget);
+					elapsedTime -= budget;
+				}
+			}
+			
 			if (elapsedTime > 100) {
 				// can't lower than 10 fps (1000/100)
 				elapsedTime = 100;
@@ -210,6 +260,47 @@ public abstract class GameObject {
 		}
 	}
 	
+	/**
+	 * Updates this game, the master engine, the animation clock, and the
+	 * input with specified elapsed time, in fixed steps if the master engine
+	 * has {@linkplain GameEngine#setFixedTimestep(long) fixed timestep}, the
+	 * same way as the game loop of a single {@link Game}.
+	 */
+	void updateFrame(long elapsedTime) {
+		FrameStatistics stats = this.parent.getFrameStatistics();
+		if (stats != null) {
+			stats.begin(FrameStatistics.UPDATE);
+		}
+		Profiler.begin(Profiler.UPDATE);
+		try {
+			long step = this.parent.getFixedTimestep();
+			if (step > 0) {
+				// update game in fixed steps
+				int steps = this.parent.consumeSteps(elapsedTime);
+				for (int i = 0; i < steps; i++) {
+					this.updateStep(step);
+				}
+			}
+			else {
+				this.updateStep(elapsedTime);
+			}
+		}
+		finally {
+			Profiler.end(Profiler.UPDATE);
+			if (stats != null) {
+				stats.end(FrameStatistics.UPDATE);
+			}
+		}
+	}
+	
+	private void updateStep(long elapsedTime) {
+		this.update(elapsedTime);
+		this.parent.update(elapsedTime); // update common variables
+		this.parent.tick++;
+		AnimationClock.getDefaultClock().update(elapsedTime);
+		this.bsInput.update(elapsedTime);
+	}
+	
 	/**
 	 * End this game, and back to
 	 * {@linkplain GameEngine#getGame(int) game object chooser}.
@@ -387,6 +478,23 @@ public abstract class GameObject {
 		return this.bsTimer.getFPS();
 	}
 	
+	/**
+	 * Effectively equivalent to the call
+	 * {@linkplain com.golden.gamedev.Game#getInterpolation()
+	 * parent.getInterpolation()}.
+	 */
+	public double getInterpolation() {
+		return this.parent.getInterpolation();
+	}
+	
+	/**
+	 * Effectively equivalent to the call
+	 * {@linkplain com.golden.gamedev.Game#getTick() parent.getTick()}.
+	 */
+	public long getTick() {
+		return this.parent.getTick();
+	}
+	
 	/**
 	 * Draws game frame-per-second (FPS) to specified location.
 	 */
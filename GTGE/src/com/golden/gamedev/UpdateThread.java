@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev;
+
+/**
+ * Thread that updates the game of the pipelined game loop, one frame at a
+ * time while the game loop thread renders the previous frame.
+ * 
+ * @see Game#setPipelined(boolean)
+ */
+class UpdateThread extends Thread {
+	
+	private final Game game;
+	
+	private long elapsedTime; // elapsed time of the current update
+	private boolean updating; // true, an update is requested or running
+	private boolean stopped;
+	private Throwable error; // thrown by the last update
+	
+	UpdateThread(Game game) {
+		super("GTGE Update Thread");
+		
+		this.game = game;
+		this.setDaemon(true);
+	}
+	
+	/**
+	 * Starts updating the game with specified elapsed time, the previous
+	 * update must have been waited.
+	 */
+	synchronized void startUpdate(long elapsedTime) {
+		this.elapsedTime = elapsedTime;
+		this.updating = true;
+		
+		this.notifyAll();
+	}
+	
+	/**
+	 * Waits until the last update is finished, and returns its elapsed time.
+	 * Any exception thrown by the update is thrown again by this method.
+	 */
+	synchronized long waitUpdate() {
+		while (this.updating) {
+			try {
+				this.wait();
+			}
+			catch (InterruptedException e) {
+			}
+		}
+		
+		if (this.error != null) {
+			Throwable e = this.error;
+			this.error = null;
+			
+			if (e instanceof RuntimeException) {
+				throw (RuntimeException) e;
+			}
+			if (e instanceof Error) {
+				throw (Error) e;
+			}
+			throw new RuntimeException(e);
+		}
+		
+		return this.elapsedTime;
+	}
+	
+	/**
+	 * Stops this thread after the running update (if any) is finished.
+	 */
+	synchronized void stopUpdate() {
+		this.stopped = true;
+		
+		this.notifyAll();
+	}
+	
+	public void run() {
+		while (true) {
+			long elapsed;
+			synchronized (this) {
+				while (!this.updating && !this.stopped) {
+					try {
+						this.wait();
+					}
+					catch (InterruptedException e) {
+					}
+				}
+				
+				if (this.stopped) {
+					this.updating = false;
+					this.notifyAll();
+					return;
+				}
+				
+				elapsed = this.elapsedTime;
+			}
+			
+			Throwable thrown = null;
+			try {
+				this.game.updateFrame(elapsed, false);
+			}
+			catch (Throwable e) {
+				thrown = e;
+			}
+			
+			synchronized (this) {
+				this.error = thrown;
+				this.updating = false;
+				
+				this.notifyAll();
+			}
+		}
+	}
+	
+}
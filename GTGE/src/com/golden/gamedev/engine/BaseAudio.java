@@ -16,9 +16,6 @@
  */
 package com.golden.gamedev.engine;
 
-// GTGE
-import com.golden.gamedev.util.Utility;
-
 /**
  * Audio manager that manages playing, stopping, looping of multiple audio
  * sounds (<code>BaseAudioRenderer</code>s).
@@ -250,10 +247,15 @@ public class BaseAudio implements Runnable {
 		
 		if (emptyslot < 0) {
 			// no empty slot, expand the renderer array
-			this.renderer = (BaseAudioRenderer[]) Utility.expand(this.renderer,
-			        1);
-			this.rendererFile = (String[]) Utility.expand(this.rendererFile, 1);
-			emptyslot = this.renderer.length - 1;
+			emptyslot = this.renderer.length;
+			
+			BaseAudioRenderer[] dest = new BaseAudioRenderer[emptyslot + 1];
+			System.arraycopy(this.renderer, 0, dest, 0, emptyslot);
+			this.renderer = dest;
+			
+			String[] destFile = new String[emptyslot + 1];
+			System.arraycopy(this.rendererFile, 0, destFile, 0, emptyslot);
+			this.rendererFile = destFile;
 		}
 		
 		if (this.renderer[emptyslot] == null) {
@@ -58,6 +58,30 @@ public interface BaseInput {
 	 */
 	public static final int NO_KEY = Integer.MIN_VALUE;
 	
+	/**
+	 * Input event type of a key being pressed.
+	 * @see #getEventType(int)
+	 */
+	public static final int EVENT_KEY_PRESSED = 1;
+	
+	/**
+	 * Input event type of a key being released.
+	 * @see #getEventType(int)
+	 */
+	public static final int EVENT_KEY_RELEASED = 2;
+	
+	/**
+	 * Input event type of a mouse button being pressed.
+	 * @see #getEventType(int)
+	 */
+	public static final int EVENT_MOUSE_PRESSED = 3;
+	
+	/**
+	 * Input event type of a mouse button being released.
+	 * @see #getEventType(int)
+	 */
+	public static final int EVENT_MOUSE_RELEASED = 4;
+	
 	/** ************************************************************************* */
 	/** ************************** UPDATE FUNCTION ****************************** */
 	/** ************************************************************************* */
@@ -284,4 +308,61 @@ public interface BaseInput {
 	 */
 	public void setRepeatRate(long rate);
 	
+	/** ************************************************************************* */
+	/** **************************** INPUT EVENT ******************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns total key and mouse button events happened since the previous
+	 * update, the same events that set the pressed and released keys and mouse
+	 * buttons of this update.
+	 * <p>
+	 * 
+	 * Unlike the pressed and released state, the events keep their order and
+	 * the time they happened within the frame, for input that need to be
+	 * timed more precisely than the frame rate (rhythm game, fighting game
+	 * combo) :
+	 * 
+	 * <pre>
+	 * for (int i = 0; i &lt; bsInput.getEventCount(); i++) {
+	 * 	if (bsInput.getEventType(i) == BaseInput.EVENT_KEY_PRESSED) {
+	 * 		hit(bsInput.getEventCode(i), bsInput.getEventTime(i));
+	 * 	}
+	 * }
+	 * </pre>
+	 * 
+	 * @return The number of input events.
+	 */
+	public int getEventCount();
+	
+	/**
+	 * Returns the type of the input event at specified index, one of
+	 * {@link #EVENT_KEY_PRESSED}, {@link #EVENT_KEY_RELEASED},
+	 * {@link #EVENT_MOUSE_PRESSED}, or {@link #EVENT_MOUSE_RELEASED}.
+	 * @param index The event index, from 0 to {@link #getEventCount()} - 1.
+	 * @return The event type.
+	 */
+	public int getEventType(int index);
+	
+	/**
+	 * Returns the key code or mouse button of the input event at specified
+	 * index.
+	 * @param index The event index, from 0 to {@link #getEventCount()} - 1.
+	 * @return The key code or mouse button.
+	 */
+	public int getEventCode(int index);
+	
+	/**
+	 * Returns the time the input event at specified index happened, in
+	 * nanoseconds since the start of the frame, that is the previous update.
+	 * The event time may be negative if the event was received late.
+	 * <p>
+	 * 
+	 * The time is in nanoseconds, the actual precision depends on the input
+	 * engine.
+	 * @param index The event index, from 0 to {@link #getEventCount()} - 1.
+	 * @return The event time in nanoseconds since the frame start.
+	 */
+	public long getEventTime(int index);
+	
 }
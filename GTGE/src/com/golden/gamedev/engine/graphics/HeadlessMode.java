@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.engine.graphics;
+
+// JFC
+import java.awt.Canvas;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+
+import com.golden.gamedev.engine.BaseGraphics;
+
+/**
+ * Graphics engine without any display, renders into a plain
+ * <code>BufferedImage</code>. Works in headless environment
+ * (<code>java.awt.headless=true</code>), for example to run the game on a
+ * server.
+ * <p>
+ * 
+ * Flipping never waits for a display, the game runs as fast as its
+ * {@linkplain com.golden.gamedev.engine.BaseTimer timer} allows. The last
+ * flipped frame is available from {@link #getImage()}.
+ * <p>
+ * 
+ * The game is started without <code>GameLoader</code> (an applet can't be
+ * created in headless environment) :
+ * 
+ * <pre>
+ * Game game = new YourGame();
+ * game.bsGraphics = new HeadlessMode(new Dimension(640, 480));
+ * game.start();
+ * </pre>
+ * 
+ * The {@linkplain #getComponent() component} of this graphics engine is never
+ * shown, therefore no input event is ever received. Finished game exits the
+ * virtual machine, override {@link com.golden.gamedev.Game#notifyExit()} to
+ * keep the server running.
+ * <p>
+ * 
+ * See {@link com.golden.gamedev.engine.BaseGraphics} for how to use graphics
+ * engine separated from Golden T Game Engine (GTGE) Frame Work.
+ */
+public class HeadlessMode implements BaseGraphics {
+	
+	/** *************************** AWT COMPONENT ******************************* */
+	
+	private Canvas canvas; // never shown, for input engine
+	
+	private Dimension size;
+	
+	private String title = "";
+	private Image icon;
+	
+	/** *************************** BACK BUFFER ********************************* */
+	
+	private BufferedImage offscreen; // backbuffer image
+	
+	// current graphics context
+	private Graphics2D currentGraphics;
+	
+	private long frameCount; // total flipped frames
+	
+	/** ************************************************************************* */
+	/** ***************************** CONSTRUCTOR ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Creates new instance of Headless Graphics Engine with specified size.
+	 * @param d The size of the backbuffer.
+	 */
+	public HeadlessMode(Dimension d) {
+		this.size = d;
+		
+		this.canvas = new Canvas();
+		this.canvas.setSize(this.size);
+		
+		this.offscreen = new BufferedImage(this.size.width, this.size.height,
+		        BufferedImage.TYPE_INT_RGB);
+	}
+	
+	/** ************************************************************************* */
+	/** ************************ GRAPHICS FUNCTION ****************************** */
+	/** ************************************************************************* */
+	
+	public Graphics2D getBackBuffer() {
+		if (this.currentGraphics == null) {
+			// graphics context is not created yet,
+			// or have been disposed by calling flip()
+			this.currentGraphics = this.offscreen.createGraphics();
+		}
+		
+		return this.currentGraphics;
+	}
+	
+	public boolean flip() {
+		// disposing current graphics context
+		if (this.currentGraphics != null) {
+			this.currentGraphics.dispose();
+			this.currentGraphics = null;
+		}
+		
+		this.frameCount++;
+		
+		// plain image contents are never lost
+		return true;
+	}
+	
+	/** ************************************************************************* */
+	/** ******************* DISPOSING GRAPHICS ENGINE *************************** */
+	/** ************************************************************************* */
+	
+	public void cleanup() {
+		if (this.currentGraphics != null) {
+			this.currentGraphics.dispose();
+			this.currentGraphics = null;
+		}
+		
+		this.offscreen.flush();
+	}
+	
+	/** ************************************************************************* */
+	/** *************************** PROPERTIES ********************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns the backbuffer image, that holds the last flipped frame when it
+	 * is not being rendered.
+	 * @return The backbuffer image.
+	 */
+	public BufferedImage getImage() {
+		return this.offscreen;
+	}
+	
+	/**
+	 * Returns total frames flipped by this graphics engine.
+	 * @return The flipped frames.
+	 */
+	public long getFrameCount() {
+		return this.frameCount;
+	}
+	
+	public Dimension getSize() {
+		return this.size;
+	}
+	
+	public Component getComponent() {
+		return this.canvas;
+	}
+	
+	public String getGraphicsDescription() {
+		return "Headless Mode [" + this.getSize().width + "x"
+		        + this.getSize().height + "]";
+	}
+	
+	public void setWindowTitle(String st) {
+		this.title = st;
+	}
+	
+	public String getWindowTitle() {
+		return this.title;
+	}
+	
+	public void setWindowIcon(Image icon) {
+		this.icon = icon;
+	}
+	
+	public Image getWindowIcon() {
+		return this.icon;
+	}
+	
+}
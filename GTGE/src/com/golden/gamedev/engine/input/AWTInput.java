@@ -41,6 +41,20 @@ import com.golden.gamedev.engine.BaseInput;
  * Input engine using AWT Component as the input listener.
  * <p>
  * 
+ * The AWT listener does not change the input state, it only queues the input
+ * events without allocating anything, into a ring buffer guarded by its
+ * monitor (kept that way for Java 1.4). The queued events are applied in the order they happened by the game thread on
+ * {@link #update(long)}, therefore the input state never changes in the
+ * middle of a game update, and a key pressed and released between two updates
+ * is seen as both pressed and released on the next update.
+ * <p>
+ * 
+ * Mouse motion is not queued, only the last mouse position of any mouse event
+ * is kept. If the
+ * queue is ever full, the input is {@linkplain #refresh() refreshed} on the
+ * next update rather than missing a key or button release.
+ * <p>
+ * 
  * See {@link com.golden.gamedev.engine.BaseInput} for how to use input engine
  * separated from Golden T Game Engine (GTGE) Frame Work.
  */
@@ -54,6 +68,24 @@ public class AWTInput implements BaseInput {
 	// keyboard, mouse, and mouse motion
 	// for simplifying class documentation
 	
+	/** ************************* INPUT EVENT QUEUE ***************************** */
+	
+	// written by the AWT event thread, read by the game thread
+	private final InputQueue events = new InputQueue(1024);
+	private volatile boolean overflow; // an event is dropped, queue is full
+	
+	// the last mouse position, x in the high 32 bits and y in the low 32 bits
+	private volatile long mousePosition;
+	
+	private long updateTime; // the previous update time, the frame start
+	
+	/** **************************** INPUT EVENT ******************************** */
+	
+	private int[] eventType;
+	private int[] eventCode;
+	private long[] eventTime; // nanoseconds since the frame start
+	private int eventCount;
+	
 	/** ************************ MOUSE MOTION EVENT ***************************** */
 	
 	private int mouseX, mouseY;
@@ -73,11 +105,10 @@ public class AWTInput implements BaseInput {
 	/** ************************** KEYBOARD EVENT ******************************* */
 	
 	private boolean[] keyDown;
-	int[] keyPressed; // use package modifier since these will
-	int[] keyReleased; // be used internally by
-	// EnhancedAWTInput
-	int pressedKey;
-	int releasedKey;
+	private int[] keyPressed;
+	private int[] keyReleased;
+	private int pressedKey; // total pressed key
+	private int releasedKey;
 	
 	private KeyTyped keyTyped;
 	
@@ -102,8 +133,9 @@ public class AWTInput implements BaseInput {
 		
 		// init variables
 		// key event
-		this.keyDown = new boolean[255];
-		this.keyPressed = this.keyReleased = new int[20];
+		this.keyDown = new boolean[256]; // indexed by key code & 0xFF
+		this.keyPressed = new int[20];
+		this.keyReleased = new int[20];
 		this.pressedKey = this.releasedKey = 0;
 		this.keyTyped = new KeyTyped(this);
 		
@@ -111,9 +143,17 @@ public class AWTInput implements BaseInput {
 		this.mouseExists = true;
 		this.mouseVisible = true;
 		this.mouseDown = new boolean[4];
-		this.mousePressed = this.mouseReleased = new int[4];
+		this.mousePressed = new int[4];
+		this.mouseReleased = new int[4];
 		this.pressedMouse = this.releasedMouse = 0;
 		
+		// input event
+		this.eventType = new int[20];
+		this.eventCode = new int[20];
+		this.eventTime = new long[20];
+		this.eventCount = 0;
+		this.updateTime = System.currentTimeMillis();
+		
 		// mouse motion event
 		this.mouseX = this.mouseY = this.lastMouseX = this.lastMouseY = this.mouseDX = this.mouseDY = 0;
 		
@@ -127,6 +167,8 @@ public class AWTInput implements BaseInput {
 			// cursor
 			// size
 			this.mouseY = this.lastMouseY = (mode.getHeight() / 2) - 10;
+			this.mousePosition = AWTInput.packPosition(this.mouseX,
+			        this.mouseY);
 			(new Robot()).mouseMove(this.mouseX, this.mouseY);
 		}
 		catch (Throwable e) {
@@ -157,11 +199,26 @@ public class AWTInput implements BaseInput {
 	/** ************************************************************************* */
 	
 	public void update(long elapsedTime) {
-		// key typed event
-		this.keyTyped.update(elapsedTime);
+		long now = System.currentTimeMillis();
 		
-		// mouse event
+		// clear the events of the previous update
 		this.pressedMouse = this.releasedMouse = 0;
+		this.pressedKey = this.releasedKey = 0;
+		this.eventCount = 0;
+		
+		if (this.overflow) {
+			// events have been dropped, the input state can't be trusted
+			this.overflow = false;
+			this.refresh();
+		}
+		
+		// apply the events queued since the previous update
+		this.processEvents();
+		this.updateTime = now;
+		
+		long position = this.mousePosition;
+		this.mouseX = (int) (position >> 32);
+		this.mouseY = (int) position;
 		
 		// mouse motion event
 		this.mouseDX = this.mouseX - this.lastMouseX;
@@ -169,11 +226,156 @@ public class AWTInput implements BaseInput {
 		this.lastMouseX = this.mouseX;
 		this.lastMouseY = this.mouseY;
 		
-		// key event
-		this.pressedKey = this.releasedKey = 0;
+		// key typed event
+		this.keyTyped.update(elapsedTime);
+	}
+	
+	/**
+	 * Applies all queued input events in the order they happened.
+	 */
+	private void processEvents() {
+		InputQueue queue = this.events;
+		
+		int end = queue.end();
+		for (int i = queue.begin(); i != end; i++) {
+			int code = queue.getCode(i);
+			
+			switch (queue.getType(i)) {
+				case InputQueue.KEY_PRESSED:
+					// the key pressed event is repeated while the key is down
+					if (!this.isKeyDown(code)) {
+						this.setKeyDown(code, true);
+						this.keyPressed = AWTInput.add(this.keyPressed,
+						        this.pressedKey++, code);
+						this.addEvent(queue, i);
+					}
+					break;
+				
+				case InputQueue.KEY_RELEASED:
+					this.setKeyDown(code, false);
+					this.keyReleased = AWTInput.add(this.keyReleased,
+					        this.releasedKey++, code);
+					this.addEvent(queue, i);
+					break;
+				
+				case InputQueue.MOUSE_PRESSED:
+					if (code >= 0 && code < this.mouseDown.length) {
+						this.mouseDown[code] = true;
+					}
+					this.mousePressed = AWTInput.add(this.mousePressed,
+					        this.pressedMouse++, code);
+					this.addEvent(queue, i);
+					break;
+				
+				case InputQueue.MOUSE_RELEASED:
+					if (code >= 0 && code < this.mouseDown.length) {
+						this.mouseDown[code] = false;
+					}
+					this.mouseReleased = AWTInput.add(this.mouseReleased,
+					        this.releasedMouse++, code);
+					this.addEvent(queue, i);
+					break;
+				
+				case InputQueue.MOUSE_ENTERED:
+					this.mouseExists = true;
+					break;
+				
+				case InputQueue.MOUSE_EXITED:
+					this.mouseExists = false;
+					for (int j = 0; j < this.mouseDown.length; j++) {
+						this.mouseDown[j] = false;
+					}
+					break;
+				
+				case InputQueue.FOCUS_LOST:
+					// clears the input before the focus is lost, the events
+					// queued after it are still applied
+					this.clearState();
+					break;
+			}
+		}
+		
+		queue.release(end);
+	}
+	
+	// appends the queued event to the input events of this update
+	private void addEvent(InputQueue queue, int sequence) {
+		int index = this.eventCount++;
+		if (index >= this.eventTime.length) {
+			long[] time = new long[this.eventTime.length * 2];
+			System.arraycopy(this.eventTime, 0, time, 0, index);
+			this.eventTime = time;
+		}
+		
+		this.eventType = AWTInput.add(this.eventType, index, queue
+		        .getType(sequence));
+		this.eventCode = AWTInput.add(this.eventCode, index, queue
+		        .getCode(sequence));
+		// AWT event time is in milliseconds
+		this.eventTime[index] = (queue.getTime(sequence) - this.updateTime) * 1000000;
+	}
+	
+	// sets array[index] = value, returns the array or its grown copy
+	private static int[] add(int[] array, int index, int value) {
+		if (index >= array.length) {
+			int[] dest = new int[array.length * 2];
+			System.arraycopy(array, 0, dest, 0, array.length);
+			array = dest;
+		}
+		array[index] = value;
+		
+		return array;
+	}
+	
+	/**
+	 * Queues an input event from the AWT event thread, to be applied on the
+	 * next {@link #update(long)}. If the queue is full the event is dropped,
+	 * and the input is refreshed on the next update.
+	 * 
+	 * @param type the event type
+	 * @param code the key code or mouse button
+	 * @param when the event time
+	 */
+	private void queueEvent(int type, int code, long when) {
+		if (!this.events.offer(type, code, when)) {
+			this.overflow = true;
+		}
+	}
+	
+	// keeps the mouse position from the AWT event thread, the game thread
+	// reads the last one on update
+	private void moveMousePosition(int x, int y) {
+		this.mousePosition = AWTInput.packPosition(x, y);
+	}
+	
+	private static long packPosition(int x, int y) {
+		return ((long) x << 32) | (y & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * Sets the down state of specified key, called by the game thread when the
+	 * queued key events are applied.
+	 * 
+	 * @param keyCode the key code
+	 * @param down true, if the key is down
+	 */
+	protected void setKeyDown(int keyCode, boolean down) {
+		this.keyDown[keyCode & 0xFF] = down;
 	}
 	
 	public void refresh() {
+		// discard the queued events
+		this.events.release(this.events.end());
+		
+		this.clearState();
+	}
+	
+	/**
+	 * Clears the input state without touching the queued events, called on
+	 * {@link #refresh()} and when the component loses focus. Subclass that
+	 * keeps its own input state should override this method.
+	 */
+	protected void clearState() {
 		// clear key typed event
 		this.keyTyped.refresh();
 		
@@ -191,6 +393,9 @@ public class AWTInput implements BaseInput {
 			this.keyDown[i] = false;
 		}
 		this.pressedKey = this.releasedKey = 0;
+		
+		// clear input event
+		this.eventCount = 0;
 	}
 	
 	public void cleanup() {
@@ -391,6 +596,33 @@ public class AWTInput implements BaseInput {
 		this.keyTyped.setRepeatRate(rate);
 	}
 	
+	/** ************************************************************************* */
+	/** **************************** INPUT EVENT ******************************** */
+	/** ************************************************************************* */
+	
+	public int getEventCount() {
+		return this.eventCount;
+	}
+	
+	public int getEventType(int index) {
+		return this.eventType[index];
+	}
+	
+	public int getEventCode(int index) {
+		return this.eventCode[index];
+	}
+	
+	/**
+	 * Returns the time the input event at specified index happened, in
+	 * nanoseconds since the previous update. AWT event time is in
+	 * milliseconds, therefore the event time precision is one millisecond.
+	 * @param index The event index, from 0 to {@link #getEventCount()} - 1.
+	 * @return The event time in nanoseconds since the frame start.
+	 */
+	public long getEventTime(int index) {
+		return this.eventTime[index];
+	}
+	
 	/**
 	 * Returns the AWT Component used by this input engine.
 	 * @return The {@link Component} used by the input engine.
@@ -414,15 +646,8 @@ public class AWTInput implements BaseInput {
 		
 		// //////// KeyListener /////////////
 		public void keyPressed(KeyEvent e) {
-			// we must check is the key is being pressed or not
-			// since this event is repetitively called when a key is pressed
-			if (!AWTInput.this.keyDown[e.getKeyCode() & 0xFF]) {
-				AWTInput.this.keyDown[e.getKeyCode() & 0xFF] = true;
-				
-				AWTInput.this.keyPressed[AWTInput.this.pressedKey] = e
-				        .getKeyCode();
-				AWTInput.this.pressedKey++;
-			}
+			AWTInput.this.queueEvent(InputQueue.KEY_PRESSED, e.getKeyCode(),
+			        e.getWhen());
 			
 			// make sure the key isn't processed for anything else
 			// for example ALT key won't open frame menu
@@ -430,11 +655,8 @@ public class AWTInput implements BaseInput {
 		}
 		
 		public void keyReleased(KeyEvent e) {
-			AWTInput.this.keyDown[e.getKeyCode() & 0xFF] = false;
-			
-			AWTInput.this.keyReleased[AWTInput.this.releasedKey] = e
-			        .getKeyCode();
-			AWTInput.this.releasedKey++;
+			AWTInput.this.queueEvent(InputQueue.KEY_RELEASED, e.getKeyCode(),
+			        e.getWhen());
 			
 			// make sure the key isn't processed for anything else
 			e.consume();
@@ -450,42 +672,34 @@ public class AWTInput implements BaseInput {
 		}
 		
 		public void mouseEntered(MouseEvent e) {
-			AWTInput.this.mouseExists = true;
+			AWTInput.this.moveMousePosition(e.getX(), e.getY());
+			AWTInput.this.queueEvent(InputQueue.MOUSE_ENTERED, 0, e.getWhen());
 		}
 		
 		public void mouseExited(MouseEvent e) {
-			AWTInput.this.mouseExists = false;
-			
-			for (int i = 0; i < 4; i++) {
-				AWTInput.this.mouseDown[i] = false;
-			}
+			AWTInput.this.moveMousePosition(e.getX(), e.getY());
+			AWTInput.this.queueEvent(InputQueue.MOUSE_EXITED, 0, e.getWhen());
 		}
 		
 		public void mousePressed(MouseEvent e) {
-			AWTInput.this.mouseDown[e.getButton()] = true;
-			
-			AWTInput.this.mousePressed[AWTInput.this.pressedMouse] = e
-			        .getButton();
-			AWTInput.this.pressedMouse++;
+			AWTInput.this.moveMousePosition(e.getX(), e.getY());
+			AWTInput.this.queueEvent(InputQueue.MOUSE_PRESSED, e.getButton(), e
+			        .getWhen());
 		}
 		
 		public void mouseReleased(MouseEvent e) {
-			AWTInput.this.mouseDown[e.getButton()] = false;
-			
-			AWTInput.this.mouseReleased[AWTInput.this.releasedMouse] = e
-			        .getButton();
-			AWTInput.this.releasedMouse++;
+			AWTInput.this.moveMousePosition(e.getX(), e.getY());
+			AWTInput.this.queueEvent(InputQueue.MOUSE_RELEASED, e.getButton(),
+			        e.getWhen());
 		}
 		
 		// ///////// MouseMotionListener ///////////
 		public void mouseDragged(MouseEvent e) {
-			AWTInput.this.mouseX = e.getX();
-			AWTInput.this.mouseY = e.getY();
+			AWTInput.this.moveMousePosition(e.getX(), e.getY());
 		}
 		
 		public void mouseMoved(MouseEvent e) {
-			AWTInput.this.mouseX = e.getX();
-			AWTInput.this.mouseY = e.getY();
+			AWTInput.this.moveMousePosition(e.getX(), e.getY());
 		}
 		
 		// ////////// FocusListener ////////////
@@ -493,7 +707,8 @@ public class AWTInput implements BaseInput {
 		}
 		
 		public void focusLost(FocusEvent e) {
-			AWTInput.this.refresh();
+			AWTInput.this.queueEvent(InputQueue.FOCUS_LOST, 0, System
+			        .currentTimeMillis());
 		}
 		
 	}
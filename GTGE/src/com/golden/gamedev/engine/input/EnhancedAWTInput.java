@@ -18,7 +18,6 @@ package com.golden.gamedev.engine.input;
 
 // JFC
 import java.awt.Component;
-import java.awt.event.KeyEvent;
 import java.util.BitSet;
 
 public class EnhancedAWTInput extends AWTInput {
@@ -31,12 +30,8 @@ public class EnhancedAWTInput extends AWTInput {
 		this.keyDown = new BitSet();
 	}
 	
-	protected InputListener createInputListener() {
-		return new EnhancedInputListener();
-	}
-	
-	public void refresh() {
-		super.refresh();
+	protected void clearState() {
+		super.clearState();
 		
 		this.keyDown.clear();
 	}
@@ -55,30 +50,8 @@ public class EnhancedAWTInput extends AWTInput {
 		return this.keyDown.get(keyCode);
 	}
 	
-	protected class EnhancedInputListener extends InputListener {
-		
-		public void keyPressed(KeyEvent e) {
-			if (!EnhancedAWTInput.this.keyDown.get(e.getKeyCode())) {
-				EnhancedAWTInput.this.keyDown.set(e.getKeyCode());
-				
-				EnhancedAWTInput.this.keyPressed[EnhancedAWTInput.this.pressedKey] = e
-				        .getKeyCode();
-				EnhancedAWTInput.this.pressedKey++;
-			}
-			
-			e.consume();
-		}
-		
-		public void keyReleased(KeyEvent e) {
-			EnhancedAWTInput.this.keyDown.clear(e.getKeyCode());
-			
-			EnhancedAWTInput.this.keyReleased[EnhancedAWTInput.this.releasedKey] = e
-			        .getKeyCode();
-			EnhancedAWTInput.this.releasedKey++;
-			
-			e.consume();
-		}
-		
+	protected void setKeyDown(int keyCode, boolean down) {
+		this.keyDown.set(keyCode, down);
 	}
 	
 }
@@ -0,0 +1,570 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.engine.input;
+
+// JFC
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+// GTGE
+import com.golden.gamedev.engine.BaseInput;
+
+/**
+ * The input state seen by the game in one update, recorded by
+ * {@link RecordingInput} and replayed by {@link ReplayInput}.
+ * <p>
+ * 
+ * A frame is written as the difference from the previous frame : the bits of
+ * changed parts, followed by the changed parts only. Key states are written as
+ * the key codes that toggled, numbers as zigzag variable length integers,
+ * therefore a frame without any input change takes one byte. The input events
+ * are written whole, only in frames that have input events.
+ * <p>
+ * 
+ * Key codes above 255 (for example <code>KeyEvent.VK_WINDOWS</code>) are
+ * written as a list of key code and key states, a key code is listed while it
+ * has a key event in the update or it was listed in the previous frame.
+ * <p>
+ * 
+ * Version 1 recordings have no input events and write the changed parts in
+ * one byte. Version 1 and 2 recordings have no key codes above 255.
+ */
+final class InputFrame {
+	
+	/** Recording stream header, "GTIR". */
+	static final int MAGIC = 0x47544952;
+	
+	/** Recording stream version. */
+	static final int VERSION = 3;
+	
+	private static final int KEYS = 256; // key codes recorded, 0 - 255
+	private static final int BUTTONS = 4; // mouse buttons recorded, 0 - 3
+	
+	// changed parts, the key parts are also the states of the listed keys
+	static final int KEY_DOWN = 1;
+	static final int KEY_PRESSED = 2;
+	static final int KEY_RELEASED = 4;
+	static final int KEY_TYPED = 8;
+	private static final int FIRST_KEYS = 16;
+	private static final int MOUSE_POSITION = 32;
+	private static final int MOUSE_MOTION = 64;
+	private static final int MOUSE_BUTTONS = 128;
+	private static final int EVENTS = 256; // since version 2
+	private static final int LISTED_KEYS = 512; // since version 3
+	
+	/** ************************** KEYBOARD STATE ******************************* */
+	
+	// key bit sets, bit n is key code n
+	final long[] keyDown = new long[InputFrame.KEYS / 64];
+	final long[] keyPressed = new long[InputFrame.KEYS / 64];
+	final long[] keyReleased = new long[InputFrame.KEYS / 64];
+	final long[] keyTyped = new long[InputFrame.KEYS / 64];
+	
+	// key codes above the bit sets, sorted, with their key states
+	int listedCount;
+	int[] listedCode = new int[8];
+	int[] listedState = new int[8];
+	
+	// the key returned by getKeyXXX()
+	int firstKeyPressed = BaseInput.NO_KEY;
+	int firstKeyReleased = BaseInput.NO_KEY;
+	int firstKeyTyped = BaseInput.NO_KEY;
+	
+	/** **************************** MOUSE STATE ******************************** */
+	
+	int mouseX, mouseY;
+	int mouseDX, mouseDY;
+	
+	// bit n is button n, down in bits 0-3, pressed in bits 4-7, released in
+	// bits 8-11, mouse exists in bit 12
+	int mouseButtons;
+	
+	// the button returned by getMouseXXX()
+	int firstMousePressed = BaseInput.NO_BUTTON;
+	int firstMouseReleased = BaseInput.NO_BUTTON;
+	
+	/** **************************** INPUT EVENT ******************************** */
+	
+	int eventCount;
+	int[] eventType = new int[20];
+	int[] eventCode = new int[20];
+	long[] eventTime = new long[20];
+	
+	/** ************************************************************************* */
+	/** ************************** CAPTURE STATE ******************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Captures the current state of specified input engine, specified previous
+	 * frame is the last captured frame.
+	 */
+	void capture(BaseInput input, InputFrame previous) {
+		for (int i = 0; i < this.keyDown.length; i++) {
+			this.keyDown[i] = this.keyPressed[i] = this.keyReleased[i] = this.keyTyped[i] = 0;
+		}
+		
+		for (int key = 0; key < InputFrame.KEYS; key++) {
+			long bit = 1L << (key & 63);
+			int index = key >> 6;
+			
+			if (input.isKeyDown(key)) {
+				this.keyDown[index] |= bit;
+			}
+			if (input.isKeyPressed(key)) {
+				this.keyPressed[index] |= bit;
+			}
+			if (input.isKeyReleased(key)) {
+				this.keyReleased[index] |= bit;
+			}
+			if (input.isKeyTyped(key)) {
+				this.keyTyped[index] |= bit;
+			}
+		}
+		
+		this.firstKeyPressed = input.getKeyPressed();
+		this.firstKeyReleased = input.getKeyReleased();
+		this.firstKeyTyped = input.getKeyTyped();
+		
+		this.mouseX = input.getMouseX();
+		this.mouseY = input.getMouseY();
+		this.mouseDX = input.getMouseDX();
+		this.mouseDY = input.getMouseDY();
+		
+		int buttons = 0;
+		for (int button = 0; button < InputFrame.BUTTONS; button++) {
+			if (input.isMouseDown(button)) {
+				buttons |= 1 << button;
+			}
+			if (input.isMousePressed(button)) {
+				buttons |= 1 << (button + 4);
+			}
+			if (input.isMouseReleased(button)) {
+				buttons |= 1 << (button + 8);
+			}
+		}
+		if (input.isMouseExists()) {
+			buttons |= 1 << 12;
+		}
+		this.mouseButtons = buttons;
+		
+		this.firstMousePressed = input.getMousePressed();
+		this.firstMouseReleased = input.getMouseReleased();
+		
+		int count = input.getEventCount();
+		this.ensureEvents(count);
+		for (int i = 0; i < count; i++) {
+			this.eventType[i] = input.getEventType(i);
+			this.eventCode[i] = input.getEventCode(i);
+			this.eventTime[i] = input.getEventTime(i);
+		}
+		this.eventCount = count;
+		
+		// the listed keys are checked only if they may have changed
+		this.listedCount = 0;
+		for (int i = 0; i < previous.listedCount; i++) {
+			this.captureListed(input, previous.listedCode[i]);
+		}
+		for (int i = 0; i < count; i++) {
+			if (this.eventType[i] == BaseInput.EVENT_KEY_PRESSED
+			        || this.eventType[i] == BaseInput.EVENT_KEY_RELEASED) {
+				this.captureListed(input, this.eventCode[i]);
+			}
+		}
+		this.captureListed(input, this.firstKeyPressed);
+		this.captureListed(input, this.firstKeyReleased);
+		this.captureListed(input, this.firstKeyTyped);
+	}
+	
+	// captures the state of specified key code above the bit sets
+	private void captureListed(BaseInput input, int key) {
+		if (key < InputFrame.KEYS) {
+			return;
+		}
+		
+		int index = 0;
+		while (index < this.listedCount && this.listedCode[index] < key) {
+			index++;
+		}
+		if (index < this.listedCount && this.listedCode[index] == key) {
+			// already captured
+			return;
+		}
+		
+		int state = 0;
+		if (input.isKeyDown(key)) {
+			state |= InputFrame.KEY_DOWN;
+		}
+		if (input.isKeyPressed(key)) {
+			state |= InputFrame.KEY_PRESSED;
+		}
+		if (input.isKeyReleased(key)) {
+			state |= InputFrame.KEY_RELEASED;
+		}
+		if (input.isKeyTyped(key)) {
+			state |= InputFrame.KEY_TYPED;
+		}
+		
+		if (state != 0) {
+			this.insertListed(index, key, state);
+		}
+	}
+	
+	private void insertListed(int index, int key, int state) {
+		if (this.listedCount >= this.listedCode.length) {
+			int[] code = new int[this.listedCode.length * 2];
+			System.arraycopy(this.listedCode, 0, code, 0, this.listedCount);
+			this.listedCode = code;
+			
+			int[] st = new int[this.listedState.length * 2];
+			System.arraycopy(this.listedState, 0, st, 0, this.listedCount);
+			this.listedState = st;
+		}
+		
+		System.arraycopy(this.listedCode, index, this.listedCode, index + 1,
+		        this.listedCount - index);
+		System.arraycopy(this.listedState, index, this.listedState,
+		        index + 1, this.listedCount - index);
+		this.listedCode[index] = key;
+		this.listedState[index] = state;
+		this.listedCount++;
+	}
+	
+	// makes sure the input event arrays can hold specified number of events
+	private void ensureEvents(int count) {
+		if (count > this.eventType.length) {
+			this.eventType = new int[count];
+			this.eventCode = new int[count];
+			this.eventTime = new long[count];
+		}
+	}
+	
+	/**
+	 * Clears this frame to no input at all.
+	 */
+	void clear() {
+		for (int i = 0; i < this.keyDown.length; i++) {
+			this.keyDown[i] = this.keyPressed[i] = this.keyReleased[i] = this.keyTyped[i] = 0;
+		}
+		
+		this.listedCount = 0;
+		this.firstKeyPressed = this.firstKeyReleased = this.firstKeyTyped = BaseInput.NO_KEY;
+		this.mouseDX = this.mouseDY = 0;
+		this.mouseButtons &= 1 << 12; // keeps mouse exists
+		this.firstMousePressed = this.firstMouseReleased = BaseInput.NO_BUTTON;
+		this.eventCount = 0;
+	}
+	
+	/**
+	 * Returns true, if specified key is set in specified key bit set.
+	 */
+	static boolean isSet(long[] keys, int key) {
+		return (key >= 0 && key < InputFrame.KEYS)
+		        && (keys[key >> 6] & (1L << (key & 63))) != 0;
+	}
+	
+	/**
+	 * Returns true, if specified key has specified state (KEY_DOWN,
+	 * KEY_PRESSED, KEY_RELEASED, or KEY_TYPED), for any key code.
+	 */
+	boolean isKey(int state, int key) {
+		if (key < InputFrame.KEYS) {
+			switch (state) {
+				case InputFrame.KEY_DOWN:
+					return InputFrame.isSet(this.keyDown, key);
+				case InputFrame.KEY_PRESSED:
+					return InputFrame.isSet(this.keyPressed, key);
+				case InputFrame.KEY_RELEASED:
+					return InputFrame.isSet(this.keyReleased, key);
+				default:
+					return InputFrame.isSet(this.keyTyped, key);
+			}
+		}
+		
+		for (int i = 0; i < this.listedCount; i++) {
+			if (this.listedCode[i] == key) {
+				return (this.listedState[i] & state) != 0;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Returns true, if specified button is set in specified bits of the mouse
+	 * buttons (0 down, 4 pressed, 8 released).
+	 */
+	boolean isButton(int button, int shift) {
+		return (button >= 0 && button < InputFrame.BUTTONS)
+		        && (this.mouseButtons & (1 << (button + shift))) != 0;
+	}
+	
+	/** ************************************************************************* */
+	/** *************************** WRITE / READ ******************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Writes the difference of this frame from specified previous frame.
+	 */
+	void write(ByteArrayOutputStream out, InputFrame previous) {
+		int changed = 0;
+		if (!InputFrame.equals(this.keyDown, previous.keyDown)) {
+			changed |= InputFrame.KEY_DOWN;
+		}
+		if (!InputFrame.equals(this.keyPressed, previous.keyPressed)) {
+			changed |= InputFrame.KEY_PRESSED;
+		}
+		if (!InputFrame.equals(this.keyReleased, previous.keyReleased)) {
+			changed |= InputFrame.KEY_RELEASED;
+		}
+		if (!InputFrame.equals(this.keyTyped, previous.keyTyped)) {
+			changed |= InputFrame.KEY_TYPED;
+		}
+		if (this.firstKeyPressed != previous.firstKeyPressed
+		        || this.firstKeyReleased != previous.firstKeyReleased
+		        || this.firstKeyTyped != previous.firstKeyTyped) {
+			changed |= InputFrame.FIRST_KEYS;
+		}
+		if (this.mouseX != previous.mouseX || this.mouseY != previous.mouseY) {
+			changed |= InputFrame.MOUSE_POSITION;
+		}
+		if (this.mouseDX != previous.mouseDX || this.mouseDY != previous.mouseDY) {
+			changed |= InputFrame.MOUSE_MOTION;
+		}
+		if (this.mouseButtons != previous.mouseButtons
+		        || this.firstMousePressed != previous.firstMousePressed
+		        || this.firstMouseReleased != previous.firstMouseReleased) {
+			changed |= InputFrame.MOUSE_BUTTONS;
+		}
+		if (this.eventCount > 0) {
+			changed |= InputFrame.EVENTS;
+		}
+		if (!this.equalsListed(previous)) {
+			changed |= InputFrame.LISTED_KEYS;
+		}
+		
+		InputFrame.writeUnsigned(out, changed);
+		
+		if ((changed & InputFrame.KEY_DOWN) != 0) {
+			InputFrame.writeToggles(out, this.keyDown, previous.keyDown);
+		}
+		if ((changed & InputFrame.KEY_PRESSED) != 0) {
+			InputFrame.writeToggles(out, this.keyPressed, previous.keyPressed);
+		}
+		if ((changed & InputFrame.KEY_RELEASED) != 0) {
+			InputFrame.writeToggles(out, this.keyReleased, previous.keyReleased);
+		}
+		if ((changed & InputFrame.KEY_TYPED) != 0) {
+			InputFrame.writeToggles(out, this.keyTyped, previous.keyTyped);
+		}
+		if ((changed & InputFrame.FIRST_KEYS) != 0) {
+			InputFrame.writeInt(out, this.firstKeyPressed);
+			InputFrame.writeInt(out, this.firstKeyReleased);
+			InputFrame.writeInt(out, this.firstKeyTyped);
+		}
+		if ((changed & InputFrame.MOUSE_POSITION) != 0) {
+			InputFrame.writeInt(out, this.mouseX - previous.mouseX);
+			InputFrame.writeInt(out, this.mouseY - previous.mouseY);
+		}
+		if ((changed & InputFrame.MOUSE_MOTION) != 0) {
+			InputFrame.writeInt(out, this.mouseDX);
+			InputFrame.writeInt(out, this.mouseDY);
+		}
+		if ((changed & InputFrame.MOUSE_BUTTONS) != 0) {
+			InputFrame.writeInt(out, this.mouseButtons);
+			InputFrame.writeInt(out, this.firstMousePressed);
+			InputFrame.writeInt(out, this.firstMouseReleased);
+		}
+		if ((changed & InputFrame.EVENTS) != 0) {
+			InputFrame.writeInt(out, this.eventCount);
+			for (int i = 0; i < this.eventCount; i++) {
+				out.write(this.eventType[i]);
+				InputFrame.writeInt(out, this.eventCode[i]);
+				InputFrame.writeLong(out, this.eventTime[i]);
+			}
+		}
+		if ((changed & InputFrame.LISTED_KEYS) != 0) {
+			InputFrame.writeInt(out, this.listedCount);
+			for (int i = 0; i < this.listedCount; i++) {
+				InputFrame.writeInt(out, this.listedCode[i]);
+				out.write(this.listedState[i]);
+			}
+		}
+	}
+	
+	/**
+	 * Reads the next frame, that is the difference from this frame, into this
+	 * frame, from a recording of specified version.
+	 */
+	void read(DataInputStream in, int version) throws IOException {
+		int changed = (version < 2) ? in.readUnsignedByte() : (int) InputFrame
+		        .readUnsigned(in);
+		
+		if ((changed & InputFrame.KEY_DOWN) != 0) {
+			InputFrame.readToggles(in, this.keyDown);
+		}
+		if ((changed & InputFrame.KEY_PRESSED) != 0) {
+			InputFrame.readToggles(in, this.keyPressed);
+		}
+		if ((changed & InputFrame.KEY_RELEASED) != 0) {
+			InputFrame.readToggles(in, this.keyReleased);
+		}
+		if ((changed & InputFrame.KEY_TYPED) != 0) {
+			InputFrame.readToggles(in, this.keyTyped);
+		}
+		if ((changed & InputFrame.FIRST_KEYS) != 0) {
+			this.firstKeyPressed = InputFrame.readInt(in);
+			this.firstKeyReleased = InputFrame.readInt(in);
+			this.firstKeyTyped = InputFrame.readInt(in);
+		}
+		if ((changed & InputFrame.MOUSE_POSITION) != 0) {
+			this.mouseX += InputFrame.readInt(in);
+			this.mouseY += InputFrame.readInt(in);
+		}
+		if ((changed & InputFrame.MOUSE_MOTION) != 0) {
+			this.mouseDX = InputFrame.readInt(in);
+			this.mouseDY = InputFrame.readInt(in);
+		}
+		if ((changed & InputFrame.MOUSE_BUTTONS) != 0) {
+			this.mouseButtons = InputFrame.readInt(in);
+			this.firstMousePressed = InputFrame.readInt(in);
+			this.firstMouseReleased = InputFrame.readInt(in);
+		}
+		
+		this.eventCount = 0;
+		if ((changed & InputFrame.EVENTS) != 0) {
+			int count = InputFrame.readInt(in);
+			if (count < 0) {
+				throw new IOException("Malformed input recording");
+			}
+			
+			this.ensureEvents(count);
+			for (int i = 0; i < count; i++) {
+				this.eventType[i] = in.readUnsignedByte();
+				this.eventCode[i] = InputFrame.readInt(in);
+				this.eventTime[i] = InputFrame.readLong(in);
+			}
+			this.eventCount = count;
+		}
+		if ((changed & InputFrame.LISTED_KEYS) != 0) {
+			int count = InputFrame.readInt(in);
+			if (count < 0) {
+				throw new IOException("Malformed input recording");
+			}
+			
+			this.listedCount = 0;
+			for (int i = 0; i < count; i++) {
+				int key = InputFrame.readInt(in);
+				this.insertListed(i, key, in.readUnsignedByte());
+			}
+		}
+	}
+	
+	private boolean equalsListed(InputFrame other) {
+		if (this.listedCount != other.listedCount) {
+			return false;
+		}
+		
+		for (int i = 0; i < this.listedCount; i++) {
+			if (this.listedCode[i] != other.listedCode[i]
+			        || this.listedState[i] != other.listedState[i]) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	private static boolean equals(long[] keys, long[] other) {
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != other[i]) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	// writes total toggled keys, followed by the toggled key codes
+	private static void writeToggles(ByteArrayOutputStream out, long[] keys, long[] previous) {
+		int count = 0;
+		for (int i = 0; i < keys.length; i++) {
+			long toggled = keys[i] ^ previous[i];
+			for (; toggled != 0; toggled &= toggled - 1) {
+				count++;
+			}
+		}
+		
+		InputFrame.writeInt(out, count);
+		for (int key = 0; key < InputFrame.KEYS; key++) {
+			if (InputFrame.isSet(keys, key) != InputFrame.isSet(previous, key)) {
+				out.write(key);
+			}
+		}
+	}
+	
+	private static void readToggles(DataInputStream in, long[] keys) throws IOException {
+		int count = InputFrame.readInt(in);
+		for (int i = 0; i < count; i++) {
+			int key = in.readUnsignedByte();
+			keys[key >> 6] ^= 1L << (key & 63);
+		}
+	}
+	
+	// zigzag variable length integer, small values take one byte
+	private static void writeInt(ByteArrayOutputStream out, int value) {
+		InputFrame.writeUnsigned(out, ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+	}
+	
+	private static void writeLong(ByteArrayOutputStream out, long value) {
+		InputFrame.writeUnsigned(out, (value << 1) ^ (value >> 63));
+	}
+	
+	// 7 bits per byte, the high bit is set if more bytes follow
+	private static void writeUnsigned(ByteArrayOutputStream out, long value) {
+		long v = value;
+		while ((v & ~0x7FL) != 0) {
+			out.write((int) (v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		out.write((int) v);
+	}
+	
+	private static int readInt(DataInputStream in) throws IOException {
+		int v = (int) InputFrame.readUnsigned(in);
+		return (v >>> 1) ^ -(v & 1);
+	}
+	
+	private static long readLong(DataInputStream in) throws IOException {
+		long v = InputFrame.readUnsigned(in);
+		return (v >>> 1) ^ -(v & 1);
+	}
+	
+	private static long readUnsigned(DataInputStream in) throws IOException {
+		long v = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			int b = in.readUnsignedByte();
+			v |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return v;
+			}
+		}
+		
+		throw new IOException("Malformed input recording");
+	}
+	
+}
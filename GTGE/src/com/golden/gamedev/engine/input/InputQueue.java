@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.engine.input;
+
+// GTGE
+import com.golden.gamedev.engine.BaseInput;
+
+/**
+ * Monitor guarded ring buffer of input events, between one producer thread
+ * (the AWT event dispatch thread) and one consumer thread (the game thread).
+ * <p>
+ * 
+ * Events are stored as primitives in preallocated arrays, queuing an event
+ * never allocates. When the queue is full the event is dropped.
+ * <p>
+ * 
+ * The queue locks its monitor to read or write the sequences, the lock also
+ * publishes the event slots to the other thread. It is kept that way for
+ * Java 1.4, volatile sequences alone would not publish the slots before the
+ * Java 5 memory model.
+ * <p>
+ * 
+ * The consumer reads the events from {@link #begin()} to {@link #end()}, then
+ * {@linkplain #release(int) releases} them :
+ * 
+ * <pre>
+ * int end = queue.end();
+ * for (int i = queue.begin(); i != end; i++) {
+ * 	int type = queue.getType(i);
+ * 	...
+ * }
+ * queue.release(end);
+ * </pre>
+ */
+final class InputQueue {
+	
+	// event types, the same as BaseInput input event types
+	static final int KEY_PRESSED = BaseInput.EVENT_KEY_PRESSED;
+	static final int KEY_RELEASED = BaseInput.EVENT_KEY_RELEASED;
+	static final int MOUSE_PRESSED = BaseInput.EVENT_MOUSE_PRESSED;
+	static final int MOUSE_RELEASED = BaseInput.EVENT_MOUSE_RELEASED;
+	static final int MOUSE_ENTERED = 5;
+	static final int MOUSE_EXITED = 6;
+	static final int FOCUS_LOST = 7;
+	
+	/** ************************** EVENT SLOTS ********************************** */
+	
+	private final int mask; // capacity - 1, capacity is power of two
+	
+	private final int[] types;
+	private final int[] codes; // key code or mouse button
+	private final long[] times; // event time in milliseconds
+	
+	// sequence numbers, only increased, the slot is sequence & mask,
+	// guarded by this queue
+	private int head; // the next event to be read, by the consumer
+	private int tail; // the next free slot, by the producer
+	
+	/** ************************************************************************* */
+	/** ***************************** CONSTRUCTOR ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Creates new <code>InputQueue</code> that holds at least specified
+	 * number of events.
+	 */
+	InputQueue(int capacity) {
+		int size = 1;
+		while (size < capacity) {
+			size <<= 1;
+		}
+		
+		this.mask = size - 1;
+		this.types = new int[size];
+		this.codes = new int[size];
+		this.times = new long[size];
+	}
+	
+	/** ************************************************************************* */
+	/** **************************** PRODUCER *********************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Queues an event, returns false if the queue is full and the event is
+	 * dropped. Called only by the producer thread.
+	 */
+	synchronized boolean offer(int type, int code, long when) {
+		int t = this.tail;
+		if (t - this.head > this.mask) {
+			// full
+			return false;
+		}
+		
+		int slot = t & this.mask;
+		this.types[slot] = type;
+		this.codes[slot] = code;
+		this.times[slot] = when;
+		
+		this.tail = t + 1;
+		
+		return true;
+	}
+	
+	/** ************************************************************************* */
+	/** **************************** CONSUMER *********************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns the sequence of the first queued event.
+	 */
+	synchronized int begin() {
+		return this.head;
+	}
+	
+	/**
+	 * Returns the sequence after the last queued event, events queued after
+	 * this call are not included.
+	 */
+	synchronized int end() {
+		return this.tail;
+	}
+	
+	/**
+	 * Frees the slots of the events before specified sequence, to be reused
+	 * by the producer.
+	 */
+	synchronized void release(int sequence) {
+		this.head = sequence;
+	}
+	
+	int getType(int sequence) {
+		return this.types[sequence & this.mask];
+	}
+	
+	int getCode(int sequence) {
+		return this.codes[sequence & this.mask];
+	}
+	
+	long getTime(int sequence) {
+		return this.times[sequence & this.mask];
+	}
+	
+	/**
+	 * Returns the maximum number of queued events.
+	 */
+	int getCapacity() {
+		return this.mask + 1;
+	}
+	
+}
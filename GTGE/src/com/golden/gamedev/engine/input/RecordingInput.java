@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.engine.input;
+
+// JFC
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// GTGE
+import com.golden.gamedev.engine.BaseInput;
+
+/**
+ * Input engine that records the input of another input engine, to be replayed
+ * later by {@link ReplayInput}.
+ * <p>
+ * 
+ * Every {@link #update(long)} records the input state the game has seen
+ * since the previous update (keys, mouse position and buttons), then updates
+ * the recorded input engine. The state is recorded as the difference from
+ * the previous update, an update without any input change takes one byte.
+ * <p>
+ * 
+ * To record a game :
+ * 
+ * <pre>
+ * protected void initEngine() {
+ * 	super.initEngine();
+ * 	bsInput = new RecordingInput(bsInput);
+ * }
+ * ...
+ * byte[] recording = ((RecordingInput) bsInput).getRecording();
+ * </pre>
+ * 
+ * Replaying the input gives the same game only if the game is
+ * {@linkplain com.golden.gamedev.Game#setDeterministic(boolean) deterministic}.
+ * All key codes are recorded, key codes above 255 (for example
+ * <code>KeyEvent.VK_WINDOWS</code>) are recorded as a list of the keys that
+ * have been used since the previous update. Mouse buttons from 0 to 3 are
+ * recorded, the {@linkplain BaseInput#getEventCount() input events} are
+ * recorded whole.
+ * 
+ * @see ReplayInput
+ */
+public class RecordingInput implements BaseInput {
+	
+	/** ************************* RECORDED INPUT ******************************** */
+	
+	private BaseInput input;
+	
+	private InputFrame current = new InputFrame();
+	private InputFrame previous = new InputFrame();
+	
+	private ByteArrayOutputStream frames = new ByteArrayOutputStream(4096);
+	private int frameCount;
+	
+	/** ************************************************************************* */
+	/** ***************************** CONSTRUCTOR ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Creates new <code>RecordingInput</code> that records specified input
+	 * engine.
+	 * @param input The input engine to be recorded.
+	 */
+	public RecordingInput(BaseInput input) {
+		this.input = input;
+	}
+	
+	/** ************************************************************************* */
+	/** ************************** UPDATE FUNCTION ****************************** */
+	/** ************************************************************************* */
+	
+	public void update(long elapsedTime) {
+		// records what the game has seen before the input is updated
+		this.current.capture(this.input, this.previous);
+		this.current.write(this.frames, this.previous);
+		this.frameCount++;
+		
+		InputFrame f = this.previous;
+		this.previous = this.current;
+		this.current = f;
+		
+		this.input.update(elapsedTime);
+	}
+	
+	public void refresh() {
+		this.input.refresh();
+	}
+	
+	public void cleanup() {
+		this.input.cleanup();
+	}
+	
+	/** ************************************************************************* */
+	/** ************************** INPUT RECORDING ****************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns the input recorded so far, to be replayed by
+	 * {@link ReplayInput#ReplayInput(byte[])}.
+	 * @return The input recording.
+	 */
+	public byte[] getRecording() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(
+		        this.frames.size() + 9);
+		try {
+			this.writeRecording(out);
+		}
+		catch (IOException e) {
+			// never happen with byte array stream
+		}
+		
+		return out.toByteArray();
+	}
+	
+	/**
+	 * Writes the input recorded so far to specified stream.
+	 * @param out The stream the recording is written to.
+	 * @throws IOException If an I/O error occurs.
+	 * @see ReplayInput#ReplayInput(java.io.InputStream)
+	 */
+	public void writeRecording(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(InputFrame.MAGIC);
+		data.writeByte(InputFrame.VERSION);
+		data.writeInt(this.frameCount);
+		this.frames.writeTo(data);
+		data.flush();
+	}
+	
+	/**
+	 * Forgets the input recorded so far.
+	 */
+	public void clearRecording() {
+		this.frames.reset();
+		this.frameCount = 0;
+		this.previous = new InputFrame(); // the replay starts from empty frame
+	}
+	
+	/**
+	 * Returns total recorded updates.
+	 * @return The recorded updates.
+	 */
+	public int getFrameCount() {
+		return this.frameCount;
+	}
+	
+	/**
+	 * Returns the size of the recorded input in bytes.
+	 * @return The recording size.
+	 */
+	public int getRecordingSize() {
+		return this.frames.size();
+	}
+	
+	/**
+	 * Returns the input engine that is recorded.
+	 * @return The recorded input engine.
+	 */
+	public BaseInput getInput() {
+		return this.input;
+	}
+	
+	/** ************************************************************************* */
+	/** ************************* RECORDED INPUT ******************************** */
+	/** ************************************************************************* */
+	
+	public void mouseMove(int x, int y) {
+		this.input.mouseMove(x, y);
+	}
+	
+	public boolean isMouseExists() {
+		return this.input.isMouseExists();
+	}
+	
+	public int getMouseX() {
+		return this.input.getMouseX();
+	}
+	
+	public int getMouseY() {
+		return this.input.getMouseY();
+	}
+	
+	public int getMouseDX() {
+		return this.input.getMouseDX();
+	}
+	
+	public int getMouseDY() {
+		return this.input.getMouseDY();
+	}
+	
+	public int getMouseReleased() {
+		return this.input.getMouseReleased();
+	}
+	
+	public boolean isMouseReleased(int button) {
+		return this.input.isMouseReleased(button);
+	}
+	
+	public int getMousePressed() {
+		return this.input.getMousePressed();
+	}
+	
+	public boolean isMousePressed(int button) {
+		return this.input.isMousePressed(button);
+	}
+	
+	public boolean isMouseDown(int button) {
+		return this.input.isMouseDown(button);
+	}
+	
+	public void setMouseVisible(boolean visible) {
+		this.input.setMouseVisible(visible);
+	}
+	
+	public boolean isMouseVisible() {
+		return this.input.isMouseVisible();
+	}
+	
+	public int getKeyReleased() {
+		return this.input.getKeyReleased();
+	}
+	
+	public boolean isKeyReleased(int keyCode) {
+		return this.input.isKeyReleased(keyCode);
+	}
+	
+	public int getKeyPressed() {
+		return this.input.getKeyPressed();
+	}
+	
+	public boolean isKeyPressed(int keyCode) {
+		return this.input.isKeyPressed(keyCode);
+	}
+	
+	public boolean isKeyDown(int keyCode) {
+		return this.input.isKeyDown(keyCode);
+	}
+	
+	public int getKeyTyped() {
+		return this.input.getKeyTyped();
+	}
+	
+	public boolean isKeyTyped(int keyCode) {
+		return this.input.isKeyTyped(keyCode);
+	}
+	
+	public long getRepeatDelay() {
+		return this.input.getRepeatDelay();
+	}
+	
+	public void setRepeatDelay(long delay) {
+		this.input.setRepeatDelay(delay);
+	}
+	
+	public long getRepeatRate() {
+		return this.input.getRepeatRate();
+	}
+	
+	public void setRepeatRate(long rate) {
+		this.input.setRepeatRate(rate);
+	}
+	
+	public int getEventCount() {
+		return this.input.getEventCount();
+	}
+	
+	public int getEventType(int index) {
+		return this.input.getEventType(index);
+	}
+	
+	public int getEventCode(int index) {
+		return this.input.getEventCode(index);
+	}
+	
+	public long getEventTime(int index) {
+		return this.input.getEventTime(index);
+	}
+	
+	public String toString() {
+		return super.toString() + " " + "[frames=" + this.frameCount
+		        + ", bytes=" + this.frames.size() + ", input=" + this.input + "]";
+	}
+	
+}
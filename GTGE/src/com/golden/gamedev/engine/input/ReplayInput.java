@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.engine.input;
+
+// JFC
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// GTGE
+import com.golden.gamedev.engine.BaseInput;
+
+/**
+ * Input engine that replays the input recorded by {@link RecordingInput},
+ * one recorded update every {@link #update(long)}. After the last recorded
+ * update no key nor mouse button is down.
+ * <p>
+ * 
+ * To replay a game as fast as possible, for example to regression test or
+ * to benchmark a whole game session :
+ * 
+ * <pre>
+ * protected void initEngine() {
+ * 	super.initEngine();
+ * 	bsInput = new ReplayInput(recording);
+ * 	setDeterministic(true);
+ * 	setFastForward(true);
+ * }
+ * 
+ * public void update(long elapsedTime) {
+ * 	...
+ * 	if (((ReplayInput) bsInput).isFinished()) {
+ * 		finish();
+ * 	}
+ * }
+ * </pre>
+ * 
+ * The replayed input ignores {@link #mouseMove(int, int)} and
+ * {@link #refresh()}, their effect is in the recording.
+ * 
+ * @see RecordingInput
+ * @see com.golden.gamedev.Game#setFastForward(boolean)
+ */
+public class ReplayInput implements BaseInput {
+	
+	/** ************************* REPLAYED INPUT ******************************** */
+	
+	private DataInputStream in;
+	private int version; // the recording version
+	
+	private final InputFrame frame = new InputFrame();
+	private int frameIndex; // the replayed frame
+	private int frameCount;
+	
+	/** ************************** INPUT SETTINGS ******************************* */
+	
+	private boolean mouseVisible = true;
+	private long repeatDelay, repeatRate;
+	
+	/** ************************************************************************* */
+	/** ***************************** CONSTRUCTOR ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Creates new <code>ReplayInput</code> that replays specified recording.
+	 * @param recording The input recording.
+	 * @throws IllegalArgumentException If the recording is not an input
+	 *         recording.
+	 * @see RecordingInput#getRecording()
+	 */
+	public ReplayInput(byte[] recording) {
+		this.in = new DataInputStream(new ByteArrayInputStream(recording));
+		
+		try {
+			if (this.in.readInt() != InputFrame.MAGIC) {
+				throw new IllegalArgumentException("Not an input recording");
+			}
+			this.version = this.in.readUnsignedByte();
+			if (this.version < 1 || this.version > InputFrame.VERSION) {
+				throw new IllegalArgumentException(
+				        "Unsupported input recording version " + this.version);
+			}
+			
+			this.frameCount = this.in.readInt();
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Truncated input recording");
+		}
+		
+		this.readFrame();
+	}
+	
+	/**
+	 * Creates new <code>ReplayInput</code> that replays the recording read
+	 * from specified stream.
+	 * @param in The stream of the input recording.
+	 * @throws IOException If an I/O error occurs.
+	 * @see RecordingInput#writeRecording(java.io.OutputStream)
+	 */
+	public ReplayInput(InputStream in) throws IOException {
+		this(ReplayInput.readFully(in));
+	}
+	
+	private static byte[] readFully(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+		byte[] buffer = new byte[4096];
+		
+		int len;
+		while ((len = in.read(buffer)) != -1) {
+			out.write(buffer, 0, len);
+		}
+		
+		return out.toByteArray();
+	}
+	
+	/** ************************************************************************* */
+	/** ************************** UPDATE FUNCTION ****************************** */
+	/** ************************************************************************* */
+	
+	public void update(long elapsedTime) {
+		if (this.frameIndex < this.frameCount) {
+			this.frameIndex++;
+			this.readFrame();
+		}
+	}
+	
+	// reads the frame at the replayed frame index
+	private void readFrame() {
+		if (this.frameIndex >= this.frameCount) {
+			// the recording is over
+			this.frame.clear();
+			return;
+		}
+		
+		try {
+			this.frame.read(this.in, this.version);
+		}
+		catch (IOException e) {
+			// truncated recording, ends the replay here
+			this.frameCount = this.frameIndex;
+			this.frame.clear();
+		}
+	}
+	
+	public void refresh() {
+	}
+	
+	public void cleanup() {
+	}
+	
+	/** ************************************************************************* */
+	/** *************************** REPLAY STATUS ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns true, if all recorded updates have been replayed.
+	 * @return If the replay is finished.
+	 */
+	public boolean isFinished() {
+		return this.frameIndex >= this.frameCount;
+	}
+	
+	/**
+	 * Returns the index of the recorded update being replayed.
+	 * @return The replayed update.
+	 */
+	public int getFrame() {
+		return this.frameIndex;
+	}
+	
+	/**
+	 * Returns total recorded updates.
+	 * @return The recorded updates.
+	 */
+	public int getFrameCount() {
+		return this.frameCount;
+	}
+	
+	/** ************************************************************************* */
+	/** ************************* REPLAYED INPUT ******************************** */
+	/** ************************************************************************* */
+	
+	public void mouseMove(int x, int y) {
+	}
+	
+	public boolean isMouseExists() {
+		return (this.frame.mouseButtons & (1 << 12)) != 0;
+	}
+	
+	public int getMouseX() {
+		return this.frame.mouseX;
+	}
+	
+	public int getMouseY() {
+		return this.frame.mouseY;
+	}
+	
+	public int getMouseDX() {
+		return this.frame.mouseDX;
+	}
+	
+	public int getMouseDY() {
+		return this.frame.mouseDY;
+	}
+	
+	public int getMouseReleased() {
+		return this.frame.firstMouseReleased;
+	}
+	
+	public boolean isMouseReleased(int button) {
+		return this.frame.isButton(button, 8);
+	}
+	
+	public int getMousePressed() {
+		return this.frame.firstMousePressed;
+	}
+	
+	public boolean isMousePressed(int button) {
+		return this.frame.isButton(button, 4);
+	}
+	
+	public boolean isMouseDown(int button) {
+		return this.frame.isButton(button, 0);
+	}
+	
+	public void setMouseVisible(boolean visible) {
+		this.mouseVisible = visible;
+	}
+	
+	public boolean isMouseVisible() {
+		return this.mouseVisible;
+	}
+	
+	public int getKeyReleased() {
+		return this.frame.firstKeyReleased;
+	}
+	
+	public boolean isKeyReleased(int keyCode) {
+		return this.frame.isKey(InputFrame.KEY_RELEASED, keyCode);
+	}
+	
+	public int getKeyPressed() {
+		return this.frame.firstKeyPressed;
+	}
+	
+	public boolean isKeyPressed(int keyCode) {
+		return this.frame.isKey(InputFrame.KEY_PRESSED, keyCode);
+	}
+	
+	public boolean isKeyDown(int keyCode) {
+		if (this.version < 3) {
+			// key codes above 255 are not recorded, AWT input key down
+			// states are indexed by key code & 0xFF
+			return InputFrame.isSet(this.frame.keyDown, keyCode & 0xFF);
+		}
+		
+		return this.frame.isKey(InputFrame.KEY_DOWN, keyCode);
+	}
+	
+	public int getKeyTyped() {
+		return this.frame.firstKeyTyped;
+	}
+	
+	public boolean isKeyTyped(int keyCode) {
+		return this.frame.isKey(InputFrame.KEY_TYPED, keyCode);
+	}
+	
+	public long getRepeatDelay() {
+		return this.repeatDelay;
+	}
+	
+	public void setRepeatDelay(long delay) {
+		this.repeatDelay = delay;
+	}
+	
+	public long getRepeatRate() {
+		return this.repeatRate;
+	}
+	
+	public void setRepeatRate(long rate) {
+		this.repeatRate = rate;
+	}
+	
+	/** ************************************************************************* */
+	/** ************************* REPLAYED EVENT ******************************** */
+	/** ************************************************************************* */
+	
+	public int getEventCount() {
+		return this.frame.eventCount;
+	}
+	
+	public int getEventType(int index) {
+		return this.frame.eventType[index];
+	}
+	
+	public int getEventCode(int index) {
+		return this.frame.eventCode[index];
+	}
+	
+	public long getEventTime(int index) {
+		return this.frame.eventTime[index];
+	}
+	
+	public String toString() {
+		return super.toString() + " " + "[frame=" + this.frameIndex + "/"
+		        + this.frameCount + "]";
+	}
+	
+}
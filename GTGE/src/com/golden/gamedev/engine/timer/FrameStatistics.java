@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.engine.timer;
+
+// JFC
+import java.io.PrintStream;
+
+/**
+ * Frame time histograms of the game loop phases : the whole frame, and the
+ * update, render and flip phases of the frame. Times are measured with
+ * <code>System.nanoTime()</code>, <b>requires Java 5 or later</b>.
+ * <p>
+ * 
+ * To measure a game :
+ * 
+ * <pre>
+ * game.setFrameStatistics(new FrameStatistics());
+ * ...
+ * FrameStatistics stats = game.getFrameStatistics();
+ * double p99 = stats.getHistogram(FrameStatistics.FRAME).getPercentile(99);
+ * </pre>
+ * 
+ * The statistics are {@linkplain #dump(PrintStream) dumped} to the standard
+ * output when the game is finished.
+ * 
+ * @see com.golden.gamedev.Game#setFrameStatistics(FrameStatistics)
+ * @see FrameTimeHistogram
+ */
+public class FrameStatistics {
+	
+	/** Phase of the whole frame, from one timer sleep to the next. */
+	public static final int FRAME = 0;
+	
+	/** Phase of the game update. */
+	public static final int UPDATE = 1;
+	
+	/** Phase of the game rendering. */
+	public static final int RENDER = 2;
+	
+	/** Phase of the graphics engine flip. */
+	public static final int FLIP = 3;
+	
+	private static final String[] PHASE_NAMES = {
+	        "frame", "update", "render", "flip"
+	};
+	
+	/** ************************ PHASE MEASUREMENT ****************************** */
+	
+	private final FrameTimeHistogram[] histograms;
+	private final long[] startTimes; // start of the running phase
+	
+	/** ************************************************************************* */
+	/** ***************************** CONSTRUCTOR ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Creates new <code>FrameStatistics</code> with specified rolling window
+	 * size, in frames.
+	 */
+	public FrameStatistics(int window) {
+		this.histograms = new FrameTimeHistogram[FrameStatistics.PHASE_NAMES.length];
+		for (int i = 0; i < this.histograms.length; i++) {
+			this.histograms[i] = new FrameTimeHistogram(window);
+		}
+		
+		this.startTimes = new long[this.histograms.length];
+	}
+	
+	/**
+	 * Creates new <code>FrameStatistics</code> with rolling window of 600
+	 * frames (10 seconds at 60 fps).
+	 */
+	public FrameStatistics() {
+		this(600);
+	}
+	
+	/** ************************************************************************* */
+	/** ************************ PHASE MEASUREMENT ****************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Marks the start of specified phase.
+	 */
+	public void begin(int phase) {
+		this.startTimes[phase] = System.nanoTime();
+	}
+	
+	/**
+	 * Marks the end of specified phase, and records its duration since the
+	 * phase {@linkplain #begin(int) beginning}.
+	 */
+	public void end(int phase) {
+		this.histograms[phase].record(System.nanoTime()
+		        - this.startTimes[phase]);
+	}
+	
+	/**
+	 * Marks the end of a frame and the start of the next frame, the first call
+	 * only starts the frame.
+	 */
+	public void endFrame() {
+		long now = System.nanoTime();
+		if (this.startTimes[FrameStatistics.FRAME] != 0) {
+			this.histograms[FrameStatistics.FRAME].record(now
+			        - this.startTimes[FrameStatistics.FRAME]);
+		}
+		
+		this.startTimes[FrameStatistics.FRAME] = now;
+	}
+	
+	/**
+	 * Forgets all recorded frames.
+	 */
+	public void clear() {
+		for (int i = 0; i < this.histograms.length; i++) {
+			this.histograms[i].clear();
+			this.startTimes[i] = 0;
+		}
+	}
+	
+	/** ************************************************************************* */
+	/** ************************ STATISTIC QUERY ******************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns the histogram of specified phase.
+	 * 
+	 * @see #FRAME
+	 * @see #UPDATE
+	 * @see #RENDER
+	 * @see #FLIP
+	 */
+	public FrameTimeHistogram getHistogram(int phase) {
+		return this.histograms[phase];
+	}
+	
+	/**
+	 * Prints the percentiles of every phase in milliseconds to specified
+	 * stream, one line per phase.
+	 */
+	public void dump(PrintStream out) {
+		out.println("phase  count  mean  p50  p95  p99  max (ms)");
+		for (int i = 0; i < this.histograms.length; i++) {
+			FrameTimeHistogram h = this.histograms[i];
+			out.println(FrameStatistics.PHASE_NAMES[i] + "  " + h.getCount()
+			        + "  " + FrameStatistics.format(h.getMean()) + "  "
+			        + FrameStatistics.format(h.getPercentile(50)) + "  "
+			        + FrameStatistics.format(h.getPercentile(95)) + "  "
+			        + FrameStatistics.format(h.getPercentile(99)) + "  "
+			        + FrameStatistics.format(h.getMax()));
+		}
+	}
+	
+	// milliseconds with 3 decimals
+	private static String format(double ms) {
+		return String.valueOf(Math.round(ms * 1000) / 1000.0);
+	}
+	
+	public String toString() {
+		return super.toString() + " " + "[frames="
+		        + this.histograms[FrameStatistics.FRAME].getCount() + "]";
+	}
+	
+}
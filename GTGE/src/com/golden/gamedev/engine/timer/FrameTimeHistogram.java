@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.engine.timer;
+
+/**
+ * Histogram of frame durations with microsecond resolution, used to find
+ * stutter that an average FPS hides.
+ * <p>
+ * 
+ * Durations are counted in log-linear buckets, every power of two is split
+ * into 32 buckets, therefore a percentile is reported within about 3% of the
+ * real value for any duration from 1 microsecond to more than a day, using
+ * fixed memory. {@linkplain #record(long) Recording} never allocates.
+ * <p>
+ * 
+ * The histogram covers a rolling window : when the current window is full it
+ * replaces the previous window and starts over, and queries cover both
+ * windows, that is between one and two windows of the most recent
+ * durations.
+ * 
+ * @see FrameStatistics
+ */
+public class FrameTimeHistogram {
+	
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << FrameTimeHistogram.SUB_BUCKET_BITS;
+	private static final int MAX_SHIFT = 32;
+	private static final int BUCKETS = (FrameTimeHistogram.MAX_SHIFT + 2)
+	        * FrameTimeHistogram.SUB_BUCKETS;
+	
+	/** ***************************** HISTOGRAM ********************************* */
+	
+	private int[] current = new int[FrameTimeHistogram.BUCKETS];
+	private int[] previous = new int[FrameTimeHistogram.BUCKETS];
+	private int currentCount, previousCount;
+	private long currentMax, previousMax; // microseconds
+	private long currentTotal, previousTotal; // microseconds
+	
+	private int window;
+	
+	/** ************************************************************************* */
+	/** ***************************** CONSTRUCTOR ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Creates new <code>FrameTimeHistogram</code> with specified rolling
+	 * window size, in recorded durations.
+	 */
+	public FrameTimeHistogram(int window) {
+		this.window = Math.max(window, 1);
+	}
+	
+	/**
+	 * Creates new <code>FrameTimeHistogram</code> with rolling window of 600
+	 * durations (10 seconds at 60 fps).
+	 */
+	public FrameTimeHistogram() {
+		this(600);
+	}
+	
+	/** ************************************************************************* */
+	/** ************************** RECORD DURATION ****************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Records specified duration in nanoseconds.
+	 */
+	public void record(long nanos) {
+		if (this.currentCount >= this.window) {
+			// rolls the window
+			int[] buckets = this.previous;
+			this.previous = this.current;
+			this.previousCount = this.currentCount;
+			this.previousMax = this.currentMax;
+			this.previousTotal = this.currentTotal;
+			
+			for (int i = 0; i < buckets.length; i++) {
+				buckets[i] = 0;
+			}
+			this.current = buckets;
+			this.currentCount = 0;
+			this.currentMax = this.currentTotal = 0;
+		}
+		
+		long micros = Math.max(nanos / 1000, 0);
+		
+		this.current[FrameTimeHistogram.getBucket(micros)]++;
+		this.currentCount++;
+		this.currentTotal += micros;
+		if (micros > this.currentMax) {
+			this.currentMax = micros;
+		}
+	}
+	
+	/**
+	 * Forgets all recorded durations.
+	 */
+	public void clear() {
+		for (int i = 0; i < FrameTimeHistogram.BUCKETS; i++) {
+			this.current[i] = this.previous[i] = 0;
+		}
+		
+		this.currentCount = this.previousCount = 0;
+		this.currentMax = this.previousMax = 0;
+		this.currentTotal = this.previousTotal = 0;
+	}
+	
+	private static int getBucket(long micros) {
+		if (micros < FrameTimeHistogram.SUB_BUCKETS) {
+			return (int) micros;
+		}
+		
+		// shift that puts the value in [SUB_BUCKETS - 2 * SUB_BUCKETS)
+		int shift = 0;
+		while ((micros >> shift) >= 2 * FrameTimeHistogram.SUB_BUCKETS) {
+			shift++;
+		}
+		
+		if (shift > FrameTimeHistogram.MAX_SHIFT) {
+			// too large, counted in the last bucket
+			return FrameTimeHistogram.BUCKETS - 1;
+		}
+		
+		return (shift * FrameTimeHistogram.SUB_BUCKETS) + (int) (micros >> shift);
+	}
+	
+	// the highest value counted in specified bucket
+	private static long getBucketValue(int bucket) {
+		if (bucket < FrameTimeHistogram.SUB_BUCKETS) {
+			return bucket;
+		}
+		
+		int shift = (bucket / FrameTimeHistogram.SUB_BUCKETS) - 1;
+		long sub = bucket - (shift * FrameTimeHistogram.SUB_BUCKETS);
+		
+		return ((sub + 1) << shift) - 1;
+	}
+	
+	/** ************************************************************************* */
+	/** ************************* HISTOGRAM QUERY ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns the duration in milliseconds that specified percentage of the
+	 * recorded durations do not exceed, for example
+	 * <code>getPercentile(99)</code> returns the 99th percentile duration.
+	 * Returns 0 if no duration has been recorded.
+	 * 
+	 * @param percentile the percentile, range from [0 - 100]
+	 */
+	public double getPercentile(double percentile) {
+		int count = this.getCount();
+		if (count == 0) {
+			return 0;
+		}
+		
+		long rank = (long) Math.ceil(percentile / 100 * count);
+		rank = Math.min(Math.max(rank, 1), count);
+		
+		long seen = 0;
+		for (int i = 0; i < FrameTimeHistogram.BUCKETS; i++) {
+			seen += this.current[i] + this.previous[i];
+			if (seen >= rank) {
+				// never reports more than the real maximum
+				return Math.min(FrameTimeHistogram.getBucketValue(i), this
+				        .getMaxMicros()) / 1000.0;
+			}
+		}
+		
+		return this.getMax();
+	}
+	
+	/**
+	 * Returns the longest recorded duration in milliseconds.
+	 */
+	public double getMax() {
+		return this.getMaxMicros() / 1000.0;
+	}
+	
+	private long getMaxMicros() {
+		return Math.max(this.currentMax, this.previousMax);
+	}
+	
+	/**
+	 * Returns the average recorded duration in milliseconds.
+	 */
+	public double getMean() {
+		int count = this.getCount();
+		
+		return (count == 0) ? 0
+		        : (this.currentTotal + this.previousTotal) / 1000.0 / count;
+	}
+	
+	/**
+	 * Returns total recorded durations in the rolling window.
+	 */
+	public int getCount() {
+		return this.currentCount + this.previousCount;
+	}
+	
+	/**
+	 * Returns the rolling window size, in recorded durations.
+	 */
+	public int getWindow() {
+		return this.window;
+	}
+	
+	public String toString() {
+		return super.toString() + " " + "[count=" + this.getCount() + ", p50="
+		        + this.getPercentile(50) + ", p95=" + this.getPercentile(95)
+		        + ", p99=" + this.getPercentile(99) + ", max=" + this.getMax()
+		        + "]";
+	}
+	
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.engine.timer;
+
+// JFC
+import java.util.Arrays;
+
+// GTGE
+import com.golden.gamedev.engine.BaseTimer;
+
+/**
+ * High precision timer based on <code>System.nanoTime()</code>, <b>requires
+ * Java 5 or later</b>.
+ * <p>
+ * 
+ * The timer sleeps with <code>Thread.sleep()</code> until the frame is
+ * almost due, and spins (yielding the processor) for the last
+ * {@linkplain #setSpinThreshold(long) fraction}, therefore the frame pacing
+ * is not affected by the coarse granularity of <code>Thread.sleep()</code>.
+ * A frame that is already late does not sleep at all.
+ * <p>
+ * 
+ * {@link #sleep()} returns whole milliseconds as required by
+ * {@link BaseTimer}, the sub-millisecond remainder is carried to the next
+ * frame so no time is lost. The exact frame time is available from
+ * {@link #getFrameTime()}, and the frame time distribution of the last frames
+ * from {@link #getFrameTimePercentile(double)}.
+ * <p>
+ * 
+ * To use this timer in a game :
+ * 
+ * <pre>
+ * protected void initEngine() {
+ * 	bsTimer = new NanoTimer();
+ * 	super.initEngine();
+ * }
+ * </pre>
+ * 
+ * See {@link com.golden.gamedev.engine.BaseTimer} for how to use timer engine
+ * separated from Golden T Game Engine (GTGE) Frame Work.
+ */
+public class NanoTimer implements BaseTimer {
+	
+	private static final int SAMPLE_SIZE = 256; // frame time samples
+	
+	/** ************************ TIMER FPS VARIABLES **************************** */
+	
+	// timer variables
+	private int fps = 50; // requested FPS
+	private long frameNanos; // requested frame time
+	
+	private long nextFrame; // when the next frame is due
+	private long lastTime; // time of the last sleep
+	private long carry; // elapsed nanoseconds not returned yet
+	
+	private long spinThreshold = 2000000; // 2 ms
+	
+	/** *************************** FRAME STATISTIC ***************************** */
+	
+	private long frameTime; // last frame time in nanoseconds
+	
+	private final long[] samples = new long[NanoTimer.SAMPLE_SIZE];
+	private final long[] sorted = new long[NanoTimer.SAMPLE_SIZE];
+	private int sampleCount, sampleIndex;
+	
+	/** **************************** OTHER VARIABLES **************************** */
+	
+	private boolean running;
+	private FPSCounter fpsCounter;
+	
+	/** ************************************************************************* */
+	/** ************************** CONSTRUCTOR ********************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Constructs new <code>NanoTimer</code>.
+	 */
+	public NanoTimer() {
+		this.fpsCounter = new FPSCounter();
+	}
+	
+	/** ************************************************************************* */
+	/** ******************** START/STOP TIMER OPERATION ************************* */
+	/** ************************************************************************* */
+	
+	public void startTimer() {
+		if (this.running) {
+			this.stopTimer();
+		}
+		this.running = true;
+		
+		this.frameNanos = 1000000000L / this.fps;
+		this.refresh();
+		
+		this.fpsCounter.refresh();
+	}
+	
+	public void stopTimer() {
+		this.running = false;
+	}
+	
+	/** ************************************************************************* */
+	/** ********************** MAIN FUNCTION: SLEEP() *************************** */
+	/** ************************************************************************* */
+	
+	public long sleep() {
+		long now = System.nanoTime();
+		
+		long remaining = this.nextFrame - now;
+		if (remaining > 0) {
+			// some time left in this cycle
+			// coarse sleep first, Thread.sleep() may oversleep
+			long coarse = (remaining - this.spinThreshold) / 1000000;
+			if (coarse > 0) {
+				try {
+					Thread.sleep(coarse);
+				}
+				catch (InterruptedException e) {
+				}
+			}
+			
+			// spins the rest
+			while ((now = System.nanoTime()) < this.nextFrame) {
+				Thread.yield();
+			}
+		}
+		else {
+			// late, give another thread a chance to run without sleeping
+			Thread.yield();
+			now = System.nanoTime();
+		}
+		
+		// schedules the next frame, a late frame is not caught up
+		this.nextFrame += this.frameNanos;
+		if (this.nextFrame <= now) {
+			this.nextFrame = now + this.frameNanos;
+		}
+		
+		this.frameTime = now - this.lastTime;
+		this.lastTime = now;
+		this.addSample(this.frameTime);
+		
+		this.fpsCounter.calculateFPS();
+		
+		// whole milliseconds, the remainder is carried to the next frame
+		long elapsed = this.frameTime + this.carry;
+		this.carry = elapsed % 1000000;
+		
+		return elapsed / 1000000;
+	}
+	
+	private void addSample(long nanos) {
+		this.samples[this.sampleIndex] = nanos;
+		this.sampleIndex = (this.sampleIndex + 1) % NanoTimer.SAMPLE_SIZE;
+		if (this.sampleCount < NanoTimer.SAMPLE_SIZE) {
+			this.sampleCount++;
+		}
+	}
+	
+	public long getTime() {
+		return System.nanoTime() / 1000000;
+	}
+	
+	public void refresh() {
+		this.lastTime = System.nanoTime();
+		this.nextFrame = this.lastTime + this.frameNanos;
+		this.carry = 0;
+	}
+	
+	/** ************************************************************************* */
+	/** ************************* FRAME STATISTIC ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns the exact time of the last frame in milliseconds.
+	 * @return The last frame time.
+	 */
+	public double getFrameTime() {
+		return this.frameTime / 1000000.0;
+	}
+	
+	/**
+	 * Returns the frame time in milliseconds that specified percentage of the
+	 * last 256 frames do not exceed, for example
+	 * <code>getFrameTimePercentile(99)</code> returns the 99th percentile
+	 * frame time. Returns 0 if no frame has been timed.
+	 * @param percentile The percentile, range from [0 - 100].
+	 * @return The frame time at specified percentile.
+	 */
+	public double getFrameTimePercentile(double percentile) {
+		if (this.sampleCount == 0) {
+			return 0;
+		}
+		
+		System.arraycopy(this.samples, 0, this.sorted, 0, this.sampleCount);
+		Arrays.sort(this.sorted, 0, this.sampleCount);
+		
+		int index = (int) Math.ceil(percentile / 100 * this.sampleCount) - 1;
+		index = Math.min(Math.max(index, 0), this.sampleCount - 1);
+		
+		return this.sorted[index] / 1000000.0;
+	}
+	
+	/**
+	 * Forgets all timed frames.
+	 */
+	public void clearFrameTimes() {
+		this.sampleCount = this.sampleIndex = 0;
+	}
+	
+	/** ************************************************************************* */
+	/** ************************* TIMER PROPERTIES ****************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns how long before the frame is due the timer stops sleeping and
+	 * starts spinning, in nanoseconds.
+	 * @return The spin threshold.
+	 * @see #setSpinThreshold(long)
+	 */
+	public long getSpinThreshold() {
+		return this.spinThreshold;
+	}
+	
+	/**
+	 * Sets how long before the frame is due the timer stops sleeping and
+	 * starts spinning, in nanoseconds, default is 2 ms. Larger threshold
+	 * gives more precise frame pacing but uses more processor time, with 0 only
+	 * the sub-millisecond remainder is spun.
+	 * @param nanos The spin threshold.
+	 */
+	public void setSpinThreshold(long nanos) {
+		this.spinThreshold = Math.max(nanos, 0);
+	}
+	
+	public boolean isRunning() {
+		return this.running;
+	}
+	
+	public int getCurrentFPS() {
+		return this.fpsCounter.getCurrentFPS();
+	}
+	
+	public int getFPS() {
+		return this.fps;
+	}
+	
+	public void setFPS(int fps) {
+		if (this.fps == fps) {
+			return;
+		}
+		this.fps = fps;
+		
+		if (this.running) {
+			this.startTimer();
+		}
+	}
+	
+}
@@ -0,0 +1,637 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.engine.timer;
+
+// JFC
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lightweight profiler that measures how much of every frame goes to each
+ * named section of the game, with <code>System.nanoTime()</code>,
+ * <b>requires Java 5 or later</b>.
+ * <p>
+ * 
+ * The profiler has a fixed pool of sections, a section measures the time
+ * between its {@linkplain #begin(int) begin} and {@linkplain #end(int) end},
+ * summed over every frame. The game loop and the playfield measure the
+ * built-in sections ({@link #UPDATE}, {@link #RENDER}, {@link #FLIP},
+ * {@link #PLAYFIELD_UPDATE}, {@link #PLAYFIELD_RENDER}, {@link #COLLISION},
+ * {@link #BACKGROUND_RENDER}) while the profiler is
+ * {@linkplain #setActive(Profiler) active}. Sections may nest, the time of a
+ * section includes the time of the sections inside it.
+ * <p>
+ * 
+ * To profile a game, and measure its own sections, for example the GUI frame
+ * work :
+ * 
+ * <pre>
+ * game.setProfiler(new Profiler());
+ * ...
+ * int guiUpdate = Profiler.getActive().getSection(&quot;gui update&quot;);
+ * ...
+ * public void update(long elapsedTime) {
+ * 	Profiler.begin(guiUpdate);
+ * 	try {
+ * 		frame.update();
+ * 	}
+ * 	finally {
+ * 		Profiler.end(guiUpdate);
+ * 	}
+ * }
+ * </pre>
+ * 
+ * Every section must be ended in the thread that began it, even when the
+ * measured code throws an exception, otherwise the section keeps running.
+ * 
+ * The profiler is {@linkplain #render(Graphics2D, int, int) rendered} over the
+ * game while the overlay is visible, and the last frames of every section can
+ * be dumped as {@linkplain #dumpCSV(PrintStream) CSV} or
+ * {@linkplain #dumpJSON(PrintStream) JSON} for offline analysis.
+ * <p>
+ * 
+ * Sections can be measured from any thread, every thread keeps its own
+ * running sections and frame times, that are summed on
+ * {@linkplain #endFrame() the end of frame}. A section measured by two threads
+ * at the same time counts the time of both. The frame, query, overlay, and
+ * dump methods must be called by one thread, the game loop thread.
+ * <p>
+ * 
+ * With the {@linkplain com.golden.gamedev.Game#setPipelined(boolean)
+ * pipelined game loop}, the update sections are measured on the update thread
+ * while the frame is rendered, an update may be counted in the next frame.
+ * 
+ * @see com.golden.gamedev.Game#setProfiler(Profiler)
+ */
+public class Profiler {
+	
+	/** Section of the game update. */
+	public static final int UPDATE = 0;
+	
+	/** Section of the game rendering. */
+	public static final int RENDER = 1;
+	
+	/** Section of the graphics engine flip. */
+	public static final int FLIP = 2;
+	
+	/** Section of the playfield update, including collision check. */
+	public static final int PLAYFIELD_UPDATE = 3;
+	
+	/** Section of the playfield rendering, including background rendering. */
+	public static final int PLAYFIELD_RENDER = 4;
+	
+	/** Section of the playfield collision managers check. */
+	public static final int COLLISION = 5;
+	
+	/** Section of the playfield background rendering. */
+	public static final int BACKGROUND_RENDER = 6;
+	
+	private static final String[] SECTION_NAMES = {
+	        "update", "render", "flip", "playfield update", "playfield render",
+	        "collision", "background render"
+	};
+	
+	private static Profiler active;
+	
+	/** ************************** SECTION POOL ********************************* */
+	
+	private final String[] names;
+	private int sectionCount;
+	
+	/** ************************ FRAME MEASUREMENT ****************************** */
+	
+	// the sections measured by the current thread
+	private final ThreadLocal threadSections = new ThreadLocal();
+	private final List threads = new ArrayList(); // all thread sections
+	
+	private final long[] lastTimes; // time of the last frame
+	private final int[] lastCalls;
+	private final long[] totalTimes;
+	private final long[] maxTimes;
+	
+	private final long[][] history; // the last frames, [section][frame]
+	private int frameCount;
+	
+	/** ***************************** OVERLAY *********************************** */
+	
+	private boolean overlayVisible = true;
+	private Font font;
+	
+	/** ************************************************************************* */
+	/** ***************************** CONSTRUCTOR ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Creates new <code>Profiler</code> with specified maximum number of
+	 * sections, including the built-in sections, and specified number of last
+	 * frames kept for the dump.
+	 */
+	public Profiler(int maxSections, int window) {
+		if (maxSections < Profiler.SECTION_NAMES.length) {
+			maxSections = Profiler.SECTION_NAMES.length;
+		}
+		
+		this.names = new String[maxSections];
+		this.lastTimes = new long[maxSections];
+		this.lastCalls = new int[maxSections];
+		this.totalTimes = new long[maxSections];
+		this.maxTimes = new long[maxSections];
+		this.history = new long[maxSections][window];
+		
+		for (int i = 0; i < Profiler.SECTION_NAMES.length; i++) {
+			this.names[i] = Profiler.SECTION_NAMES[i];
+		}
+		this.sectionCount = Profiler.SECTION_NAMES.length;
+	}
+	
+	/**
+	 * Creates new <code>Profiler</code> with 32 sections, that keeps the
+	 * last 600 frames (10 seconds at 60 fps).
+	 */
+	public Profiler() {
+		this(32, 600);
+	}
+	
+	/** ************************************************************************* */
+	/** ************************* ACTIVE PROFILER ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns the profiler that measures the game, or null if the game is not
+	 * profiled.
+	 */
+	public static Profiler getActive() {
+		return Profiler.active;
+	}
+	
+	/**
+	 * Sets the profiler that measures the game, or null to stop profiling.
+	 */
+	public static void setActive(Profiler profiler) {
+		Profiler.active = profiler;
+	}
+	
+	/**
+	 * Marks the start of specified section of the active profiler, does
+	 * nothing if no profiler is active.
+	 */
+	public static void begin(int section) {
+		Profiler p = Profiler.active;
+		if (p != null) {
+			p.beginSection(section);
+		}
+	}
+	
+	/**
+	 * Marks the end of specified section of the active profiler, does nothing
+	 * if no profiler is active.
+	 */
+	public static void end(int section) {
+		Profiler p = Profiler.active;
+		if (p != null) {
+			p.endSection(section);
+		}
+	}
+	
+	/** ************************************************************************* */
+	/** ************************** SECTION POOL ********************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns the section with specified name, the section is added if this
+	 * profiler has no section with that name yet.
+	 * 
+	 * @throws IllegalStateException if all sections of this profiler are used
+	 */
+	public synchronized int getSection(String name) {
+		for (int i = 0; i < this.sectionCount; i++) {
+			if (this.names[i].equals(name)) {
+				return i;
+			}
+		}
+		
+		if (this.sectionCount >= this.names.length) {
+			throw new IllegalStateException("All " + this.names.length
+			        + " profiler sections are used, can't add " + name);
+		}
+		
+		this.names[this.sectionCount] = name;
+		
+		return this.sectionCount++;
+	}
+	
+	/**
+	 * Returns the name of specified section.
+	 */
+	public String getSectionName(int section) {
+		return this.names[section];
+	}
+	
+	/**
+	 * Returns total sections of this profiler.
+	 */
+	public int getSectionCount() {
+		return this.sectionCount;
+	}
+	
+	/** ************************************************************************* */
+	/** ************************ FRAME MEASUREMENT ****************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Marks the start of specified section in the current thread.
+	 */
+	public void beginSection(int section) {
+		ThreadSections s = this.getThreadSections();
+		synchronized (s) {
+			s.frameCalls[section]++;
+			if (s.depths[section]++ == 0) {
+				s.startTimes[section] = System.nanoTime();
+			}
+		}
+	}
+	
+	/**
+	 * Marks the end of specified section in the current thread, and adds its
+	 * time since the section {@linkplain #beginSection(int) beginning} to the
+	 * frame time of the section.
+	 */
+	public void endSection(int section) {
+		ThreadSections s = this.getThreadSections();
+		synchronized (s) {
+			if (s.depths[section] > 0 && --s.depths[section] == 0) {
+				s.frameTimes[section] += System.nanoTime()
+				        - s.startTimes[section];
+			}
+		}
+	}
+	
+	// the sections of the current thread, created on the first use
+	private ThreadSections getThreadSections() {
+		ThreadSections s = (ThreadSections) this.threadSections.get();
+		if (s == null) {
+			s = new ThreadSections(this.names.length);
+			this.threadSections.set(s);
+			
+			synchronized (this.threads) {
+				this.threads.add(s);
+			}
+		}
+		
+		return s;
+	}
+	
+	/**
+	 * Marks the end of a frame, the frame time of every section measured by
+	 * all threads is recorded and cleared for the next frame.
+	 */
+	public void endFrame() {
+		int window = this.history[0].length;
+		int index = (window > 0) ? this.frameCount % window : 0;
+		
+		for (int i = 0; i < this.sectionCount; i++) {
+			this.lastTimes[i] = 0;
+			this.lastCalls[i] = 0;
+		}
+		
+		synchronized (this.threads) {
+			for (int t = this.threads.size() - 1; t >= 0; t--) {
+				ThreadSections s = (ThreadSections) this.threads.get(t);
+				synchronized (s) {
+					for (int i = 0; i < this.sectionCount; i++) {
+						this.lastTimes[i] += s.frameTimes[i];
+						this.lastCalls[i] += s.frameCalls[i];
+						s.frameTimes[i] = 0;
+						s.frameCalls[i] = 0;
+					}
+				}
+				
+				if (!s.thread.isAlive()) {
+					// the thread won't measure anything anymore
+					this.threads.remove(t);
+				}
+			}
+		}
+		
+		for (int i = 0; i < this.sectionCount; i++) {
+			long time = this.lastTimes[i];
+			
+			this.totalTimes[i] += time;
+			if (time > this.maxTimes[i]) {
+				this.maxTimes[i] = time;
+			}
+			if (window > 0) {
+				this.history[i][index] = time;
+			}
+		}
+		
+		this.frameCount++;
+	}
+	
+	/**
+	 * Forgets all recorded frames.
+	 */
+	public void clear() {
+		synchronized (this.threads) {
+			for (int t = 0; t < this.threads.size(); t++) {
+				ThreadSections s = (ThreadSections) this.threads.get(t);
+				synchronized (s) {
+					for (int i = 0; i < this.names.length; i++) {
+						s.frameTimes[i] = 0;
+						s.frameCalls[i] = 0;
+					}
+				}
+			}
+		}
+		
+		for (int i = 0; i < this.names.length; i++) {
+			this.lastTimes[i] = this.totalTimes[i] = this.maxTimes[i] = 0;
+			this.lastCalls[i] = 0;
+		}
+		
+		this.frameCount = 0;
+	}
+	
+	/** ************************************************************************* */
+	/** ************************* PROFILE QUERY ********************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns the time of specified section in the last frame, in nanoseconds.
+	 */
+	public long getTime(int section) {
+		return this.lastTimes[section];
+	}
+	
+	/**
+	 * Returns how many times specified section begun in the last frame.
+	 */
+	public int getCalls(int section) {
+		return this.lastCalls[section];
+	}
+	
+	/**
+	 * Returns the mean time per frame of specified section, in nanoseconds.
+	 */
+	public long getMeanTime(int section) {
+		return (this.frameCount == 0) ? 0 : this.totalTimes[section]
+		        / this.frameCount;
+	}
+	
+	/**
+	 * Returns the longest time of specified section in one frame, in
+	 * nanoseconds.
+	 */
+	public long getMaxTime(int section) {
+		return this.maxTimes[section];
+	}
+	
+	/**
+	 * Returns total recorded frames.
+	 */
+	public int getFrameCount() {
+		return this.frameCount;
+	}
+	
+	/** ************************************************************************* */
+	/** ***************************** OVERLAY *********************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Renders the last frame and mean time of every section to specified
+	 * graphics context, at specified position.
+	 */
+	public void render(Graphics2D g, int x, int y) {
+		if (this.font == null) {
+			this.font = new Font("Monospaced", Font.PLAIN, 11);
+		}
+		
+		int lineHeight = 13;
+		int height = (this.sectionCount + 1) * lineHeight + 6;
+		
+		Composite composite = g.getComposite();
+		g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER,
+		        0.6f));
+		g.setColor(Color.BLACK);
+		g.fillRect(x, y, 300, height);
+		g.setComposite(composite);
+		
+		g.setFont(this.font);
+		g.setColor(Color.WHITE);
+		g.drawString("section            last  mean  (ms)", x + 4, y
+		        + lineHeight);
+		
+		for (int i = 0; i < this.sectionCount; i++) {
+			int ly = y + (i + 2) * lineHeight;
+			
+			// time bar, 10 pixels per millisecond
+			int bar = (int) (this.lastTimes[i] / 100000);
+			g.setColor(Color.GREEN.darker());
+			g.fillRect(x + 4, ly - lineHeight + 4, (bar < 292) ? bar : 292,
+			        lineHeight - 2);
+			
+			g.setColor(Color.WHITE);
+			g.drawString(this.names[i], x + 4, ly);
+			g.drawString(Profiler.format(this.lastTimes[i]), x + 130, ly);
+			g.drawString(Profiler.format(this.getMeanTime(i)), x + 172, ly);
+		}
+	}
+	
+	/**
+	 * Sets whether the game renders this profiler over the game, visible by
+	 * default.
+	 */
+	public void setOverlayVisible(boolean visible) {
+		this.overlayVisible = visible;
+	}
+	
+	/**
+	 * Returns whether the game renders this profiler over the game.
+	 */
+	public boolean isOverlayVisible() {
+		return this.overlayVisible;
+	}
+	
+	/** ************************************************************************* */
+	/** ****************************** DUMP ************************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Prints how many times every section begun in the last frame, and its
+	 * mean and max time in milliseconds to specified stream, one line per
+	 * section.
+	 */
+	public void dump(PrintStream out) {
+		out.println("section  calls  mean  max (ms)");
+		for (int i = 0; i < this.sectionCount; i++) {
+			out.println(this.names[i] + "  " + this.lastCalls[i] + "  "
+			        + Profiler.format(this.getMeanTime(i)) + "  "
+			        + Profiler.format(this.maxTimes[i]));
+		}
+	}
+	
+	/**
+	 * Prints the last frames as comma separated values to specified stream,
+	 * one row per frame with the time of every section in milliseconds,
+	 * preceded by a header row of the section names.
+	 */
+	public void dumpCSV(PrintStream out) {
+		StringBuffer line = new StringBuffer("frame");
+		for (int i = 0; i < this.sectionCount; i++) {
+			line.append(',').append(Profiler.quoteCSV(this.names[i]));
+		}
+		out.println(line);
+		
+		int first = this.getFirstFrame();
+		for (int frame = first; frame < this.frameCount; frame++) {
+			line.setLength(0);
+			line.append(frame);
+			for (int i = 0; i < this.sectionCount; i++) {
+				line.append(',').append(
+				        Profiler.format(this.getHistory(i, frame)));
+			}
+			out.println(line);
+		}
+	}
+	
+	/**
+	 * Prints the statistics and the last frames of every section as a JSON
+	 * object to specified stream, times are in milliseconds.
+	 */
+	public void dumpJSON(PrintStream out) {
+		int first = this.getFirstFrame();
+		
+		out.println("{");
+		out.println("  \"frames\": " + this.frameCount + ",");
+		out.println("  \"firstFrame\": " + first + ",");
+		out.println("  \"sections\": [");
+		
+		StringBuffer line = new StringBuffer();
+		for (int i = 0; i < this.sectionCount; i++) {
+			line.setLength(0);
+			line.append("    {\"name\": ").append(
+			        Profiler.quoteJSON(this.names[i]));
+			line.append(", \"mean\": ").append(
+			        Profiler.format(this.getMeanTime(i)));
+			line.append(", \"max\": ").append(
+			        Profiler.format(this.maxTimes[i]));
+			line.append(", \"times\": [");
+			for (int frame = first; frame < this.frameCount; frame++) {
+				if (frame > first) {
+					line.append(", ");
+				}
+				line.append(Profiler.format(this.getHistory(i, frame)));
+			}
+			line.append("]}");
+			if (i < this.sectionCount - 1) {
+				line.append(',');
+			}
+			out.println(line);
+		}
+		
+		out.println("  ]");
+		out.println("}");
+	}
+	
+	// the first frame still kept in the history
+	private int getFirstFrame() {
+		int window = this.history[0].length;
+		
+		return (this.frameCount > window) ? this.frameCount - window : 0;
+	}
+	
+	// the time of specified section in specified frame of the history
+	private long getHistory(int section, int frame) {
+		return this.history[section][frame % this.history[section].length];
+	}
+	
+	// nanoseconds to milliseconds with 3 decimals
+	private static String format(long nanos) {
+		return String.valueOf(Math.round(nanos / 1000.0) / 1000.0);
+	}
+	
+	private static String quoteCSV(String s) {
+		if (s.indexOf(',') == -1 && s.indexOf('"') == -1) {
+			return s;
+		}
+		
+		StringBuffer buff = new StringBuffer("\"");
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '"') {
+				buff.append('"');
+			}
+			buff.append(c);
+		}
+		
+		return buff.append('"').toString();
+	}
+	
+	private static String quoteJSON(String s) {
+		StringBuffer buff = new StringBuffer("\"");
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '"' || c == '\\') {
+				buff.append('\\').append(c);
+			}
+			else if (c < 0x20) {
+				String hex = Integer.toHexString(c);
+				buff.append("\\u0000".substring(0, 6 - hex.length())).append(
+				        hex);
+			}
+			else {
+				buff.append(c);
+			}
+		}
+		
+		return buff.append('"').toString();
+	}
+	
+	public String toString() {
+		return super.toString() + " " + "[sections=" + this.sectionCount
+		        + ", frames=" + this.frameCount + "]";
+	}
+	
+	/**
+	 * The sections measured by one thread, guarded by itself.
+	 */
+	private static final class ThreadSections {
+		
+		private final Thread thread = Thread.currentThread();
+		
+		private final long[] startTimes; // start of the outermost section
+		private final int[] depths; // nested running sections
+		
+		private final long[] frameTimes; // time of the running frame
+		private final int[] frameCalls;
+		
+		private ThreadSections(int maxSections) {
+			this.startTimes = new long[maxSections];
+			this.depths = new int[maxSections];
+			this.frameTimes = new long[maxSections];
+			this.frameCalls = new int[maxSections];
+		}
+		
+	}
+	
+}
@@ -52,6 +52,8 @@ public class AdvanceSpriteGroup extends SpriteGroup {
 	
 	private Insets offset;
 	
+	private Sprite[] onScreen = new Sprite[0]; // reused scanning result
+	
 	/** ************************************************************************* */
 	/** ***************************** CONSTRUCTOR ******************************* */
 	/** ************************************************************************* */
@@ -95,19 +97,13 @@ public class AdvanceSpriteGroup extends SpriteGroup {
 	/** ************************************************************************* */
 	
 	public void update(long elapsedTime) {
-		// clear previous on screen sprites
-		this.ONSCREEN_GROUP.clear();
-		
-		// scanning on screen sprites
-		Sprite[] s = this.getGroupSprites();
-		int size = this.getGroupSize();
-		
-		for (int i = 0; i < size; i++) {
-			if (s[i].isActive()
-			        && s[i].isOnScreen(this.offset.left, this.offset.top,
-			                this.offset.right, this.offset.bottom)) {
-				this.ONSCREEN_GROUP.add(s[i]);
-			}
+		if (this.isCulled()) {
+			// the playfield has culled this group on the last rendering
+			this.ONSCREEN_GROUP.setSprites(this.getVisibleSprites(), this
+			        .getVisibleSize());
+		}
+		else {
+			this.scanOnScreenSprites();
 		}
 		
 		// update only on screen sprites
@@ -146,6 +142,51 @@ public class AdvanceSpriteGroup extends SpriteGroup {
 		this.ONSCREEN_GROUP.setComparator(c);
 	}
 	
+	public void setParallelUpdater(ParallelUpdater updater) {
+		super.setParallelUpdater(updater);
+		
+		this.ONSCREEN_GROUP.setParallelUpdater(updater);
+	}
+	
+	/**
+	 * Collects all active sprites that visible on screen within this group
+	 * {@linkplain #getScreenOffset() screen offset}, the collected sprites are
+	 * updated on the next update.
+	 * 
+	 * @see PlayField#setCulling(boolean)
+	 */
+	public void cull() {
+		this.cull(this.offset.left, this.offset.top, this.offset.right,
+		        this.offset.bottom);
+	}
+	
+	// replaces the on screen sprites, used when this group is not culled by
+	// its playfield
+	private void scanOnScreenSprites() {
+		Sprite[] s = this.getGroupSprites();
+		int size = this.getGroupSize();
+		
+		if (this.onScreen.length < size) {
+			this.onScreen = new Sprite[s.length];
+		}
+		
+		int num = 0;
+		for (int i = 0; i < size; i++) {
+			if (s[i].isActive()
+			        && s[i].isOnScreen(this.offset.left, this.offset.top,
+			                this.offset.right, this.offset.bottom)) {
+				this.onScreen[num++] = s[i];
+			}
+		}
+		
+		this.ONSCREEN_GROUP.setSprites(this.onScreen, num);
+		
+		// let gc do its work
+		for (int i = 0; i < num; i++) {
+			this.onScreen[i] = null;
+		}
+	}
+	
 	/**
 	 * Returns screen offset of this group. Sprites that outside of screen
 	 * bounds that still in this offset still categorized as on screen sprites.
@@ -79,6 +79,10 @@ public class AnimatedSprite extends Sprite {
 	
 	private Timer animationTimer;
 	
+	// the wheel that drives animation timer, null = polled every update
+	private transient TimerWheel timerWheel;
+	private transient TimerListener animationListener;
+	
 	/** ************************************************************************* */
 	/** ***************************** CONSTRUCTOR ******************************* */
 	/** ************************************************************************* */
@@ -165,6 +169,7 @@ public class AnimatedSprite extends Sprite {
 		// reset frame
 		this.frame = 0;
 		this.startFrame = 0;
+		this.stateChanged();
 		this.animationTimer.refresh();
 		
 		if (image == null || image[0] == null) {
@@ -229,6 +234,8 @@ public class AnimatedSprite extends Sprite {
 		else if (this.frame < this.startFrame) {
 			this.frame = this.finishFrame;
 		}
+		
+		this.stateChanged();
 	}
 	
 	/**
@@ -272,6 +279,7 @@ public class AnimatedSprite extends Sprite {
 		this.finishFrame = finish;
 		
 		this.frame = this.startFrame;
+		this.stateChanged();
 	}
 	
 	/**
@@ -299,6 +307,16 @@ public class AnimatedSprite extends Sprite {
 	public void update(long elapsedTime) {
 		super.update(elapsedTime);
 		
+		if (this.timerWheel != null) {
+			if (this.animationTimer.getTimerWheel() == null) {
+				// the sprite has been revived, register back to the wheel
+				this.timerWheel.schedule(this.animationTimer,
+				        this.animationListener);
+			}
+			
+			return;
+		}
+		
 		if (this.animate && this.animationTimer.action(elapsedTime)) {
 			this.updateAnimation();
 		}
@@ -322,6 +340,8 @@ public class AnimatedSprite extends Sprite {
 				this.animate = false;
 			}
 		}
+		
+		this.stateChanged();
 	}
 	
 	/** ************************************************************************* */
@@ -348,6 +368,7 @@ public class AnimatedSprite extends Sprite {
 	 */
 	public void setAnimate(boolean b) {
 		this.animate = b;
+		this.stateChanged();
 	}
 	
 	/**
@@ -362,12 +383,32 @@ public class AnimatedSprite extends Sprite {
 	 */
 	public void setLoopAnim(boolean b) {
 		this.loopAnim = b;
+		this.stateChanged();
+	}
+	
+	/**
+	 * Returns the hash of this sprite simulation state, including the
+	 * animation frame and animation state.
+	 */
+	public long getStateHash() {
+		long h = super.getStateHash();
+		h = 31 * h + this.frame;
+		h = 31 * h + this.startFrame;
+		h = 31 * h + this.finishFrame;
+		h = 31 * h + ((this.animate) ? 1 : 0) + ((this.loopAnim) ? 2 : 0);
+		
+		return h;
 	}
 	
 	/**
 	 * Sets sprite animation timer.
 	 */
 	public void setAnimationTimer(Timer t) {
+		if (this.timerWheel != null) {
+			this.timerWheel.cancel(this.animationTimer);
+			this.timerWheel.schedule(t, this.animationListener);
+		}
+		
 		this.animationTimer = t;
 	}
 	
@@ -378,4 +419,71 @@ public class AnimatedSprite extends Sprite {
 		return this.animationTimer;
 	}
 	
+	/**
+	 * Sets the timer wheel that drives this sprite animation timer, or null to
+	 * poll the animation timer on every update (the default).
+	 * <p>
+	 * 
+	 * When the sprite animation is driven by a timer wheel, the animation
+	 * timer is not polled anymore on every sprite update, the animation frame
+	 * is changed by the wheel only when the timer fires. The timer is
+	 * unregistered from the wheel once this sprite is inactive or removed from
+	 * its group, and registered back on the next update after the sprite is
+	 * active again.
+	 * 
+	 * @see TimerWheel
+	 * @see PlayField#setTimerWheel(TimerWheel)
+	 */
+	public void setTimerWheel(TimerWheel wheel) {
+		if (this.timerWheel != null) {
+			this.timerWheel.cancel(this.animationTimer);
+		}
+		
+		this.timerWheel = wheel;
+		
+		if (wheel != null) {
+			if (this.animationListener == null) {
+				this.animationListener = new TimerListener() {
+					
+					public void timerFired(Timer timer) {
+						AnimatedSprite.this.animationTimerFired(timer);
+					}
+				};
+			}
+			
+			wheel.schedule(this.animationTimer, this.animationListener);
+		}
+	}
+	
+	/**
+	 * Returns the timer wheel that drives this sprite animation timer, or null
+	 * if the animation timer is polled on every update.
+	 * 
+	 * @see #setTimerWheel(TimerWheel)
+	 */
+	public TimerWheel getTimerWheel() {
+		return this.timerWheel;
+	}
+	
+	void detach() {
+		// the wheel must not keep a removed sprite alive, the timer is
+		// registered back on the next update if the sprite is used again
+		TimerWheel wheel = this.animationTimer.getTimerWheel();
+		if (wheel != null) {
+			wheel.cancel(this.animationTimer);
+		}
+	}
+	
+	private void animationTimerFired(Timer timer) {
+		if (!this.isActive()) {
+			// dead sprite, let the wheel forget this sprite
+			timer.getTimerWheel().cancel(timer);
+			return;
+		}
+		
+		if (this.animate) {
+			this.updateAnimation();
+		}
+	}
+	
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.object;
+
+// JFC
+import java.awt.image.BufferedImage;
+
+/**
+ * Immutable animation sequence that can be shared by any number of sprites.
+ * <p>
+ * 
+ * Unlike {@link AnimatedSprite} that keeps its own frame counter and timer,
+ * an animation clip has no state, the frame to be shown is computed from a
+ * time value, usually the time of an {@link AnimationClock}. Thousands of
+ * decorative sprites (coins, torches, water tiles) can share one clip, each
+ * with its own phase offset, without any per-sprite animation update.
+ * 
+ * @see AnimationClock
+ * @see com.golden.gamedev.object.sprite.ClipSprite
+ */
+public class AnimationClip {
+	
+	/** *************************** CLIP VARIABLES ****************************** */
+	
+	private final BufferedImage[] images;
+	private final long frameDelay; // time per frame in milliseconds
+	private final boolean loop;
+	
+	private final long duration; // total time of one animation cycle
+	
+	/** ************************************************************************* */
+	/** ***************************** CONSTRUCTOR ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Creates new <code>AnimationClip</code> with specified images, delay
+	 * per frame in milliseconds, and looping state.
+	 * 
+	 * @param images the animation images
+	 * @param frameDelay time each frame shown in milliseconds
+	 * @param loop true, the animation is looping continously, false, the
+	 *        animation stops at the last frame
+	 */
+	public AnimationClip(BufferedImage[] images, long frameDelay, boolean loop) {
+		if (images == null || images.length == 0) {
+			throw new IllegalArgumentException(
+			        "Animation clip need at least one image");
+		}
+		
+		this.images = images;
+		this.frameDelay = Math.max(1, frameDelay);
+		this.loop = loop;
+		
+		this.duration = this.frameDelay * images.length;
+	}
+	
+	/**
+	 * Creates new looping <code>AnimationClip</code> with specified images
+	 * and 60 ms delay per frame (the same as animated sprite default delay).
+	 */
+	public AnimationClip(BufferedImage[] images) {
+		this(images, 60, true);
+	}
+	
+	/** ************************************************************************* */
+	/** *************************** CLIP FRAME ********************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns the frame index shown at specified time.
+	 * 
+	 * @param time the clip time in milliseconds, started from 0
+	 */
+	public int getFrame(long time) {
+		if (time <= 0) {
+			return 0;
+		}
+		
+		if (time >= this.duration) {
+			if (!this.loop) {
+				// stop at the last frame
+				return this.images.length - 1;
+			}
+			
+			time %= this.duration;
+		}
+		
+		return (int) (time / this.frameDelay);
+	}
+	
+	/**
+	 * Returns the image shown at specified time.
+	 * 
+	 * @param time the clip time in milliseconds, started from 0
+	 */
+	public BufferedImage getImage(long time) {
+		return this.images[this.getFrame(time)];
+	}
+	
+	/**
+	 * Returns true, if the non-looping animation has finished at specified
+	 * time, looping animation never finished.
+	 */
+	public boolean isFinished(long time) {
+		return !this.loop && time >= this.duration;
+	}
+	
+	/** ************************************************************************* */
+	/** ************************** CLIP PROPERTIES ****************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns the animation images of this clip.
+	 */
+	public BufferedImage[] getImages() {
+		return this.images;
+	}
+	
+	/**
+	 * Returns time each frame shown in milliseconds.
+	 */
+	public long getFrameDelay() {
+		return this.frameDelay;
+	}
+	
+	/**
+	 * Returns whether this clip is looping continously or not.
+	 */
+	public boolean isLoop() {
+		return this.loop;
+	}
+	
+	/**
+	 * Returns total time of one animation cycle in milliseconds.
+	 */
+	public long getDuration() {
+		return this.duration;
+	}
+	
+	/**
+	 * Returns the width of the first image of this clip.
+	 */
+	public int getWidth() {
+		return this.images[0].getWidth();
+	}
+	
+	/**
+	 * Returns the height of the first image of this clip.
+	 */
+	public int getHeight() {
+		return this.images[0].getHeight();
+	}
+	
+	public String toString() {
+		return super.toString() + " " + "[frames=" + this.images.length
+		        + ", delay=" + this.frameDelay + ", loop=" + this.loop + "]";
+	}
+	
+}
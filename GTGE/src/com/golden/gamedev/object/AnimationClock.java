@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.object;
+
+/**
+ * Clock shared by many {@linkplain AnimationClip animation clips} users, the
+ * current animation frame is computed from this clock time instead of being
+ * advanced by every sprite.
+ * <p>
+ * 
+ * The {@linkplain #getDefaultClock() default clock} is advanced automatically
+ * by the game loop, a game that needs to pause its decorative animations can
+ * use its own clock and update it manually.
+ * 
+ * @see AnimationClip
+ * @see com.golden.gamedev.object.sprite.ClipSprite
+ */
+public class AnimationClock {
+	
+	/** ************************** CLOCK VARIABLES ****************************** */
+	
+	private long time; // total elapsed time in milliseconds
+	private boolean active = true;
+	
+	/** ************************************************************************* */
+	/** *************************** SINGLETON *********************************** */
+	/** ************************************************************************* */
+	
+	private static AnimationClock clock;
+	
+	/**
+	 * Returns the default clock, the clock that advanced by the game loop and
+	 * used by every newly created clip sprite.
+	 */
+	public static AnimationClock getDefaultClock() {
+		if (AnimationClock.clock == null) {
+			AnimationClock.clock = new AnimationClock();
+		}
+		
+		return AnimationClock.clock;
+	}
+	
+	/** ************************************************************************* */
+	/** ***************************** CONSTRUCTOR ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Creates new <code>AnimationClock</code> started at time 0.
+	 */
+	public AnimationClock() {
+	}
+	
+	/** ************************************************************************* */
+	/** **************************** UPDATE CLOCK ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Advances this clock time, inactive clock is not advanced.
+	 * 
+	 * @param elapsedTime time elapsed since last update
+	 */
+	public void update(long elapsedTime) {
+		if (this.active) {
+			this.time += elapsedTime;
+		}
+	}
+	
+	/**
+	 * Returns this clock time, the total elapsed time in milliseconds.
+	 */
+	public long getTime() {
+		return this.time;
+	}
+	
+	/**
+	 * Sets this clock time in milliseconds.
+	 */
+	public void setTime(long time) {
+		this.time = time;
+	}
+	
+	/**
+	 * Returns active state of this clock, inactive clock is not advanced
+	 * (all animations that use this clock are paused).
+	 */
+	public boolean isActive() {
+		return this.active;
+	}
+	
+	/**
+	 * Sets active state of this clock, inactive clock is not advanced (all
+	 * animations that use this clock are paused).
+	 */
+	public void setActive(boolean b) {
+		this.active = b;
+	}
+	
+	public String toString() {
+		return super.toString() + " " + "[time=" + this.time + ", active="
+		        + this.active + "]";
+	}
+	
+}
@@ -79,6 +79,10 @@ public class Background implements Serializable {
 	protected double y;
 	
 	private int width, height; // dimension
+	
+	// the position at the start of the current update step
+	private double previousX, previousY;
+	private double interpolation = 1;
 	        
 	private final Rectangle clip; // view port (screen clipping)
 	
@@ -205,6 +209,70 @@ public class Background implements Serializable {
 		this.y = yb;
 	}
 	
+	/**
+	 * Stores current location as the previous location of this background,
+	 * the location that rendering is interpolated from.
+	 * 
+	 * @see #setInterpolation(double)
+	 */
+	public void storePreviousPosition() {
+		this.previousX = this.x;
+		this.previousY = this.y;
+	}
+	
+	/**
+	 * Returns the <code>x</code> coordinate this background is rendered
+	 * from, the location between the previous and current location by this
+	 * background interpolation.
+	 */
+	public double getRenderX() {
+		if (this.interpolation >= 1) {
+			return this.x;
+		}
+		
+		return this.previousX + (this.x - this.previousX) * this.interpolation;
+	}
+	
+	/**
+	 * Returns the <code>y</code> coordinate this background is rendered
+	 * from, the location between the previous and current location by this
+	 * background interpolation.
+	 */
+	public double getRenderY() {
+		if (this.interpolation >= 1) {
+			return this.y;
+		}
+		
+		return this.previousY + (this.y - this.previousY) * this.interpolation;
+	}
+	
+	/**
+	 * Returns the render interpolation of this background and all sprites on
+	 * it, range from [0 - 1], 1 means rendered at the current position.
+	 * 
+	 * @see #setInterpolation(double)
+	 */
+	public double getInterpolation() {
+		return this.interpolation;
+	}
+	
+	/**
+	 * Sets the render interpolation of this background and all sprites on it,
+	 * range from [0 - 1], where 0 means rendered at the previous stored
+	 * position and 1 (the default) means rendered at the current position.
+	 * <p>
+	 * 
+	 * The interpolation is set by
+	 * {@linkplain PlayField#render(Graphics2D, double) interpolated playfield
+	 * rendering}, during fixed timestep game loop, so the movement stays
+	 * smooth when the game is rendered faster than it is updated.
+	 * 
+	 * @see Sprite#getRenderX()
+	 */
+	public void setInterpolation(double alpha) {
+		this.interpolation = alpha;
+	}
+	
 	/**
 	 * Moves background location by specified pixels.
 	 */
@@ -291,7 +359,8 @@ public class Background implements Serializable {
 	 * @param g graphics context
 	 */
 	public void render(Graphics2D g) {
-		this.render(g, (int) this.x, (int) this.y, this.clip.x, this.clip.y,
+		this.render(g, (int) this.getRenderX(), (int) this.getRenderY(),
+		        this.clip.x, this.clip.y,
 		        (this.width < this.clip.width) ? this.width : this.clip.width,
 		        (this.height < this.clip.height) ? this.height
 		                : this.clip.height);
@@ -48,6 +48,8 @@ public abstract class CollisionManager {
 	
 	private boolean active = true;
 	
+	private boolean visibleOnly; // check culled visible sprites only
+	
 	/** ************************************************************************* */
 	/** ***************************** CONSTRUCTOR ******************************* */
 	/** ************************************************************************* */
@@ -122,6 +124,55 @@ public abstract class CollisionManager {
 		this.active = b;
 	}
 	
+	/** ************************************************************************* */
+	/** ************************ VISIBLE SPRITES ONLY *************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns true, if this collision manager only checks the visible sprites
+	 * of {@linkplain SpriteGroup#isCulled() culled groups}.
+	 * 
+	 * @see #setVisibleOnly(boolean)
+	 */
+	public boolean isVisibleOnly() {
+		return this.visibleOnly;
+	}
+	
+	/**
+	 * Sets whether this collision manager only checks the visible sprites of
+	 * {@linkplain SpriteGroup#isCulled() culled groups}, sprites outside the
+	 * view area are skipped from collision check. Group that is not culled is
+	 * always checked entirely.
+	 * 
+	 * @see SpriteGroup#cull()
+	 * @see PlayField#setCulling(boolean)
+	 */
+	public void setVisibleOnly(boolean b) {
+		this.visibleOnly = b;
+	}
+	
+	/**
+	 * Returns the sprites of specified group to be checked for collision,
+	 * that is the group visible sprites if this manager
+	 * {@linkplain #isVisibleOnly() checks visible sprites only} and the group
+	 * is culled, or all of the group sprites otherwise.
+	 * 
+	 * @see #getCheckedSize(SpriteGroup)
+	 */
+	protected Sprite[] getCheckedSprites(SpriteGroup group) {
+		return (this.visibleOnly && group.isCulled()) ? group
+		        .getVisibleSprites() : group.getSprites();
+	}
+	
+	/**
+	 * Returns total non-null sprites returned by
+	 * {@link #getCheckedSprites(SpriteGroup)}.
+	 */
+	protected int getCheckedSize(SpriteGroup group) {
+		return (this.visibleOnly && group.isCulled()) ? group
+		        .getVisibleSize() : group.getSize();
+	}
+	
 	// ////////// optimization ///////////
 	private final static CollisionRect iRect = new CollisionRect();
 	
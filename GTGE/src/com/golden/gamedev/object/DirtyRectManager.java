@@ -0,0 +1,431 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.object;
+
+// JFC
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+import com.golden.gamedev.util.ImageUtil;
+import com.golden.gamedev.util.IntList;
+
+/**
+ * Tracks the screen regions of a {@link PlayField} that changed since the
+ * previous frame, for mostly static scenes where only a few sprites move (puzzle
+ * or board games).
+ * <p>
+ * 
+ * The playfield scene is kept in an image cache. On every render the
+ * manager compares each on-screen sprite bounds and image with the ones
+ * rendered in the previous frame, and only the old and new bounds of the
+ * changed sprites (and the sprites that disappeared) are repainted into the
+ * cache: the background and every sprite intersecting the region. The cache is
+ * then drawn to the screen with a single image blit.
+ * <p>
+ * 
+ * The whole scene is repainted when the background is scrolled, replaced, or
+ * the view area is resized, when the playfield comparator changed, and when
+ * the changed regions cover more than the
+ * {@linkplain #setFullRedrawRatio(double) full redraw ratio} of the view.
+ * <p>
+ * 
+ * Only changes of sprite position, size, and image are detected. A sprite
+ * that is drawn differently without changing its image (for example, a
+ * rotated sprite), or an animated background, must report the change by
+ * {@linkplain #markDirty(int, int, int, int) marking its screen region} or by
+ * {@linkplain #invalidate() invalidating} the whole scene. Sprites are drawn by
+ * {@link Sprite#render(Graphics2D)} in the playfield or group comparator
+ * order, an overridden {@link SpriteGroup#render(Graphics2D)} is not called,
+ * therefore custom sprite group rendering is not supported. Sprites that are
+ * only reordered by a comparator are not detected either.
+ * <p>
+ * 
+ * For example :
+ * 
+ * <pre>
+ * PlayField playfield = new PlayField(board);
+ * playfield.setDirtyRectManager(new DirtyRectManager());
+ * </pre>
+ * 
+ * @see PlayField#setDirtyRectManager(DirtyRectManager)
+ */
+public class DirtyRectManager {
+	
+	/** ************************** SCENE CACHE ********************************* */
+	
+	private BufferedImage cache;
+	private boolean invalid = true;
+	
+	// the state the cache was rendered with
+	private Background lastBackground;
+	private double lastX, lastY;
+	private final Rectangle lastClip = new Rectangle();
+	
+	/** *********************** RENDERED SPRITE BOUNDS ************************** */
+	
+	// indexed by sprite registry slot
+	private int[] handles = new int[0];
+	private int[] bounds = new int[0]; // x, y, width, height per slot
+	private Object[] images = new Object[0];
+	private int[] stamps = new int[0]; // the last frame the slot is rendered
+	private int frame;
+	
+	/** ************************** DIRTY REGIONS ******************************** */
+	
+	private final IntList regions = new IntList(64); // x, y, width, height
+	private final IntList marked = new IntList(16); // marked by the game
+	private boolean fullRedraw;
+	
+	private int maxRegions = 16;
+	private double fullRedrawRatio = 0.5;
+	
+	/** ************************************************************************* */
+	/** ***************************** CONSTRUCTOR ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Creates new <code>DirtyRectManager</code>, the first frame is always
+	 * fully rendered.
+	 */
+	public DirtyRectManager() {
+	}
+	
+	/** ************************************************************************* */
+	/** ************************** DIRTY OPERATION ****************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Forces the whole scene to be repainted on the next render.
+	 */
+	public void invalidate() {
+		this.invalid = true;
+	}
+	
+	/**
+	 * Marks specified screen region to be repainted on the next render, used
+	 * for changes that can not be detected from the sprite bounds and images.
+	 */
+	public void markDirty(int x, int y, int width, int height) {
+		// clipped to the view area when the frame is started
+		this.marked.add(x);
+		this.marked.add(y);
+		this.marked.add(width);
+		this.marked.add(height);
+	}
+	
+	/**
+	 * Starts new frame, returns true if the whole scene must be repainted.
+	 */
+	boolean begin(Background background) {
+		Rectangle clip = background.getClip();
+		this.regions.clear();
+		
+		if (this.cache == null || this.cache.getWidth() != clip.width
+		        || this.cache.getHeight() != clip.height) {
+			if (this.cache != null) {
+				this.cache.flush();
+			}
+			this.cache = this.createCache(Math.max(1, clip.width), Math.max(1,
+			        clip.height));
+			this.invalid = true;
+		}
+		
+		if (this.invalid || this.lastBackground != background
+		        || this.lastX != background.getRenderX()
+		        || this.lastY != background.getRenderY()
+		        || !this.lastClip.equals(clip)) {
+			this.fullRedraw = true;
+			
+			this.lastBackground = background;
+			this.lastX = background.getRenderX();
+			this.lastY = background.getRenderY();
+			this.lastClip.setBounds(clip);
+		}
+		else {
+			this.fullRedraw = false;
+			
+			// the regions marked since the previous frame
+			for (int i = 0; i < this.marked.size(); i += 4) {
+				this.add(this.marked.get(i), this.marked.get(i + 1),
+				        this.marked.get(i + 2), this.marked.get(i + 3));
+			}
+		}
+		
+		this.marked.clear();
+		this.invalid = false;
+		this.frame++;
+		
+		return this.fullRedraw;
+	}
+	
+	/**
+	 * Records a sprite rendered at specified screen position in current frame,
+	 * the old and new bounds of the sprite are marked dirty if the sprite is
+	 * moved, resized, or has different image.
+	 */
+	void track(Sprite s, int x, int y) {
+		int handle = s.getHandle();
+		if (handle == SpriteRegistry.NULL_HANDLE) {
+			// sprite without handle can not be tracked
+			this.invalid = true;
+			return;
+		}
+		
+		int slot = SpriteRegistry.getIndex(handle);
+		if (slot >= this.handles.length) {
+			this.ensureCapacity(slot + 1);
+		}
+		
+		int w = s.getWidth(), h = s.getHeight();
+		Object image = s.getImage();
+		
+		int i = slot * 4;
+		if (this.handles[slot] != handle || this.bounds[i] != x || this.bounds[i + 1] != y
+		        || this.bounds[i + 2] != w || this.bounds[i + 3] != h
+		        || this.images[slot] != image) {
+			if (!this.fullRedraw) {
+				if (this.handles[slot] != SpriteRegistry.NULL_HANDLE) {
+					// the previously rendered sprite of this slot
+					this.add(this.bounds[i], this.bounds[i + 1],
+					        this.bounds[i + 2], this.bounds[i + 3]);
+				}
+				this.add(x, y, w, h);
+			}
+			
+			this.handles[slot] = handle;
+			this.bounds[i] = x;
+			this.bounds[i + 1] = y;
+			this.bounds[i + 2] = w;
+			this.bounds[i + 3] = h;
+			this.images[slot] = image;
+		}
+		
+		this.stamps[slot] = this.frame;
+	}
+	
+	/**
+	 * Ends sprites tracking of current frame, the sprites rendered in the
+	 * previous frame but not in this frame are marked dirty. Returns true if
+	 * the whole scene must be repainted.
+	 */
+	boolean end() {
+		for (int slot = 0; slot < this.handles.length; slot++) {
+			if (this.handles[slot] != SpriteRegistry.NULL_HANDLE
+			        && this.stamps[slot] != this.frame) {
+				if (!this.fullRedraw) {
+					// removed, inactive, or moved off screen
+					int i = slot * 4;
+					this.add(this.bounds[i], this.bounds[i + 1],
+					        this.bounds[i + 2], this.bounds[i + 3]);
+				}
+				
+				this.handles[slot] = SpriteRegistry.NULL_HANDLE;
+				this.images[slot] = null;
+			}
+		}
+		
+		if (this.invalid) {
+			// untracked sprite found
+			this.fullRedraw = true;
+			this.invalid = false;
+		}
+		
+		if (!this.fullRedraw) {
+			long area = 0;
+			for (int i = 0; i < this.regions.size(); i += 4) {
+				area += (long) this.regions.get(i + 2)
+				        * this.regions.get(i + 3);
+			}
+			
+			if (area > this.fullRedrawRatio * this.lastClip.width
+			        * this.lastClip.height) {
+				this.fullRedraw = true;
+			}
+		}
+		
+		if (this.fullRedraw) {
+			this.regions.clear();
+		}
+		
+		return this.fullRedraw;
+	}
+	
+	// adds a region clipped to the view area, merged with overlapped region
+	private void add(int x, int y, int w, int h) {
+		Rectangle clip = this.lastClip;
+		
+		int x2 = Math.min(x + w, clip.x + clip.width);
+		int y2 = Math.min(y + h, clip.y + clip.height);
+		x = Math.max(x, clip.x);
+		y = Math.max(y, clip.y);
+		if (x >= x2 || y >= y2) {
+			// outside the view area
+			return;
+		}
+		
+		int[] r = this.regions.getElements();
+		int num = this.regions.size();
+		for (int i = 0; i < num; i += 4) {
+			if ((x <= r[i] + r[i + 2] && r[i] <= x2
+			        && y <= r[i + 1] + r[i + 3] && r[i + 1] <= y2)
+			        || i == (this.maxRegions - 1) * 4) {
+				// overlapped, or too many regions, grow the existing region
+				int ux2 = Math.max(x2, r[i] + r[i + 2]);
+				int uy2 = Math.max(y2, r[i + 1] + r[i + 3]);
+				r[i] = Math.min(x, r[i]);
+				r[i + 1] = Math.min(y, r[i + 1]);
+				r[i + 2] = ux2 - r[i];
+				r[i + 3] = uy2 - r[i + 1];
+				return;
+			}
+		}
+		
+		this.regions.add(x);
+		this.regions.add(y);
+		this.regions.add(x2 - x);
+		this.regions.add(y2 - y);
+	}
+	
+	private void ensureCapacity(int slots) {
+		int len = Math.max(slots, this.handles.length * 2);
+		
+		int[] dest = new int[len];
+		System.arraycopy(this.handles, 0, dest, 0, this.handles.length);
+		this.handles = dest;
+		
+		dest = new int[len];
+		System.arraycopy(this.stamps, 0, dest, 0, this.stamps.length);
+		this.stamps = dest;
+		
+		dest = new int[len * 4];
+		System.arraycopy(this.bounds, 0, dest, 0, this.bounds.length);
+		this.bounds = dest;
+		
+		Object[] img = new Object[len];
+		System.arraycopy(this.images, 0, img, 0, this.images.length);
+		this.images = img;
+	}
+	
+	/** ************************************************************************* */
+	/** *************************** SCENE CACHE ********************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Creates the scene cache image as large as the view area, by default
+	 * creates opaque compatible image.
+	 */
+	protected BufferedImage createCache(int width, int height) {
+		return ImageUtil.createImage(width, height);
+	}
+	
+	/**
+	 * Returns graphics context of the scene cache, translated so the cache is
+	 * drawn with screen coordinate, and prepared for repainting specified
+	 * region (or the whole view area if <code>region</code> is null).
+	 */
+	Graphics2D createGraphics(Rectangle region) {
+		Graphics2D g = this.cache.createGraphics();
+		g.translate(-this.lastClip.x, -this.lastClip.y);
+		
+		Rectangle r = (region != null) ? region : this.lastClip;
+		g.setClip(r.x, r.y, r.width, r.height);
+		
+		// area outside the background is cleared
+		g.setColor(Color.BLACK);
+		g.fillRect(r.x, r.y, r.width, r.height);
+		
+		return g;
+	}
+	
+	/**
+	 * Draws the scene cache to specified graphics context.
+	 */
+	void drawCache(Graphics2D g) {
+		g.drawImage(this.cache, this.lastClip.x, this.lastClip.y, null);
+	}
+	
+	/** ************************************************************************* */
+	/** ************************* DIRTY PROPERTIES ****************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns true, if the whole scene is repainted on the last render.
+	 */
+	public boolean isFullRedraw() {
+		return this.fullRedraw;
+	}
+	
+	/**
+	 * Returns total dirty regions repainted on the last render.
+	 */
+	public int getRegionCount() {
+		return this.regions.size() / 4;
+	}
+	
+	/**
+	 * Returns the dirty region at specified index in screen coordinate.
+	 * 
+	 * @see #getRegionCount()
+	 */
+	public Rectangle getRegion(int index, Rectangle r) {
+		int i = index * 4;
+		r.setBounds(this.regions.get(i), this.regions.get(i + 1), this.regions
+		        .get(i + 2), this.regions.get(i + 3));
+		
+		return r;
+	}
+	
+	/**
+	 * Returns the maximum number of separated dirty regions, the regions after
+	 * it are joined together.
+	 */
+	public int getMaxRegions() {
+		return this.maxRegions;
+	}
+	
+	/**
+	 * Sets the maximum number of separated dirty regions, default is 16.
+	 */
+	public void setMaxRegions(int maxRegions) {
+		this.maxRegions = Math.max(1, maxRegions);
+	}
+	
+	/**
+	 * Returns the ratio of the view area that makes the whole scene repainted
+	 * when the dirty regions are larger than it.
+	 */
+	public double getFullRedrawRatio() {
+		return this.fullRedrawRatio;
+	}
+	
+	/**
+	 * Sets the ratio of the view area that makes the whole scene repainted
+	 * when the dirty regions are larger than it, default is 0.5 (half of the
+	 * view area).
+	 */
+	public void setFullRedrawRatio(double ratio) {
+		this.fullRedrawRatio = ratio;
+	}
+	
+	public String toString() {
+		return super.toString() + " " + "[regions=" + this.getRegionCount()
+		        + ", fullRedraw=" + this.fullRedraw + "]";
+	}
+	
+}
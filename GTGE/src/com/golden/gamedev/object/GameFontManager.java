@@ -27,7 +27,7 @@ import com.golden.gamedev.object.font.AdvanceBitmapFont;
 import com.golden.gamedev.object.font.BitmapFont;
 import com.golden.gamedev.object.font.SystemFont;
 import com.golden.gamedev.util.ImageUtil;
-import com.golden.gamedev.util.Utility;
+import com.golden.gamedev.util.IntList;
 
 /**
  * Simplify <code>GameFont</code> creation and also behave as the storage of
@@ -164,32 +164,27 @@ public class GameFontManager {
 	
 	private BufferedImage[] cutLetter(BufferedImage bitmap) {
 		int delimiter = bitmap.getRGB(0, 0); // pixel <0,0> : delimiter
-		int[] width = new int[100]; // assumption : 100 letter
-		int ctr = 0;
+		IntList width = new IntList(100); // assumption : 100 letter
 		int last = 0; // last width point
 		
 		for (int i = 1; i < bitmap.getWidth(); i++) {
 			if (bitmap.getRGB(i, 0) == delimiter) {
 				// found delimiter
-				width[ctr++] = i - last;
+				width.add(i - last);
 				last = i;
-				
-				if (ctr >= width.length) {
-					width = (int[]) Utility.expand(width, 50);
-				}
 			}
 		}
 		
 		// create bitmap font
-		BufferedImage[] imagefont = new BufferedImage[ctr];
+		BufferedImage[] imagefont = new BufferedImage[width.size()];
 		Color backgr = new Color(bitmap.getRGB(1, 0));
 		int height = bitmap.getHeight() - 1;
 		int w = 0;
 		for (int i = 0; i < imagefont.length; i++) {
 			imagefont[i] = ImageUtil.applyMask(bitmap.getSubimage(w, 1,
-			        width[i], height), backgr);
+			        width.get(i), height), backgr);
 			
-			w += width[i];
+			w += width.get(i);
 		}
 		
 		return imagefont;
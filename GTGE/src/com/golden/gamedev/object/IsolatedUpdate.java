@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.object;
+
+/**
+ * Marker interface for sprites whose {@link Sprite#update(long)} only reads
+ * and writes the sprite own state.
+ * <p>
+ * 
+ * Sprites tagged with this interface can be updated concurrently by
+ * {@link ParallelUpdater}. The update method of such sprite must not modify
+ * other sprites, sprite groups, playfield, background, or any other shared
+ * object (including {@link com.golden.gamedev.util.Utility#getRandom(int, int)
+ * the shared random object}).
+ * <p>
+ * 
+ * For example :
+ * 
+ * <pre>
+ * public class Particle extends Sprite implements IsolatedUpdate {
+ * 
+ * 	public void update(long elapsedTime) {
+ * 		// only touch this particle state
+ * 		super.update(elapsedTime);
+ * 		addVerticalSpeed(elapsedTime, 0.0005, 0.4);
+ * 	}
+ * }
+ * </pre>
+ * 
+ * @see ParallelUpdater
+ */
+public interface IsolatedUpdate {
+	
+}
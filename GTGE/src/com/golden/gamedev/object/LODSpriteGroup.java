@@ -0,0 +1,442 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.object;
+
+// JFC
+import java.awt.Rectangle;
+import java.util.Comparator;
+
+/**
+ * Subclass of <code>SpriteGroup</code> that updates its sprites in different
+ * level of detail based on the sprite distance from the game view area.
+ * <p>
+ * 
+ * Unlike {@link AdvanceSpriteGroup} that stops updating sprites outside the
+ * screen, this group keeps all of its sprites alive but updates far sprites
+ * less often :
+ * <ul>
+ * <li>{@link #TIER_NEAR near} sprites (on screen, or outside the screen not
+ * further than the {@linkplain #getNearDistance() near distance}) are
+ * updated every frame.</li>
+ * <li>{@link #TIER_MIDDLE middle} sprites (not further than the
+ * {@linkplain #getFarDistance() far distance}) are updated once every
+ * {@linkplain #getInterval() interval} frames.</li>
+ * <li>{@link #TIER_FAR far} sprites are not updated at all until they come
+ * closer to the view area.</li>
+ * </ul>
+ * The elapsed time of skipped frames is accumulated, and given to the sprite
+ * update at once, therefore near and middle sprites move as far as they would
+ * if they were updated every frame. Far sprites accumulate at most the
+ * {@linkplain #setMaxLazyTime(long) maximum lazy time}, so they don't jump
+ * when they come back near, the rest of their elapsed time is dropped.
+ * <p>
+ * 
+ * Middle and far sprites are spread evenly across the frames, each frame only
+ * <code>1/interval</code> of them is checked and updated. The turn of a
+ * sprite is given when it is added, removing other sprites doesn't change it.
+ * <p>
+ * 
+ * The update tier and accumulated time of the sprites are kept by this group,
+ * not by the sprites.
+ */
+public class LODSpriteGroup extends SpriteGroup {
+	
+	/**
+	 * Update tier for sprites that updated every frame.
+	 */
+	public static final int TIER_NEAR = 0;
+	
+	/**
+	 * Update tier for sprites that updated once every interval frames.
+	 */
+	public static final int TIER_MIDDLE = 1;
+	
+	/**
+	 * Update tier for sprites that are not updated until they come closer.
+	 * Far sprites keep at most the {@linkplain #setMaxLazyTime(long) maximum
+	 * lazy time} of the skipped frames, the rest of the elapsed time is
+	 * dropped.
+	 */
+	public static final int TIER_FAR = 2;
+	
+	/** *************************** LOD PROPERTIES ****************************** */
+	
+	private int nearDistance; // distance from view area in pixels
+	private int farDistance;
+	private int interval; // middle sprites are updated every interval frames
+	
+	private long maxLazyTime = 100; // maximum accumulated time, -1 = unlimited
+	
+	private int frame;
+	
+	/** ***************************** SPRITE STATE ****************************** */
+	
+	// parallel with the group sprites, follows every insertion, removal and
+	// sorting of the group
+	private int[] tiers = new int[0]; // current update tier
+	private long[] times = new long[0]; // elapsed time not yet given to update
+	private int[] turns = new int[0]; // turn offset, given once per sprite
+	private int lodSize;
+	
+	private int nextTurn;
+	
+	// reused by sorting
+	private int[] order = new int[0], orderSwap = new int[0];
+	
+	/** ************************************************************************* */
+	/** ***************************** CONSTRUCTOR ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Creates new <code>LODSpriteGroup</code> with specified name, near and
+	 * far distance from the view area, and update interval for middle tier
+	 * sprites.
+	 * 
+	 * @param name the group name
+	 * @param nearDistance sprites outside view area not further than this
+	 *        distance are updated every frame
+	 * @param farDistance sprites not further than this distance are updated
+	 *        every <code>interval</code> frames
+	 * @param interval update interval of middle tier sprites in frame
+	 */
+	public LODSpriteGroup(String name, int nearDistance, int farDistance,
+	        int interval) {
+		super(name);
+		
+		this.nearDistance = nearDistance;
+		this.farDistance = farDistance;
+		this.interval = Math.max(1, interval);
+	}
+	
+	/**
+	 * Creates new <code>LODSpriteGroup</code> with specified name, 64 pixels
+	 * near distance, 512 pixels far distance, and middle sprites are updated
+	 * every 4 frames.
+	 */
+	public LODSpriteGroup(String name) {
+		this(name, 64, 512, 4);
+	}
+	
+	/** ************************************************************************* */
+	/** ************************* UPDATE THIS GROUP ***************************** */
+	/** ************************************************************************* */
+	
+	public void update(long elapsedTime) {
+		this.frame = (this.frame + 1) & 0x3FFFFFFF;
+		
+		// view area in background coordinate
+		Background backgr = this.getBackground();
+		Rectangle clip = backgr.getClip();
+		double left = backgr.getX(), top = backgr.getY();
+		double right = left + clip.width, bottom = top + clip.height;
+		
+		Sprite[] sprites = this.getSprites();
+		
+		// sprite update may add/remove sprites, size is read every loop
+		for (int i = 0; i < this.getSize(); i++) {
+			Sprite s = sprites[i];
+			if (!s.isActive()) {
+				continue;
+			}
+			
+			this.times[i] += elapsedTime;
+			
+			// near sprites are checked every frame,
+			// the rest only on their turn
+			boolean turn = ((this.turns[i] + this.frame) % this.interval == 0);
+			if (this.tiers[i] == LODSpriteGroup.TIER_NEAR || turn) {
+				this.tiers[i] = this.getTier(s, left, top, right, bottom);
+			}
+			
+			if (this.tiers[i] == LODSpriteGroup.TIER_NEAR
+			        || (this.tiers[i] == LODSpriteGroup.TIER_MIDDLE && turn)) {
+				long time = this.times[i];
+				this.times[i] = 0;
+				
+				s.update(time);
+				sprites = this.getSprites(); // storage may be expanded
+			}
+			else if (this.tiers[i] == LODSpriteGroup.TIER_FAR
+			        && this.maxLazyTime >= 0 && this.times[i] > this.maxLazyTime) {
+				this.times[i] = this.maxLazyTime;
+			}
+		}
+		
+		// schedule to scan inactive sprite
+		// since we override update(), we must schedule this manually
+		if (this.getScanFrequence().action(elapsedTime)) {
+			this.removeInactiveSprites();
+		}
+	}
+	
+	void spriteAdded(int index) {
+		if (this.lodSize == this.tiers.length) {
+			// expands the state the same way as the group sprites
+			int len = this.lodSize
+			        + Math.max(this.getExpandFactor(), this.lodSize >> 1);
+			this.tiers = this.expand(this.tiers, len);
+			this.turns = this.expand(this.turns, len);
+			
+			long[] dest = new long[len];
+			System.arraycopy(this.times, 0, dest, 0, this.lodSize);
+			this.times = dest;
+		}
+		
+		int numMoved = this.lodSize - index;
+		if (numMoved > 0) {
+			System.arraycopy(this.tiers, index, this.tiers, index + 1, numMoved);
+			System.arraycopy(this.times, index, this.times, index + 1, numMoved);
+			System.arraycopy(this.turns, index, this.turns, index + 1, numMoved);
+		}
+		this.lodSize++;
+		
+		// new sprite starts as near sprite
+		this.tiers[index] = LODSpriteGroup.TIER_NEAR;
+		this.times[index] = 0;
+		this.turns[index] = this.nextTurn;
+		this.nextTurn = (this.nextTurn + 1) & 0x3FFFFFFF;
+	}
+	
+	void spritesRemoved(int fromIndex, int toIndex) {
+		int numMoved = this.lodSize - toIndex;
+		if (numMoved > 0) {
+			System.arraycopy(this.tiers, toIndex, this.tiers, fromIndex, numMoved);
+			System.arraycopy(this.times, toIndex, this.times, fromIndex, numMoved);
+			System.arraycopy(this.turns, toIndex, this.turns, fromIndex, numMoved);
+		}
+		this.lodSize -= toIndex - fromIndex;
+	}
+	
+	private int[] expand(int[] src, int len) {
+		int[] dest = new int[len];
+		System.arraycopy(src, 0, dest, 0, this.lodSize);
+		
+		return dest;
+	}
+	
+	/**
+	 * Sorts all sprites in this group with specified comparator, the update
+	 * tier and accumulated time are moved together with their sprites.
+	 */
+	public void sort(Comparator c) {
+		Sprite[] sprites = this.getSprites();
+		int size = this.lodSize;
+		
+		if (this.order.length < size) {
+			this.order = new int[sprites.length];
+			this.orderSwap = new int[sprites.length];
+		}
+		
+		// sorts the sprite indices, stable as Arrays.sort
+		int[] order = this.order;
+		for (int i = 0; i < size; i++) {
+			order[i] = this.orderSwap[i] = i;
+		}
+		this.mergeSort(this.orderSwap, order, 0, size, sprites, c);
+		
+		for (int i = 0; i < size; i++) {
+			if (order[i] < 0 || order[i] == i) {
+				// already moved, or stays at its place
+				continue;
+			}
+			
+			// the sprite at order[j] goes to j, walks the cycle from i
+			Sprite sprite = sprites[i];
+			int tier = this.tiers[i], turn = this.turns[i];
+			long time = this.times[i];
+			
+			int j = i;
+			for (int k = order[j]; k != i; k = order[j]) {
+				sprites[j] = sprites[k];
+				this.tiers[j] = this.tiers[k];
+				this.times[j] = this.times[k];
+				this.turns[j] = this.turns[k];
+				
+				order[j] = -1;
+				j = k;
+			}
+			
+			sprites[j] = sprite;
+			this.tiers[j] = tier;
+			this.times[j] = time;
+			this.turns[j] = turn;
+			order[j] = -1;
+		}
+		
+		// the sprites are already in order, updates the group state
+		super.sort(c);
+	}
+	
+	// stable merge sort of sprite indices by their sprites, dest and src
+	// start with the same content
+	private void mergeSort(int[] src, int[] dest, int low, int high,
+	        Sprite[] s, Comparator c) {
+		int length = high - low;
+		
+		if (length < 7) {
+			// insertion sort on smallest arrays
+			for (int i = low; i < high; i++) {
+				for (int j = i; j > low
+				        && c.compare(s[dest[j - 1]], s[dest[j]]) > 0; j--) {
+					int t = dest[j];
+					dest[j] = dest[j - 1];
+					dest[j - 1] = t;
+				}
+			}
+			return;
+		}
+		
+		int mid = (low + high) >>> 1;
+		this.mergeSort(dest, src, low, mid, s, c);
+		this.mergeSort(dest, src, mid, high, s, c);
+		
+		if (c.compare(s[src[mid - 1]], s[src[mid]]) <= 0) {
+			// already sorted
+			System.arraycopy(src, low, dest, low, length);
+			return;
+		}
+		
+		for (int i = low, p = low, q = mid; i < high; i++) {
+			if (q >= high || (p < mid && c.compare(s[src[p]], s[src[q]]) <= 0)) {
+				dest[i] = src[p++];
+			}
+			else {
+				dest[i] = src[q++];
+			}
+		}
+	}
+	
+	private int getTier(Sprite s, double left, double top, double right, double bottom) {
+		double x = s.getX(), y = s.getY();
+		
+		// distance from view area, 0 if the sprite is on screen
+		double dx = Math.max(Math.max(left - (x + s.getWidth()), x - right), 0);
+		double dy = Math
+		        .max(Math.max(top - (y + s.getHeight()), y - bottom), 0);
+		double distance = Math.max(dx, dy);
+		
+		if (distance <= this.nearDistance) {
+			return LODSpriteGroup.TIER_NEAR;
+		}
+		
+		return (distance <= this.farDistance) ? LODSpriteGroup.TIER_MIDDLE
+		        : LODSpriteGroup.TIER_FAR;
+	}
+	
+	/**
+	 * Returns the update tier of specified sprite in the last update, one of
+	 * {@link #TIER_NEAR}, {@link #TIER_MIDDLE}, or {@link #TIER_FAR}, sprite
+	 * that has not been updated by this group is near.
+	 */
+	public int getTier(Sprite s) {
+		Sprite[] sprites = this.getSprites();
+		for (int i = 0; i < this.lodSize; i++) {
+			if (sprites[i] == s) {
+				return this.tiers[i];
+			}
+		}
+		
+		return LODSpriteGroup.TIER_NEAR;
+	}
+	
+	/** ************************************************************************* */
+	/** **************************** LOD PROPERTIES ***************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns the distance from view area in pixels of sprites that still
+	 * updated every frame.
+	 */
+	public int getNearDistance() {
+		return this.nearDistance;
+	}
+	
+	/**
+	 * Sets the distance from view area in pixels of sprites that still updated
+	 * every frame.
+	 */
+	public void setNearDistance(int nearDistance) {
+		this.nearDistance = nearDistance;
+	}
+	
+	/**
+	 * Returns the distance from view area in pixels of sprites that updated
+	 * every {@linkplain #getInterval() interval} frames, sprites further than
+	 * this distance are not updated.
+	 */
+	public int getFarDistance() {
+		return this.farDistance;
+	}
+	
+	/**
+	 * Sets the distance from view area in pixels of sprites that updated every
+	 * {@linkplain #getInterval() interval} frames, sprites further than this
+	 * distance are not updated, and lose the elapsed time above the
+	 * {@linkplain #setMaxLazyTime(long) maximum lazy time}.
+	 */
+	public void setFarDistance(int farDistance) {
+		this.farDistance = farDistance;
+	}
+	
+	/**
+	 * Returns the update interval in frame of middle tier sprites.
+	 */
+	public int getInterval() {
+		return this.interval;
+	}
+	
+	/**
+	 * Sets the update interval in frame of middle tier sprites, far sprites
+	 * are also checked whether they have come closer every this interval.
+	 */
+	public void setInterval(int interval) {
+		this.interval = Math.max(1, interval);
+	}
+	
+	/**
+	 * Returns the maximum elapsed time accumulated by far sprites, or -1 if
+	 * unlimited.
+	 * 
+	 * @see #setMaxLazyTime(long)
+	 */
+	public long getMaxLazyTime() {
+		return this.maxLazyTime;
+	}
+	
+	/**
+	 * Sets the maximum elapsed time accumulated by far sprites, the time is
+	 * given to the sprite update once the sprite come closer to view area.
+	 * This prevents sprites that have been far for a long time from jumping
+	 * too far in one update. The default is 100 milliseconds, the same limit
+	 * the game loop puts on the elapsed time, -1 for unlimited.
+	 * <p>
+	 * 
+	 * The elapsed time above this limit is dropped, far sprites fall behind
+	 * the game time by that much. Set -1 if far sprites must catch up the
+	 * whole time they have been far.
+	 */
+	public void setMaxLazyTime(long maxLazyTime) {
+		this.maxLazyTime = maxLazyTime;
+	}
+	
+	public String toString() {
+		return super.toString() + " " + "[near=" + this.nearDistance
+		        + ", far=" + this.farDistance + ", interval=" + this.interval
+		        + "]";
+	}
+	
+}
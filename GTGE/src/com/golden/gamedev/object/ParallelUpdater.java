@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.object;
+
+/**
+ * <code>ParallelUpdater</code> updates the sprites of a sprite group across
+ * several processor cores.
+ * <p>
+ * 
+ * Only sprites that implement {@link IsolatedUpdate} are updated in parallel,
+ * the sprite array is partitioned into chunks and the chunks are shared
+ * between the worker threads and the game thread. All other active sprites are
+ * then updated serially by the game thread in their array order, after all
+ * the isolated sprites have been updated.
+ * <p>
+ * 
+ * When the updater only has one thread, or the group has less sprites than
+ * {@linkplain #setThreshold(int) the parallel threshold}, all sprites are
+ * updated serially in their array order, exactly as the standard
+ * {@link SpriteGroup#update(long)} does.
+ * <p>
+ * 
+ * Usage example :
+ * 
+ * <pre>
+ * PlayField playfield;
+ * ParallelUpdater updater = new ParallelUpdater();
+ * // all groups in the playfield use the updater
+ * playfield.setParallelUpdater(updater);
+ * // when the updater is not needed anymore
+ * updater.dispose();
+ * </pre>
+ * 
+ * @see IsolatedUpdate
+ * @see SpriteGroup#setParallelUpdater(ParallelUpdater)
+ * @see PlayField#setParallelUpdater(ParallelUpdater)
+ */
+public class ParallelUpdater {
+	
+	/** ************************ UPDATER PROPERTIES ***************************** */
+	
+	private final Worker[] workers; // helper threads (game thread excluded)
+	
+	private int threshold = 512; // minimum sprites to update in parallel
+	private int chunkFactor = 4; // chunks per thread
+	
+	private boolean disposed;
+	
+	/** ************************** CURRENT JOB ********************************** */
+	
+	private final Object lock = new Object();
+	
+	private Sprite[] jobSprites;
+	private int jobSize;
+	private long jobElapsedTime;
+	
+	private int chunkSize, totalChunk, nextChunk;
+	private int pendingWorker;
+	private int generation; // increased for every job
+	
+	private Throwable failure; // exception thrown by a worker
+	
+	/** ************************************************************************* */
+	/** ***************************** CONSTRUCTOR ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Creates new <code>ParallelUpdater</code> that runs the update in
+	 * specified number of threads (the game thread included).
+	 * 
+	 * @param threads total threads used to update, 1 means no parallel update
+	 */
+	public ParallelUpdater(int threads) {
+		if (threads < 1) {
+			threads = 1;
+		}
+		
+		this.workers = new Worker[threads - 1];
+		for (int i = 0; i < this.workers.length; i++) {
+			this.workers[i] = new Worker("GTGE Sprite Updater #" + (i + 1));
+			this.workers[i].start();
+		}
+	}
+	
+	/**
+	 * Creates new <code>ParallelUpdater</code> that uses all available
+	 * processors.
+	 */
+	public ParallelUpdater() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+	
+	/** ************************************************************************* */
+	/** ************************** UPDATE SPRITES ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Updates all active sprites in specified sprite array.
+	 * 
+	 * @param sprites the sprites to be updated
+	 * @param size total non-null sprites in the array
+	 * @param elapsedTime time elapsed since last update
+	 */
+	public void update(Sprite[] sprites, int size, long elapsedTime) {
+		if (this.workers.length == 0 || this.disposed
+		        || size < this.threshold) {
+			// deterministic fallback, plain serial update
+			for (int i = 0; i < size; i++) {
+				if (sprites[i].isActive()) {
+					sprites[i].update(elapsedTime);
+				}
+			}
+			
+			return;
+		}
+		
+		synchronized (this.lock) {
+			this.jobSprites = sprites;
+			this.jobSize = size;
+			this.jobElapsedTime = elapsedTime;
+			
+			this.totalChunk = (this.workers.length + 1) * this.chunkFactor;
+			this.chunkSize = (size + this.totalChunk - 1) / this.totalChunk;
+			this.nextChunk = 0;
+			this.pendingWorker = this.workers.length;
+			this.failure = null;
+			
+			this.generation++;
+			this.lock.notifyAll();
+		}
+		
+		// the game thread works too
+		Throwable error = null;
+		try {
+			this.runChunks();
+		}
+		catch (Throwable e) {
+			error = e;
+		}
+		
+		synchronized (this.lock) {
+			while (this.pendingWorker > 0) {
+				try {
+					this.lock.wait();
+				}
+				catch (InterruptedException e) {
+				}
+			}
+			
+			if (error == null) {
+				error = this.failure;
+			}
+			
+			// let gc do its work
+			this.jobSprites = null;
+		}
+		
+		if (error != null) {
+			if (error instanceof RuntimeException) {
+				throw (RuntimeException) error;
+			}
+			if (error instanceof Error) {
+				throw (Error) error;
+			}
+			throw new RuntimeException(error.toString());
+		}
+		
+		// the rest sprites are updated serially in array order
+		for (int i = 0; i < size; i++) {
+			if (sprites[i].isActive()
+			        && (sprites[i] instanceof IsolatedUpdate) == false) {
+				sprites[i].update(elapsedTime);
+			}
+		}
+	}
+	
+	private void runChunks() {
+		Sprite[] sprites;
+		int size, chunk;
+		long elapsedTime;
+		
+		while (true) {
+			synchronized (this.lock) {
+				if (this.nextChunk >= this.totalChunk) {
+					return;
+				}
+				chunk = this.nextChunk++;
+				
+				sprites = this.jobSprites;
+				size = this.jobSize;
+				elapsedTime = this.jobElapsedTime;
+			}
+			
+			int start = chunk * this.chunkSize;
+			int end = Math.min(start + this.chunkSize, size);
+			
+			for (int i = start; i < end; i++) {
+				if (sprites[i].isActive() && sprites[i] instanceof IsolatedUpdate) {
+					sprites[i].update(elapsedTime);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Stops all worker threads, after disposed this updater always updates
+	 * sprites serially.
+	 */
+	public void dispose() {
+		synchronized (this.lock) {
+			this.disposed = true;
+			this.lock.notifyAll();
+		}
+	}
+	
+	/** ************************************************************************* */
+	/** ************************ UPDATER PROPERTIES ***************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns total threads used by this updater (the game thread included).
+	 */
+	public int getThreadCount() {
+		return this.workers.length + 1;
+	}
+	
+	/**
+	 * Returns the minimum sprites in a group to be updated in parallel.
+	 * 
+	 * @see #setThreshold(int)
+	 */
+	public int getThreshold() {
+		return this.threshold;
+	}
+	
+	/**
+	 * Sets the minimum sprites in a group to be updated in parallel, group with
+	 * less sprites is updated serially since the threads synchronization cost
+	 * more than the update itself. The default is 512 sprites.
+	 */
+	public void setThreshold(int threshold) {
+		this.threshold = threshold;
+	}
+	
+	/**
+	 * Returns how many chunks each thread gets in every update.
+	 * 
+	 * @see #setChunkFactor(int)
+	 */
+	public int getChunkFactor() {
+		return this.chunkFactor;
+	}
+	
+	/**
+	 * Sets how many chunks each thread gets in every update. More chunks
+	 * balance the load better when the sprites update cost is not even, but
+	 * cost more synchronization. The default is 4 chunks per thread.
+	 */
+	public void setChunkFactor(int factor) {
+		this.chunkFactor = Math.max(1, factor);
+	}
+	
+	public String toString() {
+		return super.toString() + " " + "[threads=" + this.getThreadCount()
+		        + ", threshold=" + this.threshold + ", disposed="
+		        + this.disposed + "]";
+	}
+	
+	// ////////////////////////////////////////////////////////////////////////////
+	/** ************************** WORKER THREAD ******************************** */
+	// ////////////////////////////////////////////////////////////////////////////
+	
+	private class Worker extends Thread {
+		
+		private int lastGeneration;
+		
+		public Worker(String name) {
+			super(name);
+			
+			this.setDaemon(true);
+		}
+		
+		public void run() {
+			Object lock = ParallelUpdater.this.lock;
+			
+			while (true) {
+				synchronized (lock) {
+					while (this.lastGeneration == ParallelUpdater.this.generation
+					        && !ParallelUpdater.this.disposed) {
+						try {
+							lock.wait();
+						}
+						catch (InterruptedException e) {
+						}
+					}
+					
+					if (this.lastGeneration == ParallelUpdater.this.generation) {
+						// disposed and no more job
+						return;
+					}
+					
+					this.lastGeneration = ParallelUpdater.this.generation;
+				}
+				
+				try {
+					ParallelUpdater.this.runChunks();
+				}
+				catch (Throwable e) {
+					synchronized (lock) {
+						if (ParallelUpdater.this.failure == null) {
+							ParallelUpdater.this.failure = e;
+						}
+					}
+				}
+				
+				synchronized (lock) {
+					if (--ParallelUpdater.this.pendingWorker == 0) {
+						lock.notifyAll();
+					}
+				}
+			}
+		}
+		
+	}
+	
+}
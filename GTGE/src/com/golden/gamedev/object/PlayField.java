@@ -18,10 +18,18 @@ package com.golden.gamedev.object;
 
 // JFC
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
-import com.golden.gamedev.util.Utility;
+import com.golden.gamedev.engine.timer.Profiler;
+import com.golden.gamedev.util.IntList;
+import com.golden.gamedev.util.ObjectList;
 
 /**
  * <code>PlayField</code> class is the game arena where all the game objects
@@ -42,15 +50,73 @@ public class PlayField {
 	
 	/** ********************** PLAYFIELD PROPERTIES ***************************** */
 	
+	// in render order, removed groups are null until compacted, the extra
+	// group is always the last group
 	private SpriteGroup[] groups;
+	private int groupSize;
+	private int removedGroups; // null entries in the groups
 	private Background background;
 	private CollisionManager[] collisions;
+	private int collisionSize;
+	
+	// exact size arrays returned by the getters, null = must be rebuilt
+	private SpriteGroup[] groupsView;
+	private CollisionManager[] collisionsView;
+	
+	/** ************************* GROUP LOOKUP ********************************** */
+	
+	// name -> list of groups with the name in render order
+	private final Map groupNames = new HashMap();
+	private final Map adjacency = new IdentityHashMap(); // group -> managers
+	// manager -> its registration
+	private final Map registrations = new IdentityHashMap();
 	
 	/** ************************** SORT RENDERING ******************************* */
 	
 	private Sprite[] cacheSprite;
 	private Comparator comparator;
 	
+	/** ************************* PARALLEL UPDATE ******************************* */
+	
+	private ParallelUpdater updater;
+	
+	/** ************************* SPRITE REGISTRY ******************************* */
+	
+	private final SpriteRegistry registry = new SpriteRegistry();
+	
+	/** *************************** TIMER WHEEL ********************************* */
+	
+	private TimerWheel timerWheel;
+	
+	/** ************************ DIRTY RECTANGLES ******************************* */
+	
+	private DirtyRectManager dirtyRects;
+	private final IntList dirtyBounds = new IntList(); // sprite screen x, y
+	
+	/** *************************** RENDER QUEUE ******************************** */
+	
+	private RenderQueue renderQueue;
+	
+	private final ObjectList renderList = new ObjectList(); // reused
+	
+	/** ************************ VISIBILITY CULLING ***************************** */
+	
+	private boolean culling;
+	// background position of the last culling, NaN if sprites have been
+	// updated since then
+	private double cullX, cullY;
+	
+	/** ************************* INTERPOLATION ********************************* */
+	
+	private boolean interpolated;
+	
+	/** ************************* CHANGE TRACKING ******************************* */
+	
+	// groups have been added, removed, activated or deactivated
+	private boolean groupsChanged = true;
+	private Background checkedBackground; // background of the last check
+	private double checkedX, checkedY;
+	
 	/** ************************************************************************* */
 	/** ***************************** CONSTRUCTOR ******************************* */
 	/** ************************************************************************* */
@@ -64,11 +130,14 @@ public class PlayField {
 		// preserve one group for the extra group
 		SpriteGroup extra = new SpriteGroup("Extra Group");
 		extra.setBackground(background);
+		extra.setPlayField(this);
 		
-		this.groups = new SpriteGroup[1];
+		this.groups = new SpriteGroup[8];
 		this.groups[0] = extra;
+		this.groupSize = 1;
+		this.addName(extra);
 		
-		this.collisions = new CollisionManager[0];
+		this.collisions = new CollisionManager[8];
 		this.cacheSprite = new Sprite[0];
 	}
 	
@@ -97,7 +166,7 @@ public class PlayField {
 	 * will always on top of other sprites.
 	 */
 	public void add(Sprite extra) {
-		this.groups[this.groups.length - 1].add(extra);
+		this.groups[this.groupSize - 1].add(extra);
 	}
 	
 	/**
@@ -126,16 +195,29 @@ public class PlayField {
 	 * @return Reference of the inserted sprite group.
 	 */
 	public SpriteGroup addGroup(SpriteGroup group) {
+		if (this.groupSize >= this.groups.length) {
+			// geometric growth, amortized constant time insertion
+			SpriteGroup[] dest = new SpriteGroup[this.groups.length * 2];
+			System.arraycopy(this.groups, 0, dest, 0, this.groupSize);
+			this.groups = dest;
+		}
+		
 		// extra group always at behind!
-		SpriteGroup extra = this.groups[this.groups.length - 1];
-		this.groups = (SpriteGroup[]) Utility.cut(this.groups,
-		        this.groups.length - 1);
+		SpriteGroup extra = this.groups[this.groupSize - 1];
+		this.groups[this.groupSize] = extra;
+		extra.playfieldIndex = this.groupSize;
+		this.groups[this.groupSize - 1] = group;
+		group.playfieldIndex = this.groupSize - 1;
+		this.groupSize++;
+		this.groupsView = null;
+		this.groupsChanged = true;
 		
-		this.groups = (SpriteGroup[]) Utility.expand(this.groups, 2);
 		group.setBackground(this.background);
-		this.groups[this.groups.length - 2] = group;
-		this.groups[this.groups.length - 1] = extra; // move extra group to
-		// the last row
+		group.setPlayField(this);
+		this.addName(group);
+		if (this.updater != null) {
+			group.setParallelUpdater(this.updater);
+		}
 		
 		return group;
 	}
@@ -147,48 +229,154 @@ public class PlayField {
 	 * @return true, if the sprite group is successfuly removed.
 	 */
 	public boolean removeGroup(SpriteGroup group) {
+		int i = this.indexOf(group);
+		
 		// last group is exclusive for extra group
 		// it can't be removed!
-		for (int i = 0; i < this.groups.length - 1; i++) {
+		if (i == -1 || i == this.groupSize - 1) {
+			return false;
+		}
+		
+		// the rest of the groups keep their render order,
+		// the removed entry is compacted later
+		this.groups[i] = null;
+		this.removedGroups++;
+		this.groupsView = null;
+		this.groupsChanged = true;
+		this.removeName(group, group.getName());
+		
+		// sprite group has been removed
+		// therefore, any collision group registered
+		// with it should be removed too!
+		List managers = (List) this.adjacency.get(group);
+		while (managers != null && !managers.isEmpty()) {
+			this.removeCollisionGroup((CollisionManager) managers.get(managers
+			        .size() - 1));
+		}
+		
+		if (this.culling) {
+			// the group is not culled by this playfield anymore
+			group.resetCulling();
+		}
+		
+		if (group.getPlayField() == this) {
+			group.setPlayField(null);
+		}
+		
+		if (this.removedGroups * 2 > this.groupSize) {
+			// amortized constant time removal
+			this.compactGroups();
+		}
+		
+		return true;
+	}
+	
+	// the index of specified group in this playfield, or -1 if not found
+	private int indexOf(SpriteGroup group) {
+		int i = group.playfieldIndex;
+		if (group.getPlayField() == this && i < this.groupSize
+		        && this.groups[i] == group) {
+			return i;
+		}
+		
+		// the group has been added into another playfield later
+		for (i = 0; i < this.groupSize; i++) {
 			if (this.groups[i] == group) {
-				this.groups = (SpriteGroup[]) Utility.cut(this.groups, i);
-				
-				// sprite group has been removed
-				// therefore, any collision group registered
-				// with it should be removed too!
-				CollisionManager collisionGroup = this.getCollisionGroup(group);
-				if (collisionGroup != null) {
-					do {
-						this.removeCollisionGroup(collisionGroup);
-						collisionGroup = this.getCollisionGroup(group);
-					} while (collisionGroup != null);
-				}
-				
-				return true;
+				return i;
 			}
 		}
 		
-		return false;
+		return -1;
+	}
+	
+	// throws the removed entries from the groups
+	private void compactGroups() {
+		int num = 0;
+		for (int i = 0; i < this.groupSize; i++) {
+			if (this.groups[i] != null) {
+				this.groups[num] = this.groups[i];
+				this.groups[num].playfieldIndex = num;
+				num++;
+			}
+		}
+		
+		for (int i = num; i < this.groupSize; i++) {
+			// let gc do its work
+			this.groups[i] = null;
+		}
+		
+		this.groupSize = num;
+		this.removedGroups = 0;
 	}
 	
 	/**
 	 * Returns sprite group with specified name associated with this playfield.
 	 */
 	public SpriteGroup getGroup(String name) {
-		for (int i = 0; i < this.groups.length; i++) {
-			if (this.groups[i].getName().equals(name)) {
-				return this.groups[i];
+		List named = (List) this.groupNames.get(name);
+		
+		// the first one in render order
+		return (named != null) ? (SpriteGroup) named.get(0) : null;
+	}
+	
+	// called by the group when it is renamed
+	void groupRenamed(SpriteGroup group, String oldName) {
+		this.removeName(group, oldName);
+		this.addName(group);
+	}
+	
+	private void addName(SpriteGroup group) {
+		List named = (List) this.groupNames.get(group.getName());
+		if (named == null) {
+			named = new ArrayList(1);
+			this.groupNames.put(group.getName(), named);
+		}
+		
+		// keep the groups that share the name in render order
+		int i = named.size();
+		while (i > 0
+		        && ((SpriteGroup) named.get(i - 1)).playfieldIndex > group.playfieldIndex) {
+			i--;
+		}
+		named.add(i, group);
+	}
+	
+	private void removeName(SpriteGroup group, String name) {
+		List named = (List) this.groupNames.get(name);
+		if (named == null) {
+			return;
+		}
+		
+		// compared by reference, the group may override equals
+		for (int i = 0; i < named.size(); i++) {
+			if (named.get(i) == group) {
+				named.remove(i);
+				break;
 			}
 		}
 		
-		return null;
+		if (named.isEmpty()) {
+			this.groupNames.remove(name);
+		}
 	}
 	
 	/**
 	 * Returns all sprite group associated with this playfield.
 	 */
 	public SpriteGroup[] getGroups() {
-		return this.groups;
+		if (this.groupsView == null) {
+			this.groupsView = new SpriteGroup[this.groupSize
+			        - this.removedGroups];
+			
+			int num = 0;
+			for (int i = 0; i < this.groupSize; i++) {
+				if (this.groups[i] != null) {
+					this.groupsView[num++] = this.groups[i];
+				}
+			}
+		}
+		
+		return this.groupsView;
 	}
 	
 	/**
@@ -205,7 +393,7 @@ public class PlayField {
 	 * @see #add(Sprite)
 	 */
 	public SpriteGroup getExtraGroup() {
-		return this.groups[this.groups.length - 1];
+		return this.groups[this.groupSize - 1];
 	}
 	
 	/**
@@ -217,8 +405,10 @@ public class PlayField {
 	 * {@link com.golden.gamedev.object.SpriteGroup#clear()}
 	 */
 	public void clearPlayField() {
-		for (int i = 0; i < this.groups.length; i++) {
-			this.groups[i].clear();
+		for (int i = 0; i < this.groupSize; i++) {
+			if (this.groups[i] != null) {
+				this.groups[i].clear();
+			}
 		}
 	}
 	
@@ -227,7 +417,8 @@ public class PlayField {
 	/** ************************************************************************* */
 	
 	/**
-	 * Associates specified collision group to this playfield.
+	 * Associates specified collision group to this playfield. If the collision
+	 * group is already in this playfield, it is bound to the new groups.
 	 */
 	public void addCollisionGroup(SpriteGroup group1, SpriteGroup group2, CollisionManager collisionGroup) {
 		// ensure group1 and group2 is not registered yet
@@ -237,27 +428,95 @@ public class PlayField {
 			System.err.println("CollisionGroup insertions operation continued");
 		}
 		
-		this.collisions = (CollisionManager[]) Utility.expand(this.collisions,
-		        1);
+		Registration r = (Registration) this.registrations.get(collisionGroup);
+		if (r != null) {
+			// the same manager inserted twice, rebound to the new groups
+			this.removeManager(r.group1, collisionGroup);
+			this.removeManager(r.group2, collisionGroup);
+		}
+		else {
+			if (this.collisionSize >= this.collisions.length) {
+				// geometric growth, amortized constant time insertion
+				CollisionManager[] dest =
+				        new CollisionManager[this.collisions.length * 2];
+				System.arraycopy(this.collisions, 0, dest, 0,
+				        this.collisionSize);
+				this.collisions = dest;
+			}
+			
+			r = new Registration();
+			r.index = this.collisionSize;
+			this.collisions[this.collisionSize++] = collisionGroup;
+			this.collisionsView = null;
+			
+			this.registrations.put(collisionGroup, r);
+		}
+		
 		collisionGroup.setCollisionGroup(group1, group2);
-		this.collisions[this.collisions.length - 1] = collisionGroup;
+		r.group1 = group1;
+		r.group2 = group2;
+		this.getManagers(group1).add(collisionGroup);
+		if (group2 != group1) {
+			this.getManagers(group2).add(collisionGroup);
+		}
 	}
 	
 	/**
-	 * Removes specified collision group from this playfield.
+	 * Removes specified collision group from this playfield, the last
+	 * collision group takes its place in the collision check order.
 	 * 
 	 * @return true, if the collision group is successfully removed.
 	 */
 	public boolean removeCollisionGroup(CollisionManager collisionGroup) {
-		for (int i = 0; i < this.collisions.length; i++) {
-			if (this.collisions[i] == collisionGroup) {
-				this.collisions = (CollisionManager[]) Utility.cut(
-				        this.collisions, i);
-				return true; // successfully removed
+		Registration r = (Registration) this.registrations
+		        .remove(collisionGroup);
+		if (r == null) {
+			return false;
+		}
+		
+		// swaps with the last one, constant time removal
+		int last = --this.collisionSize;
+		if (r.index != last) {
+			CollisionManager moved = this.collisions[last];
+			this.collisions[r.index] = moved;
+			((Registration) this.registrations.get(moved)).index = r.index;
+		}
+		this.collisions[last] = null;
+		this.collisionsView = null;
+		
+		this.removeManager(r.group1, collisionGroup);
+		this.removeManager(r.group2, collisionGroup);
+		
+		return true; // successfully removed
+	}
+	
+	private List getManagers(SpriteGroup group) {
+		List managers = (List) this.adjacency.get(group);
+		if (managers == null) {
+			managers = new ArrayList(2);
+			this.adjacency.put(group, managers);
+		}
+		
+		return managers;
+	}
+	
+	private void removeManager(SpriteGroup group, CollisionManager manager) {
+		List managers = (List) this.adjacency.get(group);
+		if (managers == null) {
+			return;
+		}
+		
+		// compared by reference, the manager may override equals
+		for (int i = 0; i < managers.size(); i++) {
+			if (managers.get(i) == manager) {
+				managers.remove(i);
+				break;
 			}
 		}
 		
-		return false;
+		if (managers.isEmpty()) {
+			this.adjacency.remove(group);
+		}
 	}
 	
 	/**
@@ -271,10 +530,15 @@ public class PlayField {
 	 *         null if no collision group can be found.
 	 */
 	public CollisionManager getCollisionGroup(SpriteGroup group1, SpriteGroup group2) {
-		for (int i = 0; i < this.collisions.length; i++) {
-			if (this.collisions[i].getGroup1() == group1
-			        && this.collisions[i].getGroup2() == group2) {
-				return this.collisions[i];
+		List managers = (List) this.adjacency.get(group1);
+		if (managers == null) {
+			return null;
+		}
+		
+		for (int i = 0; i < managers.size(); i++) {
+			CollisionManager manager = (CollisionManager) managers.get(i);
+			if (manager.getGroup1() == group1 && manager.getGroup2() == group2) {
+				return manager;
 			}
 		}
 		
@@ -285,21 +549,22 @@ public class PlayField {
 	 * Returns any collision group associated with specified sprite group.
 	 */
 	public CollisionManager getCollisionGroup(SpriteGroup group) {
-		for (int i = 0; i < this.collisions.length; i++) {
-			if (this.collisions[i].getGroup1() == group
-			        || this.collisions[i].getGroup2() == group) {
-				return this.collisions[i];
-			}
-		}
+		List managers = (List) this.adjacency.get(group);
 		
-		return null;
+		return (managers != null) ? (CollisionManager) managers.get(0) : null;
 	}
 	
 	/**
 	 * Returns all collision group associated with this playfield.
 	 */
 	public CollisionManager[] getCollisionGroups() {
-		return this.collisions;
+		if (this.collisionsView == null) {
+			this.collisionsView = new CollisionManager[this.collisionSize];
+			System.arraycopy(this.collisions, 0, this.collisionsView, 0,
+			        this.collisionSize);
+		}
+		
+		return this.collisionsView;
 	}
 	
 	/** ************************************************************************* */
@@ -307,13 +572,67 @@ public class PlayField {
 	/** ************************************************************************* */
 	
 	/**
-	 * Updates sprites, background, and check for collisions.
+	 * Updates {@linkplain #setTimerWheel(TimerWheel) timer wheel}, sprites,
+	 * background, and check for collisions.
+	 * <p>
+	 * 
+	 * If {@linkplain #setCulling(boolean) culling} is enabled, the sprites are
+	 * culled again on the next rendering.
+	 * <p>
+	 * 
+	 * If this playfield is {@linkplain #setInterpolated(boolean) interpolated}
+	 * the sprites and background positions are stored first.
+	 * <p>
+	 * 
+	 * The handles of sprites that have been removed from all groups since the
+	 * previous update are {@linkplain SpriteRegistry#releaseSlots() released}.
 	 */
 	public void update(long elapsedTime) {
-		this.updateSpriteGroups(elapsedTime);
-		this.updateBackground(elapsedTime);
+		Profiler.begin(Profiler.PLAYFIELD_UPDATE);
+		try {
+			this.registry.releaseSlots();
+			
+			if (this.interpolated) {
+				this.storePreviousPositions();
+			}
+			
+			if (this.timerWheel != null) {
+				this.timerWheel.update(elapsedTime);
+			}
+			
+			this.updateSpriteGroups(elapsedTime);
+			this.updateBackground(elapsedTime);
+			
+			// the sprites are moved, cull them again before the next
+			// rendering
+			this.cullX = Double.NaN;
+			
+			this.checkCollisions();
+		}
+		finally {
+			Profiler.end(Profiler.PLAYFIELD_UPDATE);
+		}
+	}
+	
+	/**
+	 * Stores the current position of all sprites and the background, the
+	 * position the {@linkplain #render(Graphics2D, double) interpolated
+	 * rendering} starts from.
+	 */
+	protected void storePreviousPositions() {
+		for (int i = 0; i < this.groupSize; i++) {
+			if (this.groups[i] == null) {
+				continue;
+			}
+			
+			Sprite[] sprites = this.groups[i].getSprites();
+			int size = this.groups[i].getSize();
+			for (int j = 0; j < size; j++) {
+				sprites[j].storePreviousPosition();
+			}
+		}
 		
-		this.checkCollisions();
+		this.background.storePreviousPosition();
 	}
 	
 	/**
@@ -327,22 +646,56 @@ public class PlayField {
 	 * Updates sprites in sprite groups on this playfield.
 	 */
 	protected void updateSpriteGroups(long elapsedTime) {
-		for (int i = 0; i < this.groups.length; i++) {
-			if (this.groups[i].isActive()) {
+		for (int i = 0; i < this.groupSize; i++) {
+			if (this.groups[i] != null && this.groups[i].isActive()) {
 				this.groups[i].update(elapsedTime);
 			}
 		}
 	}
 	
+	/**
+	 * Collects visible sprites of all active sprite groups on this playfield,
+	 * called once per frame before rendering if the playfield has been updated
+	 * or the background has been moved since the last culling.
+	 * 
+	 * @see SpriteGroup#cull()
+	 */
+	protected void cullSprites() {
+		for (int i = 0; i < this.groupSize; i++) {
+			if (this.groups[i] != null && this.groups[i].isActive()) {
+				this.groups[i].cull();
+			}
+		}
+		
+		this.cullX = this.background.getX();
+		this.cullY = this.background.getY();
+	}
+	
+	// culls the sprites if culling is enabled and the visible sprites are
+	// stale, the only place the playfield culls
+	private void cullIfChanged() {
+		if (this.culling
+		        && (this.background.getX() != this.cullX || this.background
+		                .getY() != this.cullY)) {
+			this.cullSprites();
+		}
+	}
+	
 	/**
 	 * Checks for collision event.
 	 */
 	protected void checkCollisions() {
-		for (int i = 0; i < this.collisions.length; i++) {
-			if (this.collisions[i].isActive()) {
-				this.collisions[i].checkCollision();
+		Profiler.begin(Profiler.COLLISION);
+		try {
+			for (int i = 0; i < this.collisionSize; i++) {
+				if (this.collisions[i].isActive()) {
+					this.collisions[i].checkCollision();
+				}
 			}
 		}
+		finally {
+			Profiler.end(Profiler.COLLISION);
+		}
 	}
 	
 	/** ************************************************************************* */
@@ -352,16 +705,68 @@ public class PlayField {
 	/**
 	 * Renders background, and sprite groups (with/without
 	 * {@linkplain #setComparator(Comparator) comparator}).
+	 * <p>
+	 * 
+	 * If this playfield has a
+	 * {@linkplain #setDirtyRectManager(DirtyRectManager) dirty rectangle
+	 * manager}, only the changed regions are repainted.
 	 */
 	public void render(Graphics2D g) {
-		this.renderBackground(g);
-		
-		if (this.comparator == null) {
-			this.renderSpriteGroups(g);
+		Profiler.begin(Profiler.PLAYFIELD_RENDER);
+		try {
+			// culled after the game has moved the background (for example
+			// centered to the player)
+			this.cullIfChanged();
 			
+			if (this.dirtyRects != null) {
+				this.renderDirtyRects(g);
+			}
+			else {
+				this.renderBackground(g);
+				
+				if (this.renderQueue != null) {
+					this.renderQueuedSprites(g);
+				}
+				else if (this.comparator == null) {
+					this.renderSpriteGroups(g);
+					
+				}
+				else {
+					this.renderSpriteGroups(g, this.comparator);
+				}
+			}
 		}
-		else {
-			this.renderSpriteGroups(g, this.comparator);
+		finally {
+			Profiler.end(Profiler.PLAYFIELD_RENDER);
+		}
+	}
+	
+	/**
+	 * Renders this playfield with the sprites and background placed between
+	 * their previous and current position by specified interpolation, range
+	 * from [0 - 1].
+	 * <p>
+	 * 
+	 * Used with the {@linkplain com.golden.gamedev.Game#setFixedTimestep(long)
+	 * fixed timestep} game loop, the playfield should be
+	 * {@linkplain #setInterpolated(boolean) interpolated} :
+	 * 
+	 * <pre>
+	 * playfield.render(g, getInterpolation());
+	 * </pre>
+	 * 
+	 * Backgrounds that override {@link Background#render(Graphics2D)} (for
+	 * example parallax background) are rendered at their current position.
+	 * 
+	 * @see Background#setInterpolation(double)
+	 */
+	public void render(Graphics2D g, double alpha) {
+		this.background.setInterpolation(alpha);
+		try {
+			this.render(g);
+		}
+		finally {
+			this.background.setInterpolation(1);
 		}
 	}
 	
@@ -369,15 +774,21 @@ public class PlayField {
 	 * Renders background to specified graphics context.
 	 */
 	protected void renderBackground(Graphics2D g) {
-		this.background.render(g);
+		Profiler.begin(Profiler.BACKGROUND_RENDER);
+		try {
+			this.background.render(g);
+		}
+		finally {
+			Profiler.end(Profiler.BACKGROUND_RENDER);
+		}
 	}
 	
 	/**
 	 * Renders sprite groups to specified graphics context.
 	 */
 	protected void renderSpriteGroups(Graphics2D g) {
-		for (int i = 0; i < this.groups.length; i++) {
-			if (this.groups[i].isActive()) {
+		for (int i = 0; i < this.groupSize; i++) {
+			if (this.groups[i] != null && this.groups[i].isActive()) {
 				this.groups[i].render(g);
 			}
 		}
@@ -405,23 +816,35 @@ public class PlayField {
 			len = this.cacheSprite.length;
 		}
 		
-		for (int i = 0; i < this.groups.length; i++) {
-			if (!this.groups[i].isActive()) {
+		for (int i = 0; i < this.groupSize; i++) {
+			if (this.groups[i] == null || !this.groups[i].isActive()) {
 				continue;
 			}
 			
-			Sprite[] member = this.groups[i].getSprites();
-			int size = this.groups[i].getSize();
+			Sprite[] member;
+			int size;
+			boolean culled = this.groups[i].isCulled();
+			if (culled) {
+				// the group has been culled, all of them are on screen
+				member = this.groups[i].getVisibleSprites();
+				size = this.groups[i].getVisibleSize();
+			}
+			else {
+				member = this.groups[i].getSprites();
+				size = this.groups[i].getSize();
+			}
 			
 			for (int j = 0; j < size; j++) {
-				if (member[j].isActive() && // only active and onscreen sprite
-				        member[j].isOnScreen()) { // is sorted and rendered
+				// only active and onscreen sprite is sorted and rendered
+				if (member[j].isActive()
+				        && (culled || member[j].isOnScreen())) {
 				
 					if (num >= len) {
 						// expand sprite storage
-						this.cacheSprite = (Sprite[]) Utility.expand(
-						        this.cacheSprite, 20);
-						len = this.cacheSprite.length;
+						Sprite[] dest = new Sprite[Math.max(len * 2, 20)];
+						System.arraycopy(this.cacheSprite, 0, dest, 0, num);
+						this.cacheSprite = dest;
+						len = dest.length;
 					}
 					
 					this.cacheSprite[num++] = member[j];
@@ -437,6 +860,181 @@ public class PlayField {
 		}
 	}
 	
+	// collects active and on screen sprites of active groups in group order,
+	// the returned list is reused and must be cleared after use
+	ObjectList collectSprites() {
+		return this.collectSprites(null);
+	}
+	
+	// the same as collectSprites(), and adds the group index of each sprite
+	// into specified list (if not null)
+	ObjectList collectSprites(IntList groupIndices) {
+		this.cullIfChanged();
+		
+		ObjectList list = this.renderList;
+		list.clear();
+		for (int i = 0; i < this.groupSize; i++) {
+			if (this.groups[i] == null || !this.groups[i].isActive()) {
+				continue;
+			}
+			
+			boolean culled = this.groups[i].isCulled();
+			Sprite[] member = (culled) ? this.groups[i].getVisibleSprites()
+			        : this.groups[i].getSprites();
+			int size = (culled) ? this.groups[i].getVisibleSize()
+			        : this.groups[i].getSize();
+			
+			for (int j = 0; j < size; j++) {
+				if (member[j].isActive()
+				        && (culled || member[j].isOnScreen())) {
+					list.add(member[j]);
+					if (groupIndices != null) {
+						groupIndices.add(i);
+					}
+				}
+			}
+		}
+		
+		return list;
+	}
+	
+	/**
+	 * Renders all sprites through this playfield
+	 * {@linkplain #setRenderQueue(RenderQueue) render queue}, sprites are
+	 * rendered layer by layer and grouped by their images within a layer.
+	 * <p>
+	 * 
+	 * Without comparator, each sprite group is one layer. With comparator,
+	 * the active and on screen sprites are sorted, and sprites that are equal
+	 * according to the comparator share one layer.
+	 */
+	protected void renderQueuedSprites(Graphics2D g) {
+		RenderQueue queue = this.renderQueue;
+		
+		if (this.comparator == null) {
+			for (int i = 0; i < this.groupSize; i++) {
+				if (this.groups[i] == null || !this.groups[i].isActive()) {
+					continue;
+				}
+				
+				boolean culled = this.groups[i].isCulled();
+				Sprite[] member = (culled) ? this.groups[i]
+				        .getVisibleSprites() : this.groups[i].getSprites();
+				int size = (culled) ? this.groups[i].getVisibleSize()
+				        : this.groups[i].getSize();
+				
+				for (int j = 0; j < size; j++) {
+					if (member[j].isActive()) {
+						queue.add(member[j], i);
+					}
+				}
+			}
+		}
+		else {
+			// sorts the sprites the same way as sort rendering
+			ObjectList list = this.collectSprites();
+			list.sort(this.comparator);
+			
+			Object[] sprites = list.getElements();
+			int layer = 0;
+			for (int i = 0; i < list.size(); i++) {
+				if (i > 0
+				        && this.comparator.compare(sprites[i - 1],
+				                sprites[i]) != 0) {
+					// not equal, the sprites may overlap in sorted order
+					layer++;
+				}
+				queue.add((Sprite) sprites[i], layer);
+			}
+			list.clear(); // let gc do its work
+		}
+		
+		queue.flush(g);
+	}
+	
+	/**
+	 * Repaints the changed regions of the scene cache of the
+	 * {@linkplain #setDirtyRectManager(DirtyRectManager) dirty rectangle
+	 * manager}, and draws the cache to specified graphics context.
+	 * <p>
+	 * 
+	 * The sprites are rendered in the same order as the normal rendering,
+	 * sorted by this playfield comparator, or else group by group sorted by
+	 * each {@linkplain SpriteGroup#setComparator(Comparator) group comparator}.
+	 * Sprites are drawn one by one, an overridden
+	 * {@link SpriteGroup#render(Graphics2D)} is not called.
+	 */
+	protected void renderDirtyRects(Graphics2D g) {
+		DirtyRectManager dirty = this.dirtyRects;
+		dirty.begin(this.background);
+		
+		if (this.comparator == null) {
+			for (int i = 0; i < this.groupSize; i++) {
+				if (this.groups[i] != null && this.groups[i].isActive()) {
+					this.groups[i].sortForRender();
+				}
+			}
+		}
+		
+		ObjectList list = this.collectSprites();
+		if (this.comparator != null) {
+			list.sort(this.comparator);
+		}
+		
+		// compares the sprites with the previous frame
+		Rectangle clip = this.background.getClip();
+		double bgX = this.background.getRenderX(), bgY = this.background
+		        .getRenderY();
+		
+		Object[] sprites = list.getElements();
+		int num = list.size();
+		IntList pos = this.dirtyBounds;
+		pos.clear();
+		for (int i = 0; i < num; i++) {
+			Sprite s = (Sprite) sprites[i];
+			
+			// the same position as Sprite.render(Graphics2D)
+			int x = (int) (s.getRenderX() - bgX + clip.x);
+			int y = (int) (s.getRenderY() - bgY + clip.y);
+			pos.add(x);
+			pos.add(y);
+			
+			dirty.track(s, x, y);
+		}
+		
+		if (dirty.end()) {
+			Graphics2D cg = dirty.createGraphics(null);
+			this.renderBackground(cg);
+			for (int i = 0; i < num; i++) {
+				((Sprite) sprites[i]).render(cg);
+			}
+			cg.dispose();
+		}
+		else {
+			int[] p = pos.getElements();
+			Rectangle r = new Rectangle();
+			for (int k = 0; k < dirty.getRegionCount(); k++) {
+				dirty.getRegion(k, r);
+				
+				Graphics2D cg = dirty.createGraphics(r);
+				this.renderBackground(cg);
+				for (int i = 0; i < num; i++) {
+					Sprite s = (Sprite) sprites[i];
+					if (p[i * 2] < r.x + r.width
+					        && p[i * 2] + s.getWidth() > r.x
+					        && p[i * 2 + 1] < r.y + r.height
+					        && p[i * 2 + 1] + s.getHeight() > r.y) {
+						s.render(cg);
+					}
+				}
+				cg.dispose();
+			}
+		}
+		
+		dirty.drawCache(g);
+		list.clear(); // let gc do its work
+	}
+	
 	/**
 	 * Clears cache sprite.
 	 * <p>
@@ -459,6 +1057,47 @@ public class PlayField {
 		this.cacheSprite = new Sprite[0];
 	}
 	
+	/**
+	 * Returns true, if any sprite in this playfield has been changed (moved,
+	 * changed its image, speed, or active state, see
+	 * {@link Sprite#stateChanged()}), added or removed, any group has been
+	 * added, removed, or its active state changed, or the background has been
+	 * moved or replaced since the last time this method was called, used to
+	 * skip rendering a game that has not changed.
+	 * <p>
+	 * 
+	 * The changes are flagged by the sprites and groups themselves, this
+	 * method doesn't look at the sprites. Changes that are not notified (for
+	 * example a sprite that renders itself differently, or a changed
+	 * background tile) are not detected.
+	 * 
+	 * @see com.golden.gamedev.Game#setRenderOnDemand(boolean)
+	 */
+	public boolean isChanged() {
+		boolean changed = this.registry.checkModified();
+		
+		if (this.groupsChanged) {
+			this.groupsChanged = false;
+			changed = true;
+		}
+		
+		if (this.background != this.checkedBackground
+		        || this.background.getX() != this.checkedX
+		        || this.background.getY() != this.checkedY) {
+			this.checkedBackground = this.background;
+			this.checkedX = this.background.getX();
+			this.checkedY = this.background.getY();
+			changed = true;
+		}
+		
+		return changed;
+	}
+	
+	// called by the group when it is activated or deactivated
+	void groupChanged() {
+		this.groupsChanged = true;
+	}
+	
 	/** ************************************************************************* */
 	/** ************************ OTHER FUNCTIONS ******************************** */
 	/** ************************************************************************* */
@@ -480,9 +1119,186 @@ public class PlayField {
 		}
 		
 		// force all sprites to use same background
-		for (int i = 0; i < this.groups.length; i++) {
-			this.groups[i].setBackground(backgr);
+		for (int i = 0; i < this.groupSize; i++) {
+			if (this.groups[i] != null) {
+				this.groups[i].setBackground(backgr);
+			}
+		}
+		// the visible sprites are culled again on the next rendering
+		this.cullX = Double.NaN;
+	}
+	
+	/**
+	 * Returns the parallel updater used by all sprite groups in this
+	 * playfield, or null if the sprites are updated serially.
+	 * 
+	 * @see #setParallelUpdater(ParallelUpdater)
+	 */
+	public ParallelUpdater getParallelUpdater() {
+		return this.updater;
+	}
+	
+	/**
+	 * Sets the parallel updater used by all sprite groups in this playfield,
+	 * including groups that added later. Only sprites that implement
+	 * {@link IsolatedUpdate} are updated in parallel, specify null to update
+	 * all sprites serially (the default).
+	 * 
+	 * @see ParallelUpdater
+	 * @see SpriteGroup#setParallelUpdater(ParallelUpdater)
+	 */
+	public void setParallelUpdater(ParallelUpdater updater) {
+		this.updater = updater;
+		
+		for (int i = 0; i < this.groupSize; i++) {
+			if (this.groups[i] != null) {
+				this.groups[i].setParallelUpdater(updater);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the registry that assigns handles to all sprites in this
+	 * playfield groups.
+	 * <p>
+	 * 
+	 * A sprite is registered when it is added into any group in this
+	 * playfield, and unregistered when it is removed from the group (including
+	 * inactive sprites thrown by the group). The sprite keeps its handle as
+	 * long as it is member of any group of this playfield, and until the next
+	 * update after it has been removed from all of them, so a sprite moved
+	 * from one group to another keeps its handle.
+	 * 
+	 * @see Sprite#getHandle()
+	 * @see #getSprite(int)
+	 */
+	public SpriteRegistry getSpriteRegistry() {
+		return this.registry;
+	}
+	
+	/**
+	 * Returns the sprite in this playfield of specified handle, or null if the
+	 * handle is not valid anymore.
+	 * 
+	 * @see Sprite#getHandle()
+	 */
+	public Sprite getSprite(int handle) {
+		return this.registry.get(handle);
+	}
+	
+	/**
+	 * Returns the hash of this playfield simulation state : the background
+	 * position, and the {@linkplain Sprite#getStateHash() state} of every
+	 * sprite in this playfield groups. Two deterministic simulations that
+	 * have been given the same input have equal state hash every update.
+	 * <p>
+	 * 
+	 * The hash is incremental, only sprites that have changed since the
+	 * previous call are hashed again, therefore it can be compared on every
+	 * update to detect desync as soon as it happens :
+	 * 
+	 * <pre>
+	 * public void update(long elapsedTime) {
+	 * 	playfield.update(elapsedTime);
+	 * 	if (playfield.getStateHash() != peerHash[getTick()]) {
+	 * 		// desync
+	 * 	}
+	 * }
+	 * </pre>
+	 * 
+	 * @see SpriteRegistry#getStateHash()
+	 * @see com.golden.gamedev.Game#setDeterministic(boolean)
+	 */
+	public long getStateHash() {
+		long h = this.registry.getStateHash();
+		if (this.background != null) {
+			h = 31 * h + Double.doubleToLongBits(this.background.getX());
+			h = 31 * h + Double.doubleToLongBits(this.background.getY());
 		}
+		
+		return h;
+	}
+	
+	/**
+	 * Returns the timer wheel updated by this playfield, or null if this
+	 * playfield has no timer wheel.
+	 * 
+	 * @see #setTimerWheel(TimerWheel)
+	 */
+	public TimerWheel getTimerWheel() {
+		return this.timerWheel;
+	}
+	
+	/**
+	 * Sets the timer wheel that updated by this playfield on every update,
+	 * before the sprite groups are updated. Timers and
+	 * {@linkplain AnimatedSprite#setTimerWheel(TimerWheel) animated sprites}
+	 * registered into the wheel are then driven by this playfield.
+	 * 
+	 * @see TimerWheel
+	 */
+	public void setTimerWheel(TimerWheel wheel) {
+		this.timerWheel = wheel;
+	}
+	
+	/**
+	 * Returns true, if sprites outside the view area are culled once per
+	 * frame.
+	 * 
+	 * @see #setCulling(boolean)
+	 */
+	public boolean isCulling() {
+		return this.culling;
+	}
+	
+	/**
+	 * Sets whether sprites outside the background view area are culled once
+	 * per frame, default is false.
+	 * <p>
+	 * 
+	 * When enabled, each sprite group collects its
+	 * {@linkplain SpriteGroup#getVisibleSprites() visible sprites} once before
+	 * rendering, if the playfield has been updated or the background has been
+	 * moved since the last rendering, and the rendering only walks through
+	 * those visible sprites. Collision managers that
+	 * {@linkplain CollisionManager#setVisibleOnly(boolean) check visible
+	 * sprites only}, mouse checking, and
+	 * {@linkplain AdvanceSpriteGroup advance sprite groups} use the same list,
+	 * that is the sprites visible on the last rendered frame.
+	 * 
+	 * @see SpriteGroup#cull()
+	 */
+	public void setCulling(boolean b) {
+		this.culling = b;
+		
+		if (!b) {
+			for (int i = 0; i < this.groupSize; i++) {
+				if (this.groups[i] != null) {
+					this.groups[i].resetCulling();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns true, if sprites and background positions are stored on every
+	 * update for interpolated rendering.
+	 * 
+	 * @see #setInterpolated(boolean)
+	 */
+	public boolean isInterpolated() {
+		return this.interpolated;
+	}
+	
+	/**
+	 * Sets whether sprites and background positions are stored at the start of
+	 * every update, to be rendered between their previous and current position
+	 * by {@link #render(Graphics2D, double)}, default is false.
+	 * 
+	 * @see com.golden.gamedev.Game#setFixedTimestep(long)
+	 */
+	public void setInterpolated(boolean b) {
+		this.interpolated = b;
 	}
 	
 	/**
@@ -527,6 +1343,80 @@ public class PlayField {
 	 */
 	public void setComparator(Comparator c) {
 		this.comparator = c;
+		
+		if (this.dirtyRects != null) {
+			// sprites overlapping order changed
+			this.dirtyRects.invalidate();
+		}
+	}
+	
+	/**
+	 * Returns the render queue of this playfield, or null if the sprites are
+	 * rendered directly by their groups.
+	 * 
+	 * @see #setRenderQueue(RenderQueue)
+	 */
+	public RenderQueue getRenderQueue() {
+		return this.renderQueue;
+	}
+	
+	/**
+	 * Sets the render queue used to render this playfield sprites, specify
+	 * null to let the sprite groups render their sprites (the default).
+	 * <p>
+	 * 
+	 * With a render queue the sprites are grouped by image within each sprite
+	 * group, reducing texture switches on the OpenGL graphics engines, but the
+	 * order of sprites within one group is no longer kept.
+	 * 
+	 * @see RenderQueue
+	 */
+	public void setRenderQueue(RenderQueue queue) {
+		this.renderQueue = queue;
+	}
+	
+	/**
+	 * Returns the dirty rectangle manager of this playfield, or null if this
+	 * playfield is fully rendered every frame.
+	 * 
+	 * @see #setDirtyRectManager(DirtyRectManager)
+	 */
+	public DirtyRectManager getDirtyRectManager() {
+		return this.dirtyRects;
+	}
+	
+	/**
+	 * Sets the dirty rectangle manager of this playfield, specify null to
+	 * fully render the playfield every frame (the default).
+	 * <p>
+	 * 
+	 * With a dirty rectangle manager, only the regions of sprites that moved
+	 * or changed image since the previous frame are repainted, suitable for
+	 * mostly static scene, such as puzzle and board games.
+	 * <p>
+	 * 
+	 * Playfield and group comparators are respected, but sprite groups that
+	 * override {@link SpriteGroup#render(Graphics2D)} are not supported, their
+	 * sprites are drawn one by one as if the group is not overridden.
+	 * 
+	 * @see DirtyRectManager
+	 */
+	public void setDirtyRectManager(DirtyRectManager dirty) {
+		this.dirtyRects = dirty;
+		
+		if (dirty != null) {
+			dirty.invalidate();
+		}
+	}
+	
+	/**
+	 * The position and groups of a collision manager in this playfield.
+	 */
+	private static final class Registration {
+		
+		private SpriteGroup group1, group2;
+		private int index; // index in the collision managers
+		
 	}
 	
 }
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.object;
+
+// JFC
+import java.awt.Graphics2D;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Collects sprites to be rendered in one frame, and renders them sorted by
+ * layer and then by source image, so sprites that share the same image are
+ * drawn one after another.
+ * <p>
+ * 
+ * On the OpenGL graphics engines every image is a texture, drawing sprites
+ * grouped by image avoids binding the texture again for every sprite. On
+ * Java2D the grouped drawing is at least as fast as the unsorted one.
+ * <p>
+ * 
+ * Layers are always rendered in ascending order, but <b>the order of sprites
+ * within one layer is not preserved</b>, sprites in the same layer should not
+ * rely on overlapping each other in a particular order. Sprites of the same
+ * image in the same layer keep their insertion order.
+ * <p>
+ * 
+ * A playfield with a render queue puts each of its sprite group in its own
+ * layer, or when the playfield has a comparator, puts sprites that are equal
+ * according to the comparator in the same layer.
+ * 
+ * @see PlayField#setRenderQueue(RenderQueue)
+ */
+public class RenderQueue {
+	
+	private static final int SEQUENCE_BITS = 20;
+	private static final int SEQUENCE_MASK =
+	        (1 << RenderQueue.SEQUENCE_BITS) - 1;
+	private static final int IMAGE_BITS = 20;
+	private static final int MAX_IMAGES = 4096; // known images
+	private static final int LAYER_SHIFT = RenderQueue.IMAGE_BITS
+	        + RenderQueue.SEQUENCE_BITS;
+	
+	/**
+	 * The maximum layer of a sprite in the queue.
+	 */
+	public static final int MAX_LAYER =
+	        (1 << (63 - RenderQueue.LAYER_SHIFT)) - 1;
+	
+	/** *************************** QUEUED SPRITES ****************************** */
+	
+	private Sprite[] sprites;
+	private long[] keys; // layer, image key, sequence
+	private int size;
+	
+	// image -> image key, kept between frames for a stable order
+	private final Map imageKeys = new IdentityHashMap();
+	
+	private int imageSwitches; // image changes on the last flush
+	
+	/** ************************************************************************* */
+	/** ***************************** CONSTRUCTOR ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Creates new empty <code>RenderQueue</code>.
+	 */
+	public RenderQueue() {
+		this.sprites = new Sprite[256];
+		this.keys = new long[256];
+	}
+	
+	/** ************************************************************************* */
+	/** *************************** QUEUE OPERATION ***************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Adds specified sprite to be rendered in specified layer, range from [0 -
+	 * {@link #MAX_LAYER}].
+	 */
+	public void add(Sprite s, int layer) {
+		if (this.size >= this.sprites.length) {
+			if (this.size > RenderQueue.SEQUENCE_MASK) {
+				throw new IllegalStateException("Render queue is full");
+			}
+			
+			// geometric growth, amortized constant time insertion
+			Sprite[] dest = new Sprite[this.sprites.length * 2];
+			System.arraycopy(this.sprites, 0, dest, 0, this.size);
+			this.sprites = dest;
+			
+			long[] destKeys = new long[this.keys.length * 2];
+			System.arraycopy(this.keys, 0, destKeys, 0, this.size);
+			this.keys = destKeys;
+		}
+		
+		layer = Math.min(Math.max(layer, 0), RenderQueue.MAX_LAYER);
+		long image = this.getImageKey(s.getImage());
+		
+		this.keys[this.size] = ((long) layer << RenderQueue.LAYER_SHIFT)
+		        | (image << RenderQueue.SEQUENCE_BITS) | this.size;
+		this.sprites[this.size++] = s;
+	}
+	
+	/**
+	 * Renders all sprites in this queue to specified graphics context sorted
+	 * by layer and image, and empties the queue.
+	 */
+	public void flush(Graphics2D g) {
+		Arrays.sort(this.keys, 0, this.size);
+		
+		this.imageSwitches = 0;
+		long lastImage = -1;
+		for (int i = 0; i < this.size; i++) {
+			long key = this.keys[i];
+			
+			long image = key >>> RenderQueue.SEQUENCE_BITS;
+			if (image != lastImage) {
+				this.imageSwitches++;
+				lastImage = image;
+			}
+			
+			this.sprites[(int) (key & RenderQueue.SEQUENCE_MASK)].render(g);
+		}
+		
+		this.clear();
+	}
+	
+	/**
+	 * Empties this queue without rendering the sprites.
+	 */
+	public void clear() {
+		for (int i = 0; i < this.size; i++) {
+			// let gc do its work
+			this.sprites[i] = null;
+		}
+		
+		this.size = 0;
+	}
+	
+	private int getImageKey(Object image) {
+		if (image == null) {
+			return 0;
+		}
+		
+		Integer key = (Integer) this.imageKeys.get(image);
+		if (key == null) {
+			if (this.imageKeys.size() >= RenderQueue.MAX_IMAGES) {
+				// too many images have been used (probably images created
+				// on the fly), starts over
+				this.imageKeys.clear();
+			}
+			
+			key = new Integer(this.imageKeys.size() + 1);
+			this.imageKeys.put(image, key);
+		}
+		
+		return key.intValue();
+	}
+	
+	/** ************************************************************************* */
+	/** ************************* QUEUE PROPERTIES ****************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns total sprites in this queue.
+	 */
+	public int getSize() {
+		return this.size;
+	}
+	
+	/**
+	 * Returns how many times the image changed between two consecutive sprites
+	 * on the last flush, that is the number of texture binds on the OpenGL
+	 * graphics engines.
+	 */
+	public int getImageSwitches() {
+		return this.imageSwitches;
+	}
+	
+	/**
+	 * Forgets all known images, the images are referenced by this queue until
+	 * this method is called.
+	 */
+	public void clearImages() {
+		this.imageKeys.clear();
+	}
+	
+	public String toString() {
+		return super.toString() + " " + "[size=" + this.size + ", images="
+		        + this.imageKeys.size() + ", imageSwitches="
+		        + this.imageSwitches + "]";
+	}
+	
+}
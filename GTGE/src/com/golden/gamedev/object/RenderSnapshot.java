@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.object;
+
+// JFC
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Comparator;
+
+import com.golden.gamedev.util.IntList;
+import com.golden.gamedev.util.ObjectList;
+
+/**
+ * Copy of the render state of a playfield (background position, and the
+ * image, screen position, and layer of every visible sprite in render order),
+ * that can be rendered later while the playfield itself keeps being updated.
+ * <p>
+ * 
+ * Used by the {@linkplain com.golden.gamedev.Game#setPipelined(boolean)
+ * pipelined game loop}, where the next frame is updated by another thread
+ * while the snapshot of the previous frame is rendered.
+ * <p>
+ * 
+ * Only the sprite {@linkplain Sprite#getImage() image} is captured, sprites
+ * that override {@link Sprite#render(Graphics2D, int, int)} to draw something
+ * else are rendered as their plain image. The background is rendered by
+ * {@link Background#render(Graphics2D, int, int, int, int, int, int)} from
+ * the captured position, backgrounds that render themselves in
+ * {@link Background#render(Graphics2D)} (for example parallax background) are
+ * not captured.
+ * <p>
+ * 
+ * The layer of a sprite is the same as the one used by
+ * {@linkplain PlayField#setRenderQueue(RenderQueue) render queue}: the index
+ * of its sprite group, or with playfield comparator, the sorted sprites that
+ * are equal according to the comparator share one layer.
+ * 
+ * @see #capture(PlayField, double)
+ */
+public class RenderSnapshot {
+	
+	/** ************************** CAPTURED STATE ******************************* */
+	
+	private Background background;
+	private int backgroundX, backgroundY;
+	private final Rectangle clip = new Rectangle();
+	
+	private BufferedImage[] images;
+	private int[] positions; // screen x, y
+	private int[] layers;
+	private int size;
+	
+	private final IntList groupIndices = new IntList();
+	
+	/** ************************************************************************* */
+	/** ***************************** CONSTRUCTOR ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Creates new empty <code>RenderSnapshot</code>.
+	 */
+	public RenderSnapshot() {
+		this.images = new BufferedImage[256];
+		this.positions = new int[512];
+		this.layers = new int[256];
+	}
+	
+	/** ************************************************************************* */
+	/** ************************** CAPTURE STATE ******************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Replaces this snapshot content with the current render state of
+	 * specified playfield, the same sprites in the same order the playfield
+	 * would render.
+	 * 
+	 * @see #capture(PlayField, double)
+	 */
+	public void capture(PlayField field) {
+		this.capture(field, 1);
+	}
+	
+	/**
+	 * Replaces this snapshot content with the render state of specified
+	 * playfield placed between the previous and current position by specified
+	 * interpolation, range from [0 - 1], the same as
+	 * {@link PlayField#render(Graphics2D, double)} would render.
+	 * <p>
+	 * 
+	 * In {@linkplain com.golden.gamedev.Game#setPipelined(boolean) pipelined
+	 * game loop}, the interpolation must be taken when the snapshot is
+	 * captured, for example :
+	 * 
+	 * <pre>
+	 * protected void captureRenderState() {
+	 * 	snapshot.capture(playfield, getInterpolation());
+	 * }
+	 * </pre>
+	 */
+	public void capture(PlayField field, double alpha) {
+		this.clear();
+		
+		Background bg = field.getBackground();
+		double previous = bg.getInterpolation();
+		bg.setInterpolation(alpha);
+		try {
+			this.setBackground(bg);
+			
+			IntList groups = this.groupIndices;
+			groups.clear();
+			
+			Comparator c = field.getComparator();
+			ObjectList list = field.collectSprites((c == null) ? groups
+			        : null);
+			if (c != null) {
+				list.sort(c);
+			}
+			
+			Object[] sprites = list.getElements();
+			int num = list.size();
+			int layer = 0;
+			for (int i = 0; i < num; i++) {
+				if (c == null) {
+					layer = groups.get(i);
+				}
+				else if (i > 0 && c.compare(sprites[i - 1], sprites[i]) != 0) {
+					// the same layering as render queue
+					layer++;
+				}
+				
+				this.add((Sprite) sprites[i], layer);
+			}
+			list.clear(); // let gc do its work
+		}
+		finally {
+			bg.setInterpolation(previous);
+		}
+	}
+	
+	/**
+	 * Captures the current position and view area of specified background.
+	 */
+	public void setBackground(Background background) {
+		this.background = background;
+		
+		if (background != null) {
+			this.backgroundX = (int) background.getRenderX();
+			this.backgroundY = (int) background.getRenderY();
+			
+			Rectangle viewport = background.getClip();
+			this.clip.setBounds(viewport.x, viewport.y, Math.min(background
+			        .getWidth(), viewport.width), Math.min(background
+			        .getHeight(), viewport.height));
+		}
+	}
+	
+	/**
+	 * Captures the current image and screen position of specified sprite in
+	 * the layer of the last added image, the sprite is skipped if it is
+	 * outside its background view area.
+	 */
+	public void add(Sprite s) {
+		this.add(s, this.getLastLayer());
+	}
+	
+	/**
+	 * Captures the current image and screen position of specified sprite in
+	 * specified layer, the sprite is skipped if it is outside its background
+	 * view area.
+	 */
+	public void add(Sprite s, int layer) {
+		Background bg = s.getBackground();
+		double screenX = s.getRenderX() - bg.getRenderX();
+		double screenY = s.getRenderY() - bg.getRenderY();
+		Rectangle viewport = bg.getClip();
+		
+		// the same check as Sprite.render(Graphics2D)
+		if (screenX + s.getWidth() <= 0 || screenY + s.getHeight() <= 0
+		        || screenX > viewport.width || screenY > viewport.height) {
+			return;
+		}
+		
+		this.add(s.getImage(), (int) (screenX + viewport.x),
+		        (int) (screenY + viewport.y), layer);
+	}
+	
+	/**
+	 * Adds specified image to be rendered at specified screen position, after
+	 * all previously added images and in the layer of the last added image.
+	 */
+	public void add(BufferedImage image, int x, int y) {
+		this.add(image, x, y, this.getLastLayer());
+	}
+	
+	/**
+	 * Adds specified image to be rendered at specified screen position in
+	 * specified layer, after all previously added images.
+	 */
+	public void add(BufferedImage image, int x, int y, int layer) {
+		if (image == null) {
+			return;
+		}
+		
+		if (this.size >= this.images.length) {
+			BufferedImage[] dest = new BufferedImage[this.images.length * 2];
+			System.arraycopy(this.images, 0, dest, 0, this.size);
+			this.images = dest;
+			
+			int[] pos = new int[this.positions.length * 2];
+			System.arraycopy(this.positions, 0, pos, 0, this.size * 2);
+			this.positions = pos;
+			
+			int[] lay = new int[this.layers.length * 2];
+			System.arraycopy(this.layers, 0, lay, 0, this.size);
+			this.layers = lay;
+		}
+		
+		this.images[this.size] = image;
+		this.positions[this.size * 2] = x;
+		this.positions[this.size * 2 + 1] = y;
+		this.layers[this.size] = layer;
+		this.size++;
+	}
+	
+	private int getLastLayer() {
+		return (this.size > 0) ? this.layers[this.size - 1] : 0;
+	}
+	
+	/**
+	 * Empties this snapshot.
+	 */
+	public void clear() {
+		for (int i = 0; i < this.size; i++) {
+			// let gc do its work
+			this.images[i] = null;
+		}
+		
+		this.size = 0;
+		this.background = null;
+	}
+	
+	/** ************************************************************************* */
+	/** ************************** RENDER SNAPSHOT ****************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Renders the captured background and images to specified graphics
+	 * context.
+	 */
+	public void render(Graphics2D g) {
+		if (this.background != null) {
+			this.background.render(g, this.backgroundX, this.backgroundY,
+			        this.clip.x, this.clip.y, this.clip.width,
+			        this.clip.height);
+		}
+		
+		for (int i = 0; i < this.size; i++) {
+			g.drawImage(this.images[i], this.positions[i * 2],
+			        this.positions[i * 2 + 1], null);
+		}
+	}
+	
+	/**
+	 * Returns total images in this snapshot.
+	 */
+	public int getSize() {
+		return this.size;
+	}
+	
+	/**
+	 * Returns the image at specified index in render order.
+	 */
+	public BufferedImage getImage(int index) {
+		return this.images[index];
+	}
+	
+	/**
+	 * Returns the screen x-coordinate of the image at specified index.
+	 */
+	public int getX(int index) {
+		return this.positions[index * 2];
+	}
+	
+	/**
+	 * Returns the screen y-coordinate of the image at specified index.
+	 */
+	public int getY(int index) {
+		return this.positions[index * 2 + 1];
+	}
+	
+	/**
+	 * Returns the layer of the image at specified index.
+	 */
+	public int getLayer(int index) {
+		return this.layers[index];
+	}
+	
+	public String toString() {
+		return super.toString() + " " + "[size=" + this.size + ", background="
+		        + this.background + "]";
+	}
+	
+}
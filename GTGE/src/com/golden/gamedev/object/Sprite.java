@@ -18,8 +18,11 @@ package com.golden.gamedev.object;
 
 // JFC
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.golden.gamedev.object.collision.CollisionRect;
 import com.golden.gamedev.object.collision.CollisionShape;
@@ -77,9 +80,6 @@ public class Sprite implements java.io.Serializable {
 	private double horizontalSpeed, verticalSpeed; // in pixels per millisecond
 	private double oldX, oldY; // old position before this sprite moves
 	        
-	// ///////// optimization ///////////
-	private static double screenX, screenY; // screen position = x-background.x
-	        
 	/** **************************** SPRITE IMAGES ****************************** */
 	
 	private transient BufferedImage image;
@@ -112,6 +112,23 @@ public class Sprite implements java.io.Serializable {
 	
 	// from its group
 	
+	/** *************************** SPRITE HANDLE ******************************* */
+	
+	transient int handle; // assigned by SpriteRegistry
+	
+	/** **************************** STATE HASH ******************************** */
+	
+	// used by SpriteRegistry state hashing
+	transient SpriteRegistry registry; // registry of the handle
+	transient long stateValue; // state hash when last hashed
+	transient boolean stateQueued; // queued to be hashed again
+	
+	/** ************************* INTERPOLATION ********************************* */
+	
+	// the position at the start of the current update step
+	private transient double previousX, previousY;
+	private transient boolean previousStored;
+	
 	/** ************************************************************************* */
 	/** ***************************** CONSTRUCTOR ******************************* */
 	/** ************************************************************************* */
@@ -215,6 +232,10 @@ public class Sprite implements java.io.Serializable {
 			this.width = image.getWidth();
 			this.height = image.getHeight();
 		}
+		
+		if (this.registry != null) {
+			this.registry.imageChanged();
+		}
 	}
 	
 	/**
@@ -269,12 +290,14 @@ public class Sprite implements java.io.Serializable {
 	 * </pre>
 	 */
 	public boolean moveTo(long elapsedTime, double xs, double ys, double speed) {
-		if (this.x == xs && this.y == ys) {
+		double x = this.getX(), y = this.getY();
+		
+		if (x == xs && y == ys) {
 			return true;
 		}
 		
 		double angle = 90 + Math
-		        .toDegrees(Math.atan2(ys - this.y, xs - this.x));
+		        .toDegrees(Math.atan2(ys - y, xs - x));
 		double radians = Math.toRadians(angle);
 		
 		double vx = Math.sin(radians) * speed * elapsedTime, vy = -Math
@@ -287,22 +310,22 @@ public class Sprite implements java.io.Serializable {
 		if (vx != 0) {
 			if (vx > 0) {
 				// moving right
-				if (this.x + vx >= xs) {
-					vx = xs - this.x; // snap
+				if (x + vx >= xs) {
+					vx = xs - x; // snap
 					arriveX = true;
 				}
 				
 			}
 			else {
 				// moving left
-				if (this.x + vx <= xs) {
-					vx = xs - this.x; // snap
+				if (x + vx <= xs) {
+					vx = xs - x; // snap
 					arriveX = true;
 				}
 			}
 			
 		}
-		else if (this.x == xs) {
+		else if (x == xs) {
 			arriveX = true;
 		}
 		
@@ -310,22 +333,22 @@ public class Sprite implements java.io.Serializable {
 		if (vy != 0) {
 			if (vy > 0) {
 				// moving down
-				if (this.y + vy >= ys) {
-					vy = ys - this.y; // snap
+				if (y + vy >= ys) {
+					vy = ys - y; // snap
 					arriveY = true;
 				}
 				
 			}
 			else {
 				// moving up
-				if (this.y + vy <= ys) {
-					vy = ys - this.y; // snap
+				if (y + vy <= ys) {
+					vy = ys - y; // snap
 					arriveY = true;
 				}
 			}
 			
 		}
-		else if (this.y == ys) {
+		else if (y == ys) {
 			arriveY = true;
 		}
 		
@@ -340,6 +363,7 @@ public class Sprite implements java.io.Serializable {
 	public void setLocation(double xs, double ys) {
 		this.oldX = this.x = xs;
 		this.oldY = this.y = ys;
+		this.stateChanged();
 	}
 	
 	/**
@@ -351,6 +375,7 @@ public class Sprite implements java.io.Serializable {
 			this.x += dx;
 			this.oldY = this.y;
 			this.y += dy;
+			this.stateChanged();
 		}
 		
 		// if (dx != 0) {
@@ -371,6 +396,7 @@ public class Sprite implements java.io.Serializable {
 		if (dx != 0) {
 			this.oldX = this.x;
 			this.x += dx;
+			this.stateChanged();
 		}
 	}
 	
@@ -381,6 +407,7 @@ public class Sprite implements java.io.Serializable {
 		if (dy != 0) {
 			this.oldY = this.y;
 			this.y += dy;
+			this.stateChanged();
 		}
 	}
 	
@@ -389,6 +416,7 @@ public class Sprite implements java.io.Serializable {
 	 */
 	public void setX(double xs) {
 		this.oldX = this.x = xs;
+		this.stateChanged();
 	}
 	
 	/**
@@ -396,6 +424,7 @@ public class Sprite implements java.io.Serializable {
 	 */
 	public void setY(double ys) {
 		this.oldY = this.y = ys;
+		this.stateChanged();
 	}
 	
 	/**
@@ -413,6 +442,7 @@ public class Sprite implements java.io.Serializable {
 	 */
 	public void forceX(double xs) {
 		this.x = xs;
+		this.stateChanged();
 	}
 	
 	/**
@@ -430,6 +460,7 @@ public class Sprite implements java.io.Serializable {
 	 */
 	public void forceY(double ys) {
 		this.y = ys;
+		this.stateChanged();
 	}
 	
 	/**
@@ -462,6 +493,56 @@ public class Sprite implements java.io.Serializable {
 		return this.oldY;
 	}
 	
+	/**
+	 * Stores current position as the previous position of this sprite, the
+	 * position that rendering is interpolated from.
+	 * <p>
+	 * 
+	 * {@linkplain PlayField#setInterpolated(boolean) Interpolated playfield}
+	 * calls this method at the start of every update. Call this method after
+	 * placing the sprite to a new location to prevent the sprite from being
+	 * rendered sliding to the new location.
+	 * 
+	 * @see #getRenderX()
+	 */
+	public void storePreviousPosition() {
+		this.previousX = this.getX();
+		this.previousY = this.getY();
+		this.previousStored = true;
+	}
+	
+	/**
+	 * Returns the <code>x</code> coordinate this sprite is rendered at, that
+	 * is the position between the previous and current position by the
+	 * background {@linkplain Background#getInterpolation() interpolation}.
+	 * 
+	 * @see #storePreviousPosition()
+	 */
+	public double getRenderX() {
+		double alpha = this.background.getInterpolation();
+		if (alpha >= 1 || !this.previousStored) {
+			return this.getX();
+		}
+		
+		return this.previousX + (this.getX() - this.previousX) * alpha;
+	}
+	
+	/**
+	 * Returns the <code>y</code> coordinate this sprite is rendered at, that
+	 * is the position between the previous and current position by the
+	 * background {@linkplain Background#getInterpolation() interpolation}.
+	 * 
+	 * @see #storePreviousPosition()
+	 */
+	public double getRenderY() {
+		double alpha = this.background.getInterpolation();
+		if (alpha >= 1 || !this.previousStored) {
+			return this.getY();
+		}
+		
+		return this.previousY + (this.getY() - this.previousY) * alpha;
+	}
+	
 	/** ************************************************************************* */
 	/** ************************* SPEED VARIABLES ******************************* */
 	/** ************************************************************************* */
@@ -474,6 +555,7 @@ public class Sprite implements java.io.Serializable {
 	public void setSpeed(double vx, double vy) {
 		this.horizontalSpeed = vx;
 		this.verticalSpeed = vy;
+		this.stateChanged();
 	}
 	
 	/**
@@ -484,6 +566,7 @@ public class Sprite implements java.io.Serializable {
 	 */
 	public void setHorizontalSpeed(double vx) {
 		this.horizontalSpeed = vx;
+		this.stateChanged();
 	}
 	
 	/**
@@ -494,6 +577,7 @@ public class Sprite implements java.io.Serializable {
 	 */
 	public void setVerticalSpeed(double vy) {
 		this.verticalSpeed = vy;
+		this.stateChanged();
 	}
 	
 	/**
@@ -549,6 +633,7 @@ public class Sprite implements java.io.Serializable {
 		}
 		
 		this.horizontalSpeed += accel * elapsedTime;
+		this.stateChanged();
 		
 		if (accel < 0) {
 			if (this.horizontalSpeed < maxSpeed) {
@@ -596,6 +681,7 @@ public class Sprite implements java.io.Serializable {
 		}
 		
 		this.verticalSpeed += accel * elapsedTime;
+		this.stateChanged();
 		
 		if (accel < 0) {
 			if (this.verticalSpeed < maxSpeed) {
@@ -640,14 +726,16 @@ public class Sprite implements java.io.Serializable {
 	 * Returns sprite <code>x</code> coordinate relative to screen area.
 	 */
 	public double getScreenX() {
-		return this.x - this.background.getX() + this.background.getClip().x;
+		return this.getX() - this.background.getX()
+		        + this.background.getClip().x;
 	}
 	
 	/**
 	 * Returns sprite <code>y</code> coordinate relative to screen area.
 	 */
 	public double getScreenY() {
-		return this.y - this.background.getY() + this.background.getClip().y;
+		return this.getY() - this.background.getY()
+		        + this.background.getClip().y;
 	}
 	
 	/**
@@ -655,7 +743,7 @@ public class Sprite implements java.io.Serializable {
 	 * (width/2)).
 	 */
 	public double getCenterX() {
-		return this.x + (this.width / 2);
+		return this.getX() + (this.width / 2);
 	}
 	
 	/**
@@ -663,7 +751,7 @@ public class Sprite implements java.io.Serializable {
 	 * (height/2)).
 	 */
 	public double getCenterY() {
-		return this.y + (this.height / 2);
+		return this.getY() + (this.height / 2);
 	}
 	
 	/**
@@ -671,14 +759,14 @@ public class Sprite implements java.io.Serializable {
 	 * specified offset.
 	 */
 	public boolean isOnScreen(int leftOffset, int topOffset, int rightOffset, int bottomOffset) {
-		Sprite.screenX = this.x - this.background.getX();
-		Sprite.screenY = this.y - this.background.getY();
+		// screen position, kept local so this method is re-entrant
+		double screenX = this.getX() - this.background.getX();
+		double screenY = this.getY() - this.background.getY();
+		Rectangle clip = this.background.getClip();
 		
-		return (Sprite.screenX + this.width > -leftOffset
-		        && Sprite.screenY + this.height > -topOffset
-		        && Sprite.screenX < this.background.getClip().width
-		                + rightOffset && Sprite.screenY < this.background
-		        .getClip().height
+		return (screenX + this.width > -leftOffset
+		        && screenY + this.height > -topOffset
+		        && screenX < clip.width + rightOffset && screenY < clip.height
 		        + bottomOffset);
 	}
 	
@@ -704,8 +792,82 @@ public class Sprite implements java.io.Serializable {
 	 * Updates sprite movement.
 	 */
 	protected void updateMovement(long elapsedTime) {
-		this.move(this.horizontalSpeed * elapsedTime, this.verticalSpeed
-		        * elapsedTime);
+		this.move(this.getHorizontalSpeed() * elapsedTime,
+		        this.getVerticalSpeed() * elapsedTime);
+	}
+	
+	/**
+	 * Advances this sprite position by its speed directly, gives the same
+	 * result as {@link #update(long)} for sprite that does not override any
+	 * of the movement methods.
+	 * 
+	 * @see SpriteGroup#integrate(long)
+	 * @see #isPlainMovement(Class)
+	 */
+	final void integrate(long elapsedTime) {
+		double dx = this.horizontalSpeed * elapsedTime, dy = this.verticalSpeed
+		        * elapsedTime;
+		
+		if (dx != 0 || dy != 0) {
+			this.oldX = this.x;
+			this.x += dx;
+			this.oldY = this.y;
+			this.y += dy;
+			this.stateChanged();
+		}
+	}
+	
+	// sprite class -> Boolean, whether the class moves like plain sprite
+	private static final Map plainMovement = new HashMap();
+	
+	/**
+	 * Returns true, if specified sprite class does not override
+	 * {@link #update(long)}, {@link #updateMovement(long)},
+	 * {@link #move(double, double)}, or the speed getters, therefore its
+	 * update can be replaced with {@link #integrate(long)}.
+	 */
+	static boolean isPlainMovement(Class c) {
+		synchronized (Sprite.plainMovement) {
+			Boolean plain = (Boolean) Sprite.plainMovement.get(c);
+			if (plain == null) {
+				boolean b = Sprite.isDeclaredBySprite(c, "update",
+				        new Class[] { long.class })
+				        && Sprite.isDeclaredBySprite(c, "updateMovement",
+				                new Class[] { long.class })
+				        && Sprite.isDeclaredBySprite(c, "move", new Class[] {
+				                double.class, double.class })
+				        && Sprite.isDeclaredBySprite(c, "getHorizontalSpeed",
+				                new Class[0])
+				        && Sprite.isDeclaredBySprite(c, "getVerticalSpeed",
+				                new Class[0]);
+				
+				plain = (b) ? Boolean.TRUE : Boolean.FALSE;
+				Sprite.plainMovement.put(c, plain);
+			}
+			
+			return plain.booleanValue();
+		}
+	}
+	
+	private static boolean isDeclaredBySprite(Class c, String name, Class[] params) {
+		try {
+			for (; c != Sprite.class; c = c.getSuperclass()) {
+				try {
+					c.getDeclaredMethod(name, params);
+					
+					// overridden by subclass
+					return false;
+				}
+				catch (NoSuchMethodException e) {
+				}
+			}
+			
+			return true;
+		}
+		catch (SecurityException e) {
+			// can't be checked, use the normal update
+			return false;
+		}
 	}
 	
 	/** ************************************************************************* */
@@ -718,21 +880,22 @@ public class Sprite implements java.io.Serializable {
 	 * @param g graphics context
 	 */
 	public void render(Graphics2D g) {
-		Sprite.screenX = this.x - this.background.getX();
-		Sprite.screenY = this.y - this.background.getY();
+		// screen position, kept local so several playfields can be rendered
+		// by different threads at the same time
+		double screenX = this.getRenderX() - this.background.getRenderX();
+		double screenY = this.getRenderY() - this.background.getRenderY();
+		Rectangle clip = this.background.getClip();
 		
 		// check whether the sprite is still on screen rendering area
-		if (Sprite.screenX + this.width <= 0
-		        || Sprite.screenY + this.height <= 0
-		        || Sprite.screenX > this.background.getClip().width
-		        || Sprite.screenY > this.background.getClip().height) {
+		if (screenX + this.width <= 0 || screenY + this.height <= 0
+		        || screenX > clip.width || screenY > clip.height) {
 			return;
 		}
 		
-		Sprite.screenX += this.background.getClip().x;
-		Sprite.screenY += this.background.getClip().y;
+		screenX += clip.x;
+		screenY += clip.y;
 		
-		this.render(g, (int) Sprite.screenX, (int) Sprite.screenY);
+		this.render(g, (int) screenX, (int) screenY);
 	}
 	
 	/**
@@ -763,6 +926,7 @@ public class Sprite implements java.io.Serializable {
 	 */
 	public void setID(int id) {
 		this.id = id;
+		this.stateChanged();
 	}
 	
 	/**
@@ -779,6 +943,63 @@ public class Sprite implements java.io.Serializable {
 		this.dataID = dataID;
 	}
 	
+	/**
+	 * Returns the handle assigned to this sprite by the
+	 * {@linkplain PlayField#getSpriteRegistry() playfield registry}, or
+	 * {@link SpriteRegistry#NULL_HANDLE} if this sprite is not in any
+	 * playfield. The handle is kept while the sprite moves between the groups
+	 * of the playfield.
+	 * 
+	 * @see SpriteRegistry
+	 */
+	public int getHandle() {
+		return this.handle;
+	}
+	
+	/**
+	 * Returns the hash of this sprite simulation state : position, speed, ID,
+	 * layer, and active state. Equal state always gives equal hash on any
+	 * machine, the hash does not depend on object identity.
+	 * <p>
+	 * 
+	 * Subclass that has more simulation state should override this method to
+	 * include it, and call {@link #stateChanged()} every time it changes.
+	 * 
+	 * @see PlayField#getStateHash()
+	 */
+	public long getStateHash() {
+		// through the getters, subclasses may keep the state elsewhere
+		long h = Double.doubleToLongBits(this.getX());
+		h = 31 * h + Double.doubleToLongBits(this.getY());
+		h = 31 * h + Double.doubleToLongBits(this.getHorizontalSpeed());
+		h = 31 * h + Double.doubleToLongBits(this.getVerticalSpeed());
+		h = 31 * h + this.id;
+		h = 31 * h + this.layer;
+		h = 31 * h + ((this.active) ? 1 : 0);
+		
+		return h;
+	}
+	
+	/**
+	 * Notifies that this sprite {@linkplain #getStateHash() simulation state}
+	 * has been changed, the sprite is hashed again on the next
+	 * {@linkplain SpriteRegistry#getStateHash() state hash} of its playfield,
+	 * and the playfield is {@linkplain PlayField#isChanged() changed}.
+	 */
+	protected void stateChanged() {
+		if (this.registry != null) {
+			this.registry.stateChanged(this);
+		}
+	}
+	
+	/**
+	 * Called when this sprite is removed from its sprite group, or its group is
+	 * removed from the playfield. The sprite releases anything that keeps it
+	 * alive outside the group.
+	 */
+	void detach() {
+	}
+	
 	/**
 	 * Returns the layer of this sprite.
 	 * 
@@ -800,6 +1021,7 @@ public class Sprite implements java.io.Serializable {
 	 */
 	public void setLayer(int i) {
 		this.layer = i;
+		this.stateChanged();
 	}
 	
 	/**
@@ -825,6 +1047,7 @@ public class Sprite implements java.io.Serializable {
 	 */
 	public void setActive(boolean b) {
 		this.active = b;
+		this.stateChanged();
 	}
 	
 	/**
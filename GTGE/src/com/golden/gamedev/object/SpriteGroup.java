@@ -18,11 +18,10 @@ package com.golden.gamedev.object;
 
 // JFC
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.util.Arrays;
 import java.util.Comparator;
 
-import com.golden.gamedev.util.Utility;
-
 /**
  * Group of sprites with common behaviour, for example PLAYER_GROUP,
  * ENEMY_GROUP, etc. This class maintain a growable sprite list (array of
@@ -83,11 +82,25 @@ public class SpriteGroup {
 	
 	private Comparator comparator; // comparator for sorting sprite
 	
+	private ParallelUpdater updater; // null, update serially
+	
 	/** ****************** SPRITES THAT BELONG TO THIS GROUP ******************** */
 	
 	private Sprite[] sprites; // member of this group
 	private int size; // all non-null sprites (active + inactive)
 	
+	/** ********************** VISIBLE (CULLED) SPRITES ************************* */
+	
+	private Sprite[] visibleSprites; // result of the last culling pass
+	private int visibleSize;
+	private boolean culled; // true, visible sprites is up to date
+	
+	/** ************************* OWNER PLAYFIELD ******************************* */
+	
+	private PlayField playfield; // set by the playfield owner
+	private SpriteRegistry registry; // the playfield registry
+	int playfieldIndex; // index in the playfield groups
+	
 	/** ************************************************************************* */
 	/** ************************** CONSTRUCTOR ********************************** */
 	/** ************************************************************************* */
@@ -122,8 +135,17 @@ public class SpriteGroup {
 		
 		if (++this.size >= this.sprites.length) {
 			// time to enlarge sprite storage
-			this.sprites = (Sprite[]) Utility.expand(this.sprites,
-			        this.expandFactor);
+			this.sprites = this.grow(this.sprites, this.size);
+		}
+		this.spriteAdded(this.size - 1);
+		
+		if (this.registry != null) {
+			this.registry.register(member);
+		}
+		
+		if (this.culled) {
+			// treat new sprite as visible until the next culling pass
+			this.addVisible(member);
 		}
 	}
 	
@@ -147,6 +169,9 @@ public class SpriteGroup {
 			
 		}
 		else {
+			// sprites order changed, visible sprites is not valid anymore
+			this.culled = false;
+			
 			// shift sprites by one at specified index
 			System.arraycopy(this.sprites, index, this.sprites, index + 1,
 			        this.size - index);
@@ -156,11 +181,15 @@ public class SpriteGroup {
 			this.sprites[index] = member;
 			member.setBackground(this.background);
 			
+			if (this.registry != null) {
+				this.registry.register(member);
+			}
+			
 			if (++this.size >= this.sprites.length) {
 				// time to enlarge sprite storage
-				this.sprites = (Sprite[]) Utility.expand(this.sprites,
-				        this.expandFactor);
+				this.sprites = this.grow(this.sprites, this.size);
 			}
+			this.spriteAdded(index);
 		}
 	}
 	
@@ -183,6 +212,8 @@ public class SpriteGroup {
 	 * @see #getScanFrequence()
 	 */
 	public Sprite remove(int index) {
+		this.culled = false;
+		
 		Sprite removedSprite = this.sprites[index];
 		
 		int numMoved = this.size - index - 1;
@@ -191,6 +222,12 @@ public class SpriteGroup {
 			        numMoved);
 		}
 		this.sprites[--this.size] = null;
+		this.spritesRemoved(index, index + 1);
+		
+		if (this.registry != null) {
+			this.registry.unregister(removedSprite);
+		}
+		removedSprite.detach();
 		
 		return removedSprite;
 	}
@@ -249,7 +286,11 @@ public class SpriteGroup {
 	 * @see #reset()
 	 */
 	public void clear() {
+		this.detachSprites(0, this.size);
+		
+		this.spritesRemoved(0, this.size);
 		this.size = 0;
+		this.culled = false;
 	}
 	
 	/**
@@ -263,9 +304,14 @@ public class SpriteGroup {
 	 * @see #clear()
 	 */
 	public void reset() {
+		this.detachSprites(0, this.size);
+		
+		this.spritesRemoved(0, this.size);
 		this.sprites = null;
 		this.sprites = new Sprite[this.expandFactor];
 		this.size = 0;
+		
+		this.resetCulling();
 	}
 	
 	/** ************************************************************************* */
@@ -279,10 +325,11 @@ public class SpriteGroup {
 	 * @see #getScanFrequence()
 	 */
 	public void update(long elapsedTime) {
-		for (int i = 0; i < this.size; i++) {
-			if (this.sprites[i].isActive()) {
-				this.sprites[i].update(elapsedTime);
-			}
+		if (this.updater != null) {
+			this.updater.update(this.sprites, this.size, elapsedTime);
+		}
+		else {
+			this.integrate(elapsedTime);
 		}
 		
 		if (this.scanFrequence.action(elapsedTime)) {
@@ -291,6 +338,47 @@ public class SpriteGroup {
 		}
 	}
 	
+	/**
+	 * Advances all active sprites in this group by their speed.
+	 * <p>
+	 * 
+	 * Sprites that do not override any of the sprite movement methods
+	 * (<code>update</code>, <code>updateMovement</code>, <code>move</code>,
+	 * and the speed getters) are moved directly within one tight loop, the
+	 * other sprites are updated as usual with {@link Sprite#update(long)}. The
+	 * result is exactly the same as updating every sprite one by one, in the
+	 * same order.
+	 * <p>
+	 * 
+	 * This method is used by {@link #update(long)} when this group has no
+	 * {@linkplain #setParallelUpdater(ParallelUpdater) parallel updater}.
+	 */
+	public void integrate(long elapsedTime) {
+		Class lastClass = null;
+		boolean plain = false;
+		
+		// sprite update may add/remove sprites, size is read every loop
+		for (int i = 0; i < this.size; i++) {
+			Sprite s = this.sprites[i];
+			if (!s.isActive()) {
+				continue;
+			}
+			
+			if (s.getClass() != lastClass) {
+				// most groups only contain one sprite class
+				lastClass = s.getClass();
+				plain = Sprite.isPlainMovement(lastClass);
+			}
+			
+			if (plain) {
+				s.integrate(elapsedTime);
+			}
+			else {
+				s.update(elapsedTime);
+			}
+		}
+	}
+	
 	/**
 	 * Throws any inactive sprites from this group, this method won't remove
 	 * immutable sprites, to remove all inactive sprites even though the
@@ -361,6 +449,10 @@ public class SpriteGroup {
 	}
 	
 	private void removeRange(int fromIndex, int toIndex) {
+		this.culled = false;
+		
+		this.detachSprites(fromIndex, toIndex);
+		
 		int numMoved = this.size - toIndex;
 		System.arraycopy(this.sprites, toIndex, this.sprites, fromIndex,
 		        numMoved);
@@ -370,6 +462,17 @@ public class SpriteGroup {
 		while (this.size != newSize) {
 			this.sprites[--this.size] = null;
 		}
+		this.spritesRemoved(fromIndex, toIndex);
+	}
+	
+	// called after a sprite is inserted at specified index, for subclasses
+	// that keep state parallel with the group sprites
+	void spriteAdded(int index) {
+	}
+	
+	// called after the sprites from fromIndex (inclusive) to toIndex
+	// (exclusive) are removed, and the following sprites shifted down
+	void spritesRemoved(int fromIndex, int toIndex) {
 	}
 	
 	/** ************************************************************************* */
@@ -384,9 +487,17 @@ public class SpriteGroup {
 	 * @see #setComparator(Comparator)
 	 */
 	public void render(Graphics2D g) {
-		if (this.comparator != null) {
-			// sort sprite before render
-			this.sort(this.comparator);
+		this.sortForRender();
+		
+		if (this.culled) {
+			// only visible sprites need to be rendered
+			for (int i = 0; i < this.visibleSize; i++) {
+				if (this.visibleSprites[i].isActive()) {
+					this.visibleSprites[i].render(g);
+				}
+			}
+			
+			return;
 		}
 		
 		for (int i = 0; i < this.size; i++) {
@@ -397,6 +508,22 @@ public class SpriteGroup {
 		}
 	}
 	
+	// sorts the sprites against the group comparator before rendered
+	void sortForRender() {
+		if (this.comparator == null) {
+			return;
+		}
+		
+		if (this.culled) {
+			// only visible sprites need to be sorted
+			Arrays.sort(this.visibleSprites, 0, this.visibleSize,
+			        this.comparator);
+		}
+		else {
+			this.sort(this.comparator);
+		}
+	}
+	
 	/**
 	 * Sorts all sprites in this group with specified comparator.
 	 * <p>
@@ -409,6 +536,225 @@ public class SpriteGroup {
 	 */
 	public void sort(Comparator c) {
 		Arrays.sort(this.sprites, 0, this.size, c);
+		
+		this.culled = false;
+	}
+	
+	/** ************************************************************************* */
+	/** ************************* VISIBILITY CULLING **************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Collects all active sprites that visible on the background view area in
+	 * specified offset into {@linkplain #getVisibleSprites() visible sprites}
+	 * list.
+	 * <p>
+	 * 
+	 * After culled, {@link #render(Graphics2D)} only renders the visible
+	 * sprites, and the visible sprites can be used by collision check and mouse
+	 * checking too, thus sprites outside the view area cost nothing until the
+	 * next culling pass. The visible list is discarded whenever the group order
+	 * changed (sprite removal, insertion in the middle, sorting), while sprite
+	 * added at the bottom of the group is treated as visible until the next
+	 * culling pass.
+	 * <p>
+	 * 
+	 * The sprites are checked against this group
+	 * {@linkplain #getBackground() background}.
+	 * 
+	 * @see #getVisibleSprites()
+	 * @see PlayField#setCulling(boolean)
+	 */
+	public void cull(int leftOffset, int topOffset, int rightOffset, int bottomOffset) {
+		if (this.visibleSprites == null
+		        || this.visibleSprites.length < this.size) {
+			this.visibleSprites = new Sprite[this.sprites.length];
+		}
+		
+		// visible area in background coordinate
+		Rectangle clip = this.background.getClip();
+		double bgX = this.background.getX(), bgY = this.background.getY();
+		double left = bgX - leftOffset, top = bgY - topOffset;
+		double right = bgX + clip.width + rightOffset, bottom = bgY
+		        + clip.height + bottomOffset;
+		
+		Sprite[] visible = this.visibleSprites;
+		int num = 0;
+		
+		for (int i = 0; i < this.size; i++) {
+			Sprite s = this.sprites[i];
+			
+			if (s.isActive()) {
+				double x = s.getX(), y = s.getY();
+				
+				if (x + s.getWidth() > left && y + s.getHeight() > top
+				        && x < right && y < bottom) {
+					visible[num++] = s;
+				}
+			}
+		}
+		
+		// let gc do its work
+		for (int i = num; i < this.visibleSize; i++) {
+			visible[i] = null;
+		}
+		
+		this.visibleSize = num;
+		this.culled = true;
+	}
+	
+	/**
+	 * Collects all active sprites that visible on the background view area
+	 * into {@linkplain #getVisibleSprites() visible sprites} list.
+	 * 
+	 * @see #cull(int, int, int, int)
+	 */
+	public void cull() {
+		this.cull(0, 0, 0, 0);
+	}
+	
+	/**
+	 * Discards the visible sprites list, this group is back to render and
+	 * check all of its sprites.
+	 * 
+	 * @see #cull()
+	 */
+	public void resetCulling() {
+		this.visibleSprites = null;
+		this.visibleSize = 0;
+		this.culled = false;
+	}
+	
+	/**
+	 * Returns true, if the {@linkplain #getVisibleSprites() visible sprites}
+	 * list is up to date with the last culling pass.
+	 * 
+	 * @see #cull()
+	 */
+	public boolean isCulled() {
+		return this.culled;
+	}
+	
+	/**
+	 * Returns the visible sprites collected by the last culling pass, the
+	 * returned array is only valid if this group {@linkplain #isCulled() is
+	 * culled}.
+	 * 
+	 * @see #getVisibleSize()
+	 * @see #cull()
+	 */
+	public Sprite[] getVisibleSprites() {
+		return this.visibleSprites;
+	}
+	
+	/**
+	 * Returns total visible sprites collected by the last culling pass.
+	 * 
+	 * @see #getVisibleSprites()
+	 */
+	public int getVisibleSize() {
+		return this.visibleSize;
+	}
+	
+	/** ************************************************************************* */
+	/** ************************* SPRITE REGISTRY ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns the registry that assigns handles to this group sprites, that is
+	 * the registry of the playfield this group belongs to, or null if this
+	 * group is not in any playfield.
+	 * 
+	 * @see PlayField#getSpriteRegistry()
+	 */
+	public SpriteRegistry getSpriteRegistry() {
+		return this.registry;
+	}
+	
+	/**
+	 * Returns the playfield this group belongs to, or null if this group is
+	 * not in any playfield.
+	 */
+	PlayField getPlayField() {
+		return this.playfield;
+	}
+	
+	/**
+	 * Sets the playfield this group belongs to, all sprites are unregistered
+	 * from the previous playfield registry and registered to the new one.
+	 * Called by the playfield when this group is added or removed.
+	 */
+	void setPlayField(PlayField field) {
+		if (this.registry != null) {
+			// the group leaves its playfield
+			this.detachSprites(0, this.size);
+		}
+		
+		SpriteRegistry registry = (field != null) ? field.getSpriteRegistry()
+		        : null;
+		this.playfield = field;
+		this.registry = registry;
+		
+		if (registry != null) {
+			for (int i = 0; i < this.size; i++) {
+				registry.register(this.sprites[i]);
+			}
+		}
+	}
+	
+	// unregisters the removed sprites, and lets them release anything that
+	// keeps them alive
+	private void detachSprites(int fromIndex, int toIndex) {
+		for (int i = fromIndex; i < toIndex; i++) {
+			if (this.registry != null) {
+				this.registry.unregister(this.sprites[i]);
+			}
+			this.sprites[i].detach();
+		}
+	}
+	
+	/**
+	 * Replaces all sprites in this group with the first <code>size</code>
+	 * sprites of specified array, used by the advance group to refresh its
+	 * on-screen group.
+	 */
+	void setSprites(Sprite[] s, int size) {
+		if (size >= this.sprites.length) {
+			this.sprites = new Sprite[size + this.expandFactor];
+		}
+		
+		System.arraycopy(s, 0, this.sprites, 0, size);
+		for (int i = size; i < this.size; i++) {
+			// let gc do its work
+			this.sprites[i] = null;
+		}
+		
+		this.spritesRemoved(0, this.size);
+		this.size = size;
+		this.culled = false;
+		
+		for (int i = 0; i < size; i++) {
+			this.spriteAdded(i);
+		}
+	}
+	
+	private void addVisible(Sprite member) {
+		if (this.visibleSize >= this.visibleSprites.length) {
+			this.visibleSprites = this.grow(this.visibleSprites,
+			        this.visibleSize);
+		}
+		
+		this.visibleSprites[this.visibleSize++] = member;
+	}
+	
+	// expands by the expand factor or half of the array length, whichever is
+	// larger, so a growing group is copied only O(log n) times
+	private Sprite[] grow(Sprite[] src, int size) {
+		Sprite[] dest = new Sprite[src.length
+		        + Math.max(this.expandFactor, src.length >> 1)];
+		System.arraycopy(src, 0, dest, 0, size);
+		
+		return dest;
 	}
 	
 	/** ************************************************************************* */
@@ -430,7 +776,12 @@ public class SpriteGroup {
 	 * @see #getName()
 	 */
 	public void setName(String name) {
+		String oldName = this.name;
 		this.name = name;
+		
+		if (this.playfield != null) {
+			this.playfield.groupRenamed(this, oldName);
+		}
 	}
 	
 	/**
@@ -458,6 +809,8 @@ public class SpriteGroup {
 		for (int i = 0; i < this.size; i++) {
 			this.sprites[i].setBackground(this.background);
 		}
+		
+		this.culled = false;
 	}
 	
 	/**
@@ -478,6 +831,10 @@ public class SpriteGroup {
 	 */
 	public void setActive(boolean b) {
 		this.active = b;
+		
+		if (this.playfield != null) {
+			this.playfield.groupChanged();
+		}
 	}
 	
 	/**
@@ -525,6 +882,27 @@ public class SpriteGroup {
 		this.comparator = c;
 	}
 	
+	/**
+	 * Returns the parallel updater used to update this group sprites, or null
+	 * if this group sprites are updated serially.
+	 * 
+	 * @see #setParallelUpdater(ParallelUpdater)
+	 */
+	public ParallelUpdater getParallelUpdater() {
+		return this.updater;
+	}
+	
+	/**
+	 * Sets the parallel updater used to update this group sprites. Only
+	 * sprites that implement {@link IsolatedUpdate} are updated in parallel,
+	 * specify null to update all sprites serially (the default).
+	 * 
+	 * @see ParallelUpdater
+	 */
+	public void setParallelUpdater(ParallelUpdater updater) {
+		this.updater = updater;
+	}
+	
 	/** ************************************************************************* */
 	/** *************************** SPRITES GETTER ****************************** */
 	/** ************************************************************************* */
@@ -699,17 +1077,18 @@ public class SpriteGroup {
 	 * 
 	 * The process : <br>
 	 * If there is a new member insertion to the group and the group sprite
-	 * array has been full, the array is expanded as large as this factor.
+	 * array has been full, the array is expanded as large as this factor, or
+	 * as large as half of the array length if it is larger than this factor.
 	 * 
 	 * For example: <br>
 	 * Expand factor is 20 (the default). <br>
-	 * {@linkplain #getSize() The group size} is 100. <br>
-	 * {@linkplain #getSprites() The group member} is also 100.
+	 * {@linkplain #getSize() The group size} is 30. <br>
+	 * {@linkplain #getSprites() The group member} is also 30.
 	 * <p>
 	 * 
 	 * If new member is added into this group, the group size is automatically
-	 * grow to 120 (100+20). <br>
-	 * The new sprite added is at index 101 and the rest is empty sprite (null
+	 * grow to 50 (30+20). <br>
+	 * The new sprite added is at index 31 and the rest is empty sprite (null
 	 * sprite).
 	 * <p>
 	 * 
@@ -0,0 +1,487 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.object;
+
+/**
+ * <code>SpriteRegistry</code> assigns compact <code>int</code> handles to
+ * sprites, and looks up the sprite of a handle in constant time.
+ * <p>
+ * 
+ * A handle is made of a dense slot index (lower 20 bits) and a generation
+ * counter (upper 11 bits). Freed slots are reused, and every time a slot is
+ * reused its generation is increased, therefore a handle of a removed sprite
+ * never resolves to the new sprite occupying the same slot. Handle is always
+ * positive, and {@link #NULL_HANDLE} (0) is never assigned.
+ * <p>
+ * 
+ * The slot {@linkplain #getIndex(int) index} is dense (always lower than
+ * {@link #getCapacity()}), suitable to be used as index of plain arrays, for
+ * example pair tables or spatial indexes, instead of hash maps keyed by
+ * sprite reference.
+ * <p>
+ * 
+ * Every {@link PlayField} has its own registry, sprites are registered when
+ * they are added into the playfield groups, and unregistered when they are
+ * removed from them. The registry counts the registrations of every sprite,
+ * a sprite that is member of several groups keeps its handle until it is
+ * removed from all of them. The slot of a sprite that is not member of any
+ * group anymore is only {@linkplain #releaseSlots() released} on the next
+ * playfield update, so a sprite moved from one group to another keeps its
+ * handle.
+ * 
+ * @see PlayField#getSpriteRegistry()
+ * @see Sprite#getHandle()
+ */
+public class SpriteRegistry {
+	
+	/**
+	 * The handle of unregistered sprite.
+	 */
+	public static final int NULL_HANDLE = 0;
+	
+	private static final int INDEX_BITS = 20;
+	private static final int INDEX_MASK = (1 << SpriteRegistry.INDEX_BITS) - 1;
+	private static final int MAX_GENERATION =
+	        (1 << (31 - SpriteRegistry.INDEX_BITS)) - 1;
+	
+	/** ************************** REGISTRY SLOTS ******************************* */
+	
+	private Sprite[] sprites; // sprite of each slot
+	private int[] generations; // current generation of each slot
+	private int[] registrations; // registration count of each slot
+	
+	private int[] freeSlots; // stack of released slots
+	private int freeSize;
+	
+	private int[] unusedSlots; // slots without registration, to be released
+	private int unusedSize;
+	
+	private int capacity; // slots ever used
+	private int size; // registered sprites
+	
+	/** **************************** STATE HASH ******************************** */
+	
+	private boolean hashing;
+	private long stateHash; // sum of registered sprites hash
+	
+	private Sprite[] changed; // sprites to be hashed again
+	private int changedSize;
+	
+	/** ************************** CHANGE TRACKING ***************************** */
+	
+	// any sprite has been changed, registered or unregistered
+	// since the last check
+	private boolean modified;
+	
+	/** ************************************************************************* */
+	/** ***************************** CONSTRUCTOR ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Creates new empty <code>SpriteRegistry</code>.
+	 */
+	public SpriteRegistry() {
+		this.sprites = new Sprite[64];
+		this.generations = new int[64];
+		this.registrations = new int[64];
+		this.freeSlots = new int[16];
+		this.unusedSlots = new int[16];
+	}
+	
+	/** ************************************************************************* */
+	/** ************************ SPRITE REGISTRATION **************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Registers specified sprite and returns its new handle, or the sprite
+	 * current handle if the sprite slot has not been released yet. Every
+	 * registration must be paired with an {@linkplain #unregister(Sprite)
+	 * unregistration}.
+	 * <p>
+	 * 
+	 * A sprite registered in another registry is released from it first, so
+	 * its old handle becomes invalid.
+	 * 
+	 * @throws IllegalStateException if the registry is full (more than
+	 *         1048576 sprites)
+	 */
+	public int register(Sprite s) {
+		if (this.get(s.handle) == s) {
+			// already registered, or waiting to be released
+			this.registrations[s.handle & SpriteRegistry.INDEX_MASK]++;
+			return s.handle;
+		}
+		
+		if (s.registry != null && s.registry != this) {
+			s.registry.release(s);
+		}
+		
+		int index;
+		if (this.freeSize > 0) {
+			index = this.freeSlots[--this.freeSize];
+		}
+		else {
+			if (this.capacity > SpriteRegistry.INDEX_MASK) {
+				throw new IllegalStateException("Sprite registry is full");
+			}
+			
+			index = this.capacity++;
+			if (index >= this.sprites.length) {
+				// geometric growth, amortized constant time registration
+				int len = Math.min(this.sprites.length * 2,
+				        SpriteRegistry.INDEX_MASK + 1);
+				
+				Sprite[] dest = new Sprite[len];
+				System.arraycopy(this.sprites, 0, dest, 0, this.sprites.length);
+				this.sprites = dest;
+				
+				int[] gen = new int[len];
+				System.arraycopy(this.generations, 0, gen, 0,
+				        this.generations.length);
+				this.generations = gen;
+				
+				int[] count = new int[len];
+				System.arraycopy(this.registrations, 0, count, 0,
+				        this.registrations.length);
+				this.registrations = count;
+			}
+		}
+		
+		// new generation for the slot, generation 0 is never used
+		int generation = this.generations[index] + 1;
+		if (generation > SpriteRegistry.MAX_GENERATION) {
+			generation = 1;
+		}
+		this.generations[index] = generation;
+		
+		this.sprites[index] = s;
+		this.registrations[index] = 1;
+		this.size++;
+		this.modified = true;
+		
+		s.handle = (generation << SpriteRegistry.INDEX_BITS) | index;
+		s.registry = this;
+		
+		if (this.hashing) {
+			s.stateValue = SpriteRegistry.hash(s);
+			s.stateQueued = false;
+			this.stateHash += s.stateValue;
+		}
+		
+		return s.handle;
+	}
+	
+	/**
+	 * Unregisters specified sprite once. After its last registration is
+	 * unregistered, the sprite handle stays valid until the sprite slot is
+	 * {@linkplain #releaseSlots() released}, unless the sprite is registered
+	 * again before that.
+	 * 
+	 * @return true, if the sprite was registered in this registry.
+	 */
+	public boolean unregister(Sprite s) {
+		if (this.get(s.handle) != s) {
+			return false;
+		}
+		
+		int index = s.handle & SpriteRegistry.INDEX_MASK;
+		if (this.registrations[index] == 0) {
+			// all registrations have been unregistered
+			return false;
+		}
+		this.modified = true;
+		
+		if (--this.registrations[index] == 0) {
+			if (this.unusedSize >= this.unusedSlots.length) {
+				int[] dest = new int[this.unusedSlots.length * 2];
+				System.arraycopy(this.unusedSlots, 0, dest, 0, this.unusedSize);
+				this.unusedSlots = dest;
+			}
+			this.unusedSlots[this.unusedSize++] = index;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Releases the slots of all sprites that have been unregistered as many
+	 * times as they were registered, their handles are not valid anymore.
+	 * Called by the playfield on every update.
+	 */
+	public void releaseSlots() {
+		for (int i = 0; i < this.unusedSize; i++) {
+			int index = this.unusedSlots[i];
+			
+			// the sprite may have been registered again, or already released
+			Sprite s = this.sprites[index];
+			if (s != null && this.registrations[index] == 0) {
+				this.release(s);
+			}
+		}
+		
+		this.unusedSize = 0;
+	}
+	
+	// releases the slot of specified registered sprite immediately
+	private void release(Sprite s) {
+		int index = s.handle & SpriteRegistry.INDEX_MASK;
+		
+		this.sprites[index] = null;
+		this.registrations[index] = 0;
+		this.modified = true;
+		this.size--;
+		
+		if (this.freeSize >= this.freeSlots.length) {
+			int[] dest = new int[this.freeSlots.length * 2];
+			System.arraycopy(this.freeSlots, 0, dest, 0, this.freeSize);
+			this.freeSlots = dest;
+		}
+		this.freeSlots[this.freeSize++] = index;
+		
+		if (this.hashing) {
+			this.stateHash -= s.stateValue;
+			s.stateQueued = false;
+		}
+		
+		s.handle = SpriteRegistry.NULL_HANDLE;
+		s.registry = null;
+	}
+	
+	/**
+	 * Unregisters and releases all sprites in this registry.
+	 */
+	public void clear() {
+		for (int i = 0; i < this.capacity; i++) {
+			if (this.sprites[i] != null) {
+				this.release(this.sprites[i]);
+			}
+		}
+		
+		this.unusedSize = 0;
+	}
+	
+	/** ************************************************************************* */
+	/** *************************** HANDLE LOOKUP ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns the sprite of specified handle, or null if the handle is not
+	 * valid anymore (the sprite slot has been released).
+	 */
+	public Sprite get(int handle) {
+		if (handle <= 0) {
+			return null;
+		}
+		
+		int index = handle & SpriteRegistry.INDEX_MASK;
+		int generation = handle >>> SpriteRegistry.INDEX_BITS;
+		if (index >= this.capacity || this.generations[index] != generation) {
+			// stale handle
+			return null;
+		}
+		
+		return this.sprites[index];
+	}
+	
+	/**
+	 * Returns true, if specified handle still refers to a registered sprite.
+	 */
+	public boolean isValid(int handle) {
+		return this.get(handle) != null;
+	}
+	
+	/**
+	 * Returns the dense slot index of specified handle.
+	 * 
+	 * @see #getCapacity()
+	 */
+	public static int getIndex(int handle) {
+		return handle & SpriteRegistry.INDEX_MASK;
+	}
+	
+	/**
+	 * Returns the generation of specified handle.
+	 */
+	public static int getGeneration(int handle) {
+		return handle >>> SpriteRegistry.INDEX_BITS;
+	}
+	
+	/** ************************************************************************* */
+	/** **************************** STATE HASH ******************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns the hash of the {@linkplain Sprite#getStateHash() simulation
+	 * state} of all registered sprites, used to detect two simulations that
+	 * are not in the same state anymore (desync).
+	 * <p>
+	 * 
+	 * The first call hashes all registered sprites, and starts
+	 * {@linkplain #setStateHashing(boolean) state hashing}. Later calls only
+	 * hash again the sprites that have changed since the previous call.
+	 * <p>
+	 * 
+	 * The hash does not depend on the order of the sprites, but depends on
+	 * their handles, therefore two simulations have equal hash only if they
+	 * have added and removed their sprites in the same order.
+	 */
+	public long getStateHash() {
+		if (!this.hashing) {
+			this.setStateHashing(true);
+			return this.stateHash;
+		}
+		
+		for (int i = 0; i < this.changedSize; i++) {
+			Sprite s = this.changed[i];
+			this.changed[i] = null;
+			
+			// the sprite may have been removed since it was queued
+			if (s.registry == this && s.stateQueued) {
+				long value = SpriteRegistry.hash(s);
+				this.stateHash += value - s.stateValue;
+				s.stateValue = value;
+				s.stateQueued = false;
+			}
+		}
+		this.changedSize = 0;
+		
+		return this.stateHash;
+	}
+	
+	/**
+	 * Sets whether the registered sprites changes are tracked for
+	 * {@linkplain #getStateHash() state hash}, default is false. Stop state
+	 * hashing when it is not needed anymore, as every sprite change is queued
+	 * until the next state hash.
+	 */
+	public void setStateHashing(boolean b) {
+		// forget queued sprites
+		for (int i = 0; i < this.changedSize; i++) {
+			if (this.changed[i].registry == this) {
+				this.changed[i].stateQueued = false;
+			}
+			this.changed[i] = null;
+		}
+		this.changedSize = 0;
+		
+		this.hashing = b;
+		this.stateHash = 0;
+		
+		if (b) {
+			if (this.changed == null) {
+				this.changed = new Sprite[64];
+			}
+			
+			for (int i = 0; i < this.capacity; i++) {
+				Sprite s = this.sprites[i];
+				if (s != null) {
+					s.stateValue = SpriteRegistry.hash(s);
+					this.stateHash += s.stateValue;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns true, if the registered sprites changes are tracked for
+	 * {@linkplain #getStateHash() state hash}.
+	 */
+	public boolean isStateHashing() {
+		return this.hashing;
+	}
+	
+	/**
+	 * Marks this registry modified, and queues specified registered sprite to
+	 * be hashed again if not queued yet. The queue is synchronized, the
+	 * {@linkplain IsolatedUpdate isolated sprites} are updated by the
+	 * {@linkplain ParallelUpdater parallel updater} worker threads, the queue
+	 * order does not matter as the state hash is a sum.
+	 */
+	void stateChanged(Sprite s) {
+		this.modified = true;
+		
+		if (!this.hashing || s.stateQueued) {
+			return;
+		}
+		
+		synchronized (this) {
+			if (this.changedSize >= this.changed.length) {
+				Sprite[] dest = new Sprite[this.changed.length * 2];
+				System.arraycopy(this.changed, 0, dest, 0, this.changedSize);
+				this.changed = dest;
+			}
+			
+			this.changed[this.changedSize++] = s;
+			s.stateQueued = true;
+		}
+	}
+	
+	// marks this registry modified, a registered sprite looks different
+	// without changing its simulation state
+	void imageChanged() {
+		this.modified = true;
+	}
+	
+	/**
+	 * Returns true, if any sprite has been changed, registered, or
+	 * unregistered since the last time this method was called.
+	 * 
+	 * @see PlayField#isChanged()
+	 */
+	boolean checkModified() {
+		boolean b = this.modified;
+		this.modified = false;
+		
+		return b;
+	}
+	
+	// well mixed hash of sprite state and handle,
+	// so the sum of many sprites hash rarely collides
+	private static long hash(Sprite s) {
+		long z = s.getStateHash() + s.handle * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		
+		return z ^ (z >>> 31);
+	}
+	
+	/** ************************************************************************* */
+	/** ************************ REGISTRY PROPERTIES **************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns total sprites that have a slot, including unregistered sprites
+	 * whose slot has not been released yet.
+	 */
+	public int getSize() {
+		return this.size;
+	}
+	
+	/**
+	 * Returns total slots ever used, all handle {@linkplain #getIndex(int)
+	 * index} is lower than this value.
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+	
+	public String toString() {
+		return super.toString() + " " + "[size=" + this.size + ", capacity="
+		        + this.capacity + "]";
+	}
+	
+}
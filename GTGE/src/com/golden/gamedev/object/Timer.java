@@ -50,7 +50,18 @@ public class Timer implements Serializable {
 	
 	private boolean active = true;
 	private long delay; // action delay
-	private long currentTick;
+	long currentTick;
+	
+	/** *************************** TIMER WHEEL ********************************* */
+	
+	// set by TimerWheel when this timer is registered into the wheel
+	transient TimerWheel wheel;
+	transient TimerListener listener;
+	
+	transient Timer next, prev; // wheel slot list
+	transient long expires; // wheel time when this timer fires
+	transient int level, slot;
+	transient boolean scheduled; // true, linked in a wheel slot
 	
 	/** ************************************************************************* */
 	/** ***************************** CONSTRUCTOR ******************************* */
@@ -73,11 +84,15 @@ public class Timer implements Serializable {
 	/**
 	 * Returns true, if the timer delay time has been elapsed, thus the action
 	 * need to be performed.
+	 * <p>
+	 * 
+	 * Timer that registered into a {@link TimerWheel} always returns false, the
+	 * wheel notifies the timer listener instead.
 	 * 
 	 * @param elapsedTime time elapsed since last update
 	 */
 	public boolean action(long elapsedTime) {
-		if (this.active) {
+		if (this.active && this.wheel == null) {
 			this.currentTick += elapsedTime;
 			if (this.currentTick >= this.delay) {
 				// time elapsed!
@@ -98,6 +113,10 @@ public class Timer implements Serializable {
 	 */
 	public void refresh() {
 		this.currentTick = 0;
+		
+		if (this.wheel != null) {
+			this.wheel.reschedule(this);
+		}
 	}
 	
 	/**
@@ -107,7 +126,11 @@ public class Timer implements Serializable {
 	public void setEquals(Timer other) {
 		this.active = other.active;
 		this.delay = other.delay;
-		this.currentTick = other.currentTick;
+		this.currentTick = other.getCurrentTick();
+		
+		if (this.wheel != null) {
+			this.wheel.reschedule(this);
+		}
 	}
 	
 	/** ************************************************************************* */
@@ -153,7 +176,8 @@ public class Timer implements Serializable {
 	 * true.
 	 */
 	public long getCurrentTick() {
-		return this.currentTick;
+		return (this.wheel != null) ? this.wheel.getCurrentTick(this)
+		        : this.currentTick;
 	}
 	
 	/**
@@ -166,6 +190,20 @@ public class Timer implements Serializable {
 	 */
 	public void setCurrentTick(long tick) {
 		this.currentTick = tick;
+		
+		if (this.wheel != null) {
+			this.wheel.reschedule(this);
+		}
+	}
+	
+	/**
+	 * Returns the timer wheel this timer registered into, or null if this
+	 * timer is polled using {@link #action(long)}.
+	 * 
+	 * @see TimerWheel#schedule(Timer, TimerListener)
+	 */
+	public TimerWheel getTimerWheel() {
+		return this.wheel;
 	}
 	
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.object;
+
+/**
+ * The listener interface for receiving {@link Timer} action from
+ * {@link TimerWheel}.
+ * 
+ * @see TimerWheel#schedule(Timer, TimerListener)
+ */
+public interface TimerListener {
+	
+	/**
+	 * Invoked when the timer delay time has been elapsed.
+	 * 
+	 * @param timer the timer whose delay time has been elapsed
+	 */
+	public void timerFired(Timer timer);
+	
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.object;
+
+/**
+ * <code>TimerWheel</code> drives many {@link Timer} at once, only timers
+ * that actually fire are touched on every update.
+ * <p>
+ * 
+ * Polling timers with {@link Timer#action(long)} costs one call per timer
+ * every frame, even when the timer is still far from its delay time. Timers
+ * that registered to a timer wheel are not polled, instead they are kept
+ * sorted by their expiration time in a hierarchical timing wheel (4 levels of
+ * 64 slots, one slot of the first level is one millisecond), and the wheel
+ * notifies the timer {@linkplain TimerListener listener} when the timer
+ * delay time has been elapsed. After fired, the timer is rescheduled for its
+ * next delay time.
+ * <p>
+ * 
+ * Changing the timer state (active state, delay, current tick) reschedules
+ * the timer automatically. Registered timer always returns false from
+ * {@link Timer#action(long)}.
+ * <p>
+ * 
+ * Example :
+ * 
+ * <pre>
+ * TimerWheel wheel = new TimerWheel();
+ * Timer spawnTimer = new Timer(2000);
+ * wheel.schedule(spawnTimer, new TimerListener() {
+ * 
+ * 	public void timerFired(Timer timer) {
+ * 		// spawn new enemy every 2 seconds
+ * 	}
+ * });
+ * 
+ * public void update(long elapsedTime) {
+ * 	wheel.update(elapsedTime);
+ * }
+ * </pre>
+ * 
+ * @see PlayField#setTimerWheel(TimerWheel)
+ * @see AnimatedSprite#setTimerWheel(TimerWheel)
+ */
+public class TimerWheel {
+	
+	/** ************************** WHEEL CONSTANTS ****************************** */
+	
+	private static final int LEVELS = 4;
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << TimerWheel.SLOT_BITS;
+	private static final int SLOT_MASK = TimerWheel.SLOTS - 1;
+	
+	// maximum delay that fits into the wheel, longer delay is cascaded
+	private static final long MAX_RANGE =
+	        (1L << (TimerWheel.SLOT_BITS * TimerWheel.LEVELS)) - 1;
+	
+	/** *************************** WHEEL SLOTS ********************************* */
+	
+	// slot list heads, [level][slot]
+	private final Timer[][] slots =
+	        new Timer[TimerWheel.LEVELS][TimerWheel.SLOTS];
+	
+	private long time; // current wheel time in milliseconds
+	private int size; // total scheduled timers
+	
+	/** ************************************************************************* */
+	/** ***************************** CONSTRUCTOR ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Creates new empty <code>TimerWheel</code>.
+	 */
+	public TimerWheel() {
+	}
+	
+	/** ************************************************************************* */
+	/** ************************* TIMER REGISTRATION **************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Registers specified timer into this wheel, the listener is notified every
+	 * time the timer delay time has been elapsed. The timer current tick is
+	 * kept, if the timer is already registered to other wheel, the timer is
+	 * moved into this wheel.
+	 * 
+	 * @see #cancel(Timer)
+	 */
+	public void schedule(Timer timer, TimerListener listener) {
+		long tick = timer.getCurrentTick();
+		
+		if (timer.wheel != null) {
+			timer.wheel.cancel(timer);
+		}
+		
+		timer.wheel = this;
+		timer.listener = listener;
+		timer.setCurrentTick(tick);
+	}
+	
+	/**
+	 * Removes specified timer from this wheel, the timer is back to be polled
+	 * using {@link Timer#action(long)} with its current tick kept.
+	 */
+	public void cancel(Timer timer) {
+		if (timer.wheel != this) {
+			return;
+		}
+		
+		long tick = timer.getCurrentTick();
+		
+		this.unlink(timer);
+		timer.wheel = null;
+		timer.listener = null;
+		
+		timer.setCurrentTick(tick);
+	}
+	
+	/**
+	 * Removes all timers from this wheel.
+	 */
+	public void clear() {
+		for (int i = 0; i < TimerWheel.LEVELS; i++) {
+			for (int j = 0; j < TimerWheel.SLOTS; j++) {
+				Timer t = this.slots[i][j];
+				while (t != null) {
+					Timer next = t.next;
+					
+					t.wheel = null;
+					t.listener = null;
+					t.next = t.prev = null;
+					t.scheduled = false;
+					
+					t = next;
+				}
+				
+				this.slots[i][j] = null;
+			}
+		}
+		
+		this.size = 0;
+	}
+	
+	/**
+	 * Puts registered timer into its slot based on the timer state, called
+	 * by the timer every time its state changed.
+	 */
+	void reschedule(Timer timer) {
+		this.unlink(timer);
+		
+		if (timer.isActive()) {
+			long remaining = timer.getDelay() - timer.currentTick;
+			
+			// always fire in the future, or the timer will fire forever
+			timer.expires = this.time + Math.max(1, remaining);
+			this.link(timer);
+		}
+	}
+	
+	/**
+	 * Returns the current tick of registered timer.
+	 */
+	long getCurrentTick(Timer timer) {
+		if (!timer.scheduled) {
+			return timer.currentTick;
+		}
+		
+		return timer.getDelay() - (timer.expires - this.time);
+	}
+	
+	/** ************************************************************************* */
+	/** *************************** UPDATE WHEEL ******************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Advances this wheel time and notifies all timers that fire within the
+	 * elapsed time in their firing order.
+	 * 
+	 * @param elapsedTime time elapsed since last update
+	 */
+	public void update(long elapsedTime) {
+		for (long i = 0; i < elapsedTime; i++) {
+			this.time++;
+			
+			int index = (int) (this.time & TimerWheel.SLOT_MASK);
+			if (index == 0) {
+				// the first level has wrapped, cascade the upper levels
+				this.cascade(1);
+			}
+			
+			// listener may cancel or reschedule any timer, therefore take
+			// the timers one by one, a relinked timer never goes back into
+			// this slot
+			Timer t;
+			while ((t = this.slots[0][index]) != null) {
+				this.unlink(t);
+				
+				if (t.expires > this.time) {
+					// cascaded far timer, not expired yet
+					this.link(t);
+				}
+				else {
+					// next delay, counted from the exact expiration time
+					t.expires += Math.max(1, t.getDelay());
+					this.link(t);
+					
+					t.listener.timerFired(t);
+				}
+			}
+		}
+	}
+	
+	private void cascade(int level) {
+		if (level >= TimerWheel.LEVELS) {
+			return;
+		}
+		
+		int index = (int) ((this.time >> (TimerWheel.SLOT_BITS * level))
+		        & TimerWheel.SLOT_MASK);
+		if (index == 0) {
+			this.cascade(level + 1);
+		}
+		
+		// move the slot timers to the lower levels
+		Timer t = this.slots[level][index];
+		this.slots[level][index] = null;
+		
+		while (t != null) {
+			Timer next = t.next;
+			t.next = t.prev = null;
+			t.scheduled = false;
+			this.size--;
+			
+			this.link(t);
+			
+			t = next;
+		}
+	}
+	
+	/** ************************************************************************* */
+	/** *************************** SLOT LINKING ******************************** */
+	/** ************************************************************************* */
+	
+	private void link(Timer timer) {
+		long delta = timer.expires - this.time;
+		long expires = timer.expires;
+		
+		if (delta > TimerWheel.MAX_RANGE) {
+			// put at the furthest slot, it will be cascaded again
+			expires = this.time + TimerWheel.MAX_RANGE;
+			delta = TimerWheel.MAX_RANGE;
+		}
+		
+		int level = 0;
+		while (level < TimerWheel.LEVELS - 1
+		        && delta >= (1L << (TimerWheel.SLOT_BITS * (level + 1)))) {
+			level++;
+		}
+		
+		int index = (int) ((expires >> (TimerWheel.SLOT_BITS * level))
+		        & TimerWheel.SLOT_MASK);
+		
+		Timer head = this.slots[level][index];
+		timer.next = head;
+		timer.prev = null;
+		if (head != null) {
+			head.prev = timer;
+		}
+		this.slots[level][index] = timer;
+		
+		timer.level = level;
+		timer.slot = index;
+		timer.scheduled = true;
+		this.size++;
+	}
+	
+	private void unlink(Timer timer) {
+		if (!timer.scheduled) {
+			return;
+		}
+		
+		if (timer.prev != null) {
+			timer.prev.next = timer.next;
+		}
+		else {
+			this.slots[timer.level][timer.slot] = timer.next;
+		}
+		if (timer.next != null) {
+			timer.next.prev = timer.prev;
+		}
+		
+		timer.next = timer.prev = null;
+		timer.scheduled = false;
+		this.size--;
+	}
+	
+	/** ************************************************************************* */
+	/** ************************** WHEEL PROPERTIES ***************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns this wheel time, the total elapsed time since this wheel
+	 * created.
+	 */
+	public long getTime() {
+		return this.time;
+	}
+	
+	/**
+	 * Returns total active timers scheduled in this wheel.
+	 */
+	public int getSize() {
+		return this.size;
+	}
+	
+	public String toString() {
+		return super.toString() + " " + "[time=" + this.time + ", timers="
+		        + this.size + "]";
+	}
+	
+}
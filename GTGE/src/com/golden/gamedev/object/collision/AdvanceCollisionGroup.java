@@ -19,13 +19,13 @@ package com.golden.gamedev.object.collision;
 // JFC
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Iterator;
 import java.util.Map;
 
 import com.golden.gamedev.object.Sprite;
 import com.golden.gamedev.object.SpriteGroup;
-import com.golden.gamedev.util.Utility;
+import com.golden.gamedev.util.ObjectList;
 
 /**
  * Accurates collision check that able to check collision between one sprite
@@ -51,7 +51,10 @@ import com.golden.gamedev.util.Utility;
 public abstract class AdvanceCollisionGroup extends PreciseCollisionGroup
         implements Comparator {
 	
-	private final Map storage = new HashMap();
+	private final Map storage = new LinkedHashMap(); // in group one order
+	
+	// sprites collided with the checked sprite, reused every check
+	private final ObjectList collidedSprites = new ObjectList();
 	
 	private Sprite source;
 	
@@ -80,10 +83,10 @@ public abstract class AdvanceCollisionGroup extends PreciseCollisionGroup
 			return;
 		}
 		
-		Sprite[] member1 = group1.getSprites(), // members group one
-		member2 = group2.getSprites();
-		int size1 = group1.getSize(), // total non-null members
-		size2 = group2.getSize();
+		Sprite[] member1 = this.getCheckedSprites(group1), // members group one
+		member2 = this.getCheckedSprites(group2);
+		int size1 = this.getCheckedSize(group1), // total non-null members
+		size2 = this.getCheckedSize(group2);
 		
 		Sprite sprite1, sprite2; // sprite reference
 		CollisionShape shape1, shape2; // sprite collision rect
@@ -98,6 +101,7 @@ public abstract class AdvanceCollisionGroup extends PreciseCollisionGroup
 				continue;
 			}
 			
+			ObjectList collided = this.collidedSprites;
 			for (int j = 0; j < size2; j++) {
 				sprite2 = member2[j];
 				
@@ -112,17 +116,26 @@ public abstract class AdvanceCollisionGroup extends PreciseCollisionGroup
 				if (this.isCollide(sprite1, sprite2, shape1, shape2)) {
 					// collects all collided sprites event into
 					// our storage object
-					
-					// store sprites collided with sprite1
-					Sprite[] other = (Sprite[]) this.storage.get(sprite1);
-					
-					other = (Sprite[]) Utility.expand(other, 1, true,
-					        Sprite.class);
-					other[other.length - 1] = sprite2;
-					
-					this.storage.put(sprite1, other);
+					collided.add(sprite2);
 				}
 			}
+			
+			if (!collided.isEmpty()) {
+				// store sprites collided with sprite1
+				Sprite[] previous = (Sprite[]) this.storage.get(sprite1);
+				int len = (previous != null) ? previous.length : 0;
+				
+				Sprite[] other = new Sprite[len + collided.size()];
+				if (previous != null) {
+					// the same sprite listed twice in group one
+					System.arraycopy(previous, 0, other, 0, len);
+				}
+				System.arraycopy(collided.getElements(), 0, other, len,
+				        collided.size());
+				
+				this.storage.put(sprite1, other);
+				collided.clear();
+			}
 		}
 		
 		// now it's time to check the actual collision
@@ -245,7 +258,8 @@ public abstract class AdvanceCollisionGroup extends PreciseCollisionGroup
 	 * Returns collided sprites storage.
 	 * <p>
 	 * 
-	 * Mapping a sprite with its collided sprites.
+	 * Mapping a sprite with its collided sprites, iterated in the order of the
+	 * sprites in group one.
 	 */
 	public Map getStorage() {
 		return this.storage;
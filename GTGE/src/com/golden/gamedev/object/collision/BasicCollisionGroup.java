@@ -163,10 +163,10 @@ public abstract class BasicCollisionGroup extends CollisionManager {
 			return;
 		}
 		
-		Sprite[] member1 = group1.getSprites(), // group one members
-		member2 = group2.getSprites();
-		int size1 = group1.getSize(), // size of non-null members
-		size2 = group2.getSize();
+		Sprite[] member1 = this.getCheckedSprites(group1), // group one members
+		member2 = this.getCheckedSprites(group2);
+		int size1 = this.getCheckedSize(group1), // size of non-null members
+		size2 = this.getCheckedSize(group2);
 		
 		Sprite sprite1, sprite2; // sprite reference
 		CollisionShape shape1, shape2; // sprite collision rect
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.object.sprite;
+
+// JFC
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import com.golden.gamedev.object.AnimationClip;
+import com.golden.gamedev.object.AnimationClock;
+import com.golden.gamedev.object.Sprite;
+
+/**
+ * Sprite that shows a shared {@link AnimationClip}, the current frame is
+ * computed on render from an {@link AnimationClock} time.
+ * <p>
+ * 
+ * <code>ClipSprite</code> has no animation update at all and owns no
+ * {@link com.golden.gamedev.object.Timer}, suitable for thousands of purely
+ * decorative animated sprites. Give each sprite a different
+ * {@linkplain #setPhase(long) phase} to avoid all of them animating in sync.
+ * <p>
+ * 
+ * For example :
+ * 
+ * <pre>
+ * AnimationClip coinClip = new AnimationClip(getImages(&quot;coin.png&quot;, 8, 1), 80,
+ *         true);
+ * for (int i = 0; i &lt; 1000; i++) {
+ * 	ClipSprite coin = new ClipSprite(coinClip, x[i], y[i]);
+ * 	coin.setPhase(i * 25);
+ * 	COIN_GROUP.add(coin);
+ * }
+ * </pre>
+ * 
+ * @see AnimationClock#getDefaultClock()
+ */
+public class ClipSprite extends Sprite {
+	
+	/** *************************** SPRITE CLIP ********************************* */
+	
+	private transient AnimationClip clip;
+	private transient AnimationClock clock;
+	private long phase; // time offset added to the clock time
+	
+	/** ************************************************************************* */
+	/** ***************************** CONSTRUCTOR ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 7411298417251096353L;
+	
+	/**
+	 * Creates new <code>ClipSprite</code> with specified clip and location,
+	 * the sprite uses the default animation clock.
+	 */
+	public ClipSprite(AnimationClip clip, double x, double y) {
+		super(x, y);
+		
+		this.clock = AnimationClock.getDefaultClock();
+		this.setClip(clip);
+	}
+	
+	/**
+	 * Creates new <code>ClipSprite</code> with specified clip located at (0,
+	 * 0).
+	 */
+	public ClipSprite(AnimationClip clip) {
+		this(clip, 0, 0);
+	}
+	
+	/** ************************************************************************* */
+	/** *************************** CLIP OPERATION ****************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns the clip time of this sprite, that is the clock time plus this
+	 * sprite phase.
+	 */
+	public long getClipTime() {
+		return this.clock.getTime() + this.phase;
+	}
+	
+	/**
+	 * Returns current frame of this sprite clip.
+	 */
+	public int getFrame() {
+		return this.clip.getFrame(this.getClipTime());
+	}
+	
+	/**
+	 * Restarts the clip from the first frame, useful for non-looping clip.
+	 */
+	public void restart() {
+		this.phase = -this.clock.getTime();
+	}
+	
+	/**
+	 * Returns true, if the non-looping clip of this sprite has finished.
+	 */
+	public boolean isFinished() {
+		return this.clip.isFinished(this.getClipTime());
+	}
+	
+	/**
+	 * Returns the image of current frame.
+	 */
+	public BufferedImage getImage() {
+		return this.clip.getImage(this.getClipTime());
+	}
+	
+	/**
+	 * This method is obsolete on clip sprite, the sprite images are taken from
+	 * its clip.
+	 * 
+	 * @see #setClip(AnimationClip)
+	 */
+	public void setImage(BufferedImage image) {
+		throw new RuntimeException("Clip Sprite takes its images from its clip, "
+		        + "use setClip(AnimationClip) instead!");
+	}
+	
+	/** ************************************************************************* */
+	/** ************************** RENDER SPRITE ******************************** */
+	/** ************************************************************************* */
+	
+	public void render(Graphics2D g, int x, int y) {
+		g.drawImage(this.clip.getImage(this.getClipTime()), x, y, null);
+	}
+	
+	/** ************************************************************************* */
+	/** ************************** SPRITE PROPERTIES **************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns the animation clip shown by this sprite.
+	 */
+	public AnimationClip getClip() {
+		return this.clip;
+	}
+	
+	/**
+	 * Sets the animation clip shown by this sprite, the sprite size is set as
+	 * large as the clip first image.
+	 */
+	public void setClip(AnimationClip clip) {
+		this.clip = clip;
+		
+		this.width = clip.getWidth();
+		this.height = clip.getHeight();
+	}
+	
+	/**
+	 * Returns the clock used by this sprite.
+	 */
+	public AnimationClock getClock() {
+		return this.clock;
+	}
+	
+	/**
+	 * Sets the clock used by this sprite.
+	 */
+	public void setClock(AnimationClock clock) {
+		this.clock = clock;
+	}
+	
+	/**
+	 * Returns this sprite phase, the time offset in milliseconds added to the
+	 * clock time.
+	 */
+	public long getPhase() {
+		return this.phase;
+	}
+	
+	/**
+	 * Sets this sprite phase, the time offset in milliseconds added to the
+	 * clock time.
+	 */
+	public void setPhase(long phase) {
+		this.phase = phase;
+	}
+	
+}
@@ -43,7 +43,12 @@ import javax.imageio.ImageIO;
  */
 public class ImageUtil {
 	
-	public static final GraphicsConfiguration CONFIG = GraphicsEnvironment
+	/**
+	 * The default screen graphics configuration, or null in headless
+	 * environment (<code>java.awt.headless=true</code>).
+	 */
+	public static final GraphicsConfiguration CONFIG = (GraphicsEnvironment
+	        .isHeadless()) ? null : GraphicsEnvironment
 	        .getLocalGraphicsEnvironment().getDefaultScreenDevice()
 	        .getDefaultConfiguration();
 	
@@ -56,7 +61,8 @@ public class ImageUtil {
 		tracker = new MediaTracker(canvas);
 	}
 	
-	private static Composite composite;
+	// saved composite of each thread
+	private static final ThreadLocal composite = new ThreadLocal();
 	
 	private ImageUtil() {
 	}
@@ -188,7 +194,13 @@ public class ImageUtil {
 	 * @see Transparency#TRANSLUCENT
 	 */
 	public static BufferedImage createImage(int width, int height, int transparency) {
-		// return new BufferedImage(width, height, transparency);
+		if (ImageUtil.CONFIG == null) {
+			// headless, no screen to be compatible with
+			return new BufferedImage(width, height,
+			        (transparency == Transparency.OPAQUE) ? BufferedImage.TYPE_INT_RGB
+			                : BufferedImage.TYPE_INT_ARGB);
+		}
+		
 		return ImageUtil.CONFIG.createCompatibleImage(width, height,
 		        transparency);
 	}
@@ -459,13 +471,13 @@ public class ImageUtil {
 	}
 	
 	public static void saveComposite(Graphics2D g) {
-		ImageUtil.composite = g.getComposite();
+		ImageUtil.composite.set(g.getComposite());
 	}
 	
 	public static void loadComposite(Graphics2D g) {
-		g.setComposite(ImageUtil.composite);
+		g.setComposite((Composite) ImageUtil.composite.get());
 		
-		ImageUtil.composite = null;
+		ImageUtil.composite.set(null);
 	}
 	
 	public static void setTransparent(Graphics2D g, float alpha) {
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.util;
+
+/**
+ * Growable array of <code>int</code>, the primitive counterpart of
+ * {@link ObjectList}, values are stored without any boxing.
+ * <p>
+ * 
+ * The backing array grows geometrically (doubled) and is kept when the list is
+ * {@linkplain #clear() cleared}.
+ * 
+ * @see ObjectList
+ */
+public class IntList {
+	
+	private int[] elements;
+	private int size;
+	
+	/** ************************************************************************* */
+	/** ***************************** CONSTRUCTOR ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Creates new <code>IntList</code> with specified initial capacity.
+	 */
+	public IntList(int capacity) {
+		this.elements = new int[Math.max(1, capacity)];
+	}
+	
+	/**
+	 * Creates new <code>IntList</code> with initial capacity 16.
+	 */
+	public IntList() {
+		this(16);
+	}
+	
+	/** ************************************************************************* */
+	/** ************************** LIST OPERATION ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Appends specified value at the end of this list.
+	 */
+	public void add(int value) {
+		if (this.size >= this.elements.length) {
+			this.ensureCapacity(this.size + 1);
+		}
+		
+		this.elements[this.size++] = value;
+	}
+	
+	/**
+	 * Returns the value at specified index.
+	 */
+	public int get(int index) {
+		if (index >= this.size) {
+			throw new ArrayIndexOutOfBoundsException(index);
+		}
+		
+		return this.elements[index];
+	}
+	
+	/**
+	 * Replaces the value at specified index.
+	 */
+	public void set(int index, int value) {
+		if (index >= this.size) {
+			throw new ArrayIndexOutOfBoundsException(index);
+		}
+		
+		this.elements[index] = value;
+	}
+	
+	/**
+	 * Removes and returns the value at specified index, the following values
+	 * are shifted to keep the list order.
+	 */
+	public int remove(int index) {
+		int value = this.get(index);
+		
+		int numMoved = this.size - index - 1;
+		if (numMoved > 0) {
+			System.arraycopy(this.elements, index + 1, this.elements, index,
+			        numMoved);
+		}
+		this.size--;
+		
+		return value;
+	}
+	
+	/**
+	 * Returns index of the first occurrence of specified value, or -1 if this
+	 * list does not contain the value.
+	 */
+	public int indexOf(int value) {
+		for (int i = 0; i < this.size; i++) {
+			if (this.elements[i] == value) {
+				return i;
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Removes all values from this list, the backing array is kept.
+	 */
+	public void clear() {
+		this.size = 0;
+	}
+	
+	/**
+	 * Returns new array that contains all values of this list.
+	 */
+	public int[] toArray() {
+		int[] dest = new int[this.size];
+		System.arraycopy(this.elements, 0, dest, 0, this.size);
+		
+		return dest;
+	}
+	
+	/**
+	 * Ensures the backing array can hold at least specified number of values.
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity > this.elements.length) {
+			int[] dest = new int[Math.max(capacity, this.elements.length * 2)];
+			System.arraycopy(this.elements, 0, dest, 0, this.size);
+			this.elements = dest;
+		}
+	}
+	
+	/** ************************************************************************* */
+	/** ************************** LIST PROPERTIES ****************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns the backing array of this list, only the first
+	 * {@linkplain #size() size} values are valid.
+	 * <p>
+	 * 
+	 * The returned array is replaced when the list grows, do not keep its
+	 * reference after adding new value.
+	 */
+	public int[] getElements() {
+		return this.elements;
+	}
+	
+	/**
+	 * Returns total values in this list.
+	 */
+	public int size() {
+		return this.size;
+	}
+	
+	/**
+	 * Returns true, if this list has no value.
+	 */
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+	
+	public String toString() {
+		return super.toString() + " " + "[size=" + this.size + ", capacity="
+		        + this.elements.length + "]";
+	}
+	
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2008 Golden T Studios.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.golden.gamedev.util;
+
+// JFC
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Growable array of objects, a lightweight unsynchronized replacement of
+ * {@link Utility#expand(Object, int)} for arrays that grow inside the game
+ * loop.
+ * <p>
+ * 
+ * The backing array grows geometrically (doubled) without any reflection, and
+ * is kept when the list is {@linkplain #clear() cleared}, therefore a list that
+ * is reused every frame stops allocating as soon as it reaches its working
+ * size.
+ * 
+ * @see IntList
+ */
+public class ObjectList {
+	
+	private Object[] elements;
+	private int size;
+	
+	/** ************************************************************************* */
+	/** ***************************** CONSTRUCTOR ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Creates new <code>ObjectList</code> with specified initial capacity.
+	 */
+	public ObjectList(int capacity) {
+		this.elements = new Object[Math.max(1, capacity)];
+	}
+	
+	/**
+	 * Creates new <code>ObjectList</code> with initial capacity 16.
+	 */
+	public ObjectList() {
+		this(16);
+	}
+	
+	/** ************************************************************************* */
+	/** ************************** LIST OPERATION ******************************* */
+	/** ************************************************************************* */
+	
+	/**
+	 * Appends specified object at the end of this list.
+	 */
+	public void add(Object o) {
+		if (this.size >= this.elements.length) {
+			this.ensureCapacity(this.size + 1);
+		}
+		
+		this.elements[this.size++] = o;
+	}
+	
+	/**
+	 * Returns the object at specified index.
+	 */
+	public Object get(int index) {
+		if (index >= this.size) {
+			throw new ArrayIndexOutOfBoundsException(index);
+		}
+		
+		return this.elements[index];
+	}
+	
+	/**
+	 * Replaces the object at specified index.
+	 */
+	public void set(int index, Object o) {
+		if (index >= this.size) {
+			throw new ArrayIndexOutOfBoundsException(index);
+		}
+		
+		this.elements[index] = o;
+	}
+	
+	/**
+	 * Removes and returns the object at specified index, the following objects
+	 * are shifted to keep the list order.
+	 */
+	public Object remove(int index) {
+		Object o = this.get(index);
+		
+		int numMoved = this.size - index - 1;
+		if (numMoved > 0) {
+			System.arraycopy(this.elements, index + 1, this.elements, index,
+			        numMoved);
+		}
+		this.elements[--this.size] = null; // let gc do its work
+		
+		return o;
+	}
+	
+	/**
+	 * Removes and returns the last object of this list.
+	 */
+	public Object removeLast() {
+		return this.remove(this.size - 1);
+	}
+	
+	/**
+	 * Returns index of the first occurrence of specified object (compared by
+	 * reference), or -1 if this list does not contain the object.
+	 */
+	public int indexOf(Object o) {
+		for (int i = 0; i < this.size; i++) {
+			if (this.elements[i] == o) {
+				return i;
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Removes all objects from this list, the backing array is kept.
+	 */
+	public void clear() {
+		for (int i = 0; i < this.size; i++) {
+			// let gc do its work
+			this.elements[i] = null;
+		}
+		
+		this.size = 0;
+	}
+	
+	/**
+	 * Sorts this list with specified comparator.
+	 */
+	public void sort(Comparator c) {
+		Arrays.sort(this.elements, 0, this.size, c);
+	}
+	
+	/**
+	 * Copies this list objects into specified array and returns it, the array
+	 * must be at least as large as this list size.
+	 */
+	public Object[] toArray(Object[] dest) {
+		System.arraycopy(this.elements, 0, dest, 0, this.size);
+		
+		return dest;
+	}
+	
+	/**
+	 * Ensures the backing array can hold at least specified number of objects.
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity > this.elements.length) {
+			Object[] dest = new Object[Math.max(capacity,
+			        this.elements.length * 2)];
+			System.arraycopy(this.elements, 0, dest, 0, this.size);
+			this.elements = dest;
+		}
+	}
+	
+	/** ************************************************************************* */
+	/** ************************** LIST PROPERTIES ****************************** */
+	/** ************************************************************************* */
+	
+	/**
+	 * Returns the backing array of this list, only the first
+	 * {@linkplain #size() size} objects are valid.
+	 * <p>
+	 * 
+	 * The returned array is replaced when the list grows, do not keep its
+	 * reference after adding new object.
+	 */
+	public Object[] getElements() {
+		return this.elements;
+	}
+	
+	/**
+	 * Returns total objects in this list.
+	 */
+	public int size() {
+		return this.size;
+	}
+	
+	/**
+	 * Returns true, if this list has no object.
+	 */
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+	
+	public String toString() {
+		return super.toString() + " " + "[size=" + this.size + ", capacity="
+		        + this.elements.length + "]";
+	}
+	
+}
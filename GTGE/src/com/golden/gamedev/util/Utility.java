@@ -172,6 +172,16 @@ public class Utility {
 		return Utility.rnd;
 	}
 	
+	/**
+	 * Sets the seed of the pre-defined Random object, the same seed always
+	 * gives the same sequence of random numbers.
+	 * 
+	 * @see com.golden.gamedev.Game#setDeterministic(boolean)
+	 */
+	public static void setRandomSeed(long seed) {
+		Utility.rnd.setSeed(seed);
+	}
+	
 	/**
 	 * Returns a random number, range from lowerbound (inclusive) to upperbound
 	 * (inclusive).